@@ -18,6 +18,7 @@ plugins {
 	signing
     eclipse
 	jacoco
+	alias(libs.plugins.graalvm.native)
 //	alias(libs.plugins.adarshr.test.logger)
 }
 
@@ -32,6 +33,15 @@ java {
 	}
 }
 
+// JMH benchmarks live in their own source set (src/jmh/java), see the "jmh" task below
+val jmh by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
 	compileOnly(libs.ant)
     testImplementation(platform(libs.junit.bom))
@@ -53,9 +63,11 @@ dependencies {
     implementation(libs.elk.alg.layered)
     implementation(libs.elk.alg.mrtree)
 
+    "jmhImplementation"(libs.jmh.core)
+    "jmhAnnotationProcessor"(libs.jmh.generator.annprocess)
+
     // Custom configuration for pdfJar task
     configurations.create("pdfJarDeps")
-    "pdfJarDeps"(libs.fop)
     "pdfJarDeps"(libs.batik.all)
 
 }
@@ -187,6 +199,46 @@ tasks.test {
 	testLogging.showStandardStreams = true
 }
 
+val nonregTest by tasks.registering(Test::class) {
+    description = "Runs the nonreg corpus, also used as smoke tests of the native image (nativeNonregTest)"
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform()
+    filter {
+        includeTestsMatching("nonreg.*")
+    }
+}
+
+//    builds a native executable of the command line (picoweb included) with GraalVM native-image:
+// gradle nativeCompile
+//    runs the nonreg corpus compiled as a native image, to check parity with the JVM:
+// gradle nativeNonregTest
+//    generates the reachability metadata in src/main/resources/META-INF/native-image with the tracing agent:
+// gradle -Pagent nonregTest metadataCopy
+graalvmNative {
+    toolchainDetection.set(false)
+    binaries.all { resources.autodetect() }
+    binaries {
+        named("main") {
+            imageName.set("plantuml")
+            mainClass.set("net.sourceforge.plantuml.Run")
+            buildArgs.add("--no-fallback")
+        }
+    }
+    registerTestBinary("nonregTest") {
+        usingSourceSet(sourceSets.test.get())
+        forTestTask(nonregTest)
+    }
+    agent {
+        metadataCopy {
+            inputTaskNames.add("nonregTest")
+            outputDirectories.add("src/main/resources/META-INF/native-image/net.sourceforge.plantuml/plantuml")
+            mergeWithExisting.set(false)
+        }
+    }
+}
+
 tasks.register<Test>("runIntermediateTest") {
     description = "Runs the 'IntermediateTest'"
     group = "dev"
@@ -196,6 +248,22 @@ tasks.register<Test>("runIntermediateTest") {
     }
 }
 
+//    runs the JMH benchmarks, with allocation profiling by default; any JMH option can be given:
+// gradle jmh
+// gradle jmh -PjmhArgs="ParseBenchmark -p corpus=CLASS -p size=2000 -prof gc"
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the JMH benchmarks of the parse, layout and export stages"
+    group = "dev"
+    dependsOn(tasks.named(jmh.classesTaskName))
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val reportDir = layout.buildDirectory.dir("reports/jmh").get().asFile
+    doFirst { reportDir.mkdirs() }
+    val jmhArgs = (project.findProperty("jmhArgs") ?: "-prof gc") as String
+    args(jmhArgs.split(" ").filter { it.isNotBlank() })
+    args("-rf", "json", "-rff", File(reportDir, "results.json").path)
+}
+
 tasks.jacocoTestReport {
     dependsOn(tasks.test)
 
@@ -0,0 +1,121 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.NullOutputStream;
+import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.core.Diagram;
+import net.sourceforge.plantuml.core.ImageData;
+
+/**
+ * Layout and drawing of long activity diagrams, with or without swimlanes.
+ * The measurement passes of the swimlanes walk the whole ftile tree once per
+ * lane, so this is where a non linear cost shows first.
+ *
+ * The ftiles are nested as deep as the diagram is long, hence the larger
+ * thread stack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Xss16m" })
+public class ActivityLayoutBenchmark {
+
+	@Param({ "2000" })
+	public int size;
+
+	@Param({ "1", "4" })
+	public int lanes;
+
+	private String source;
+	private Diagram diagram;
+
+	@Setup
+	public void generateSource() {
+		final StringBuilder sb = new StringBuilder("@startuml\n!pragma layout smetana\n");
+		for (int i = 0; i < lanes; i++)
+			sb.append("|Lane ").append(i).append("|\n");
+		sb.append("|Lane 0|\nstart\n");
+		for (int i = 0; i < size; i++) {
+			if (lanes > 1 && i % 25 == 0 && i > 0)
+				sb.append("|Lane ").append(i / 25 % lanes).append("|\n");
+			if (i % 10 == 0) {
+				sb.append("if (condition ").append(i).append("?) then (yes)\n");
+				sb.append(":action ").append(i).append(" yes;\n");
+				sb.append("else (no)\n");
+				sb.append(":action ").append(i).append(" no;\n");
+				sb.append("endif\n");
+			} else if (i % 17 == 0) {
+				sb.append("repeat\n:action ").append(i).append(" in loop;\n");
+				sb.append("repeat while (again ").append(i).append("?)\n");
+			} else {
+				sb.append(":action ").append(i).append(";\n");
+			}
+		}
+		source = sb.append("stop\n@enduml\n").toString();
+	}
+
+	@Setup(Level.Invocation)
+	public void parse() {
+		diagram = new SourceStringReader(source).getBlocks().get(0).getDiagram();
+	}
+
+	@Benchmark
+	public ImageData export() throws IOException {
+		return diagram.exportDiagram(new NullOutputStream(), 0, new FileFormatOption(FileFormat.SVG));
+	}
+
+}
@@ -0,0 +1,124 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.plantuml.elk.proxy.core.options.CoreOptions;
+import net.sourceforge.plantuml.elk.proxy.core.options.Direction;
+import net.sourceforge.plantuml.elk.proxy.graph.ElkEdge;
+import net.sourceforge.plantuml.elk.proxy.graph.ElkLabel;
+import net.sourceforge.plantuml.elk.proxy.graph.ElkNode;
+import net.sourceforge.plantuml.elk.proxy.graph.util.ElkGraphUtil;
+
+/**
+ * Cost of going through <code>net.sourceforge.plantuml.elk.proxy</code>
+ * compared to calling ELK directly, on the graph building and reading done
+ * around the layout itself (the layout is not run).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ElkProxyBenchmark {
+
+	@Param({ "5000" })
+	public int nodes;
+
+	@Benchmark
+	public double proxied() {
+		final ElkNode root = ElkGraphUtil.createGraph();
+		root.setProperty(CoreOptions.DIRECTION, Direction.DOWN);
+		final List<ElkNode> all = new ArrayList<>();
+		for (int i = 0; i < nodes; i++) {
+			final ElkNode node = ElkGraphUtil.createNode(root);
+			node.setDimensions(100, 40);
+			final ElkLabel label = ElkGraphUtil.createLabel(node);
+			label.setText("node" + i);
+			label.setDimensions(60, 16);
+			if (i > 0) {
+				final ElkEdge edge = ElkGraphUtil.createSimpleEdge(all.get(i / 2), node);
+				ElkGraphUtil.createLabel(edge).setText("edge" + i);
+			}
+			all.add(node);
+		}
+		double sum = 0;
+		for (ElkNode node : all)
+			sum += node.getX() + node.getY() + node.getWidth() + node.getHeight();
+		return sum;
+	}
+
+	@Benchmark
+	public double direct() {
+		final org.eclipse.elk.graph.ElkNode root = org.eclipse.elk.graph.util.ElkGraphUtil.createGraph();
+		root.setProperty(org.eclipse.elk.core.options.CoreOptions.DIRECTION,
+				org.eclipse.elk.core.options.Direction.DOWN);
+		final List<org.eclipse.elk.graph.ElkNode> all = new ArrayList<>();
+		for (int i = 0; i < nodes; i++) {
+			final org.eclipse.elk.graph.ElkNode node = org.eclipse.elk.graph.util.ElkGraphUtil.createNode(root);
+			node.setDimensions(100, 40);
+			final org.eclipse.elk.graph.ElkLabel label = org.eclipse.elk.graph.util.ElkGraphUtil.createLabel(node);
+			label.setText("node" + i);
+			label.setDimensions(60, 16);
+			if (i > 0) {
+				final org.eclipse.elk.graph.ElkEdge edge = org.eclipse.elk.graph.util.ElkGraphUtil
+						.createSimpleEdge(all.get(i / 2), node);
+				org.eclipse.elk.graph.util.ElkGraphUtil.createLabel(edge).setText("edge" + i);
+			}
+			all.add(node);
+		}
+		double sum = 0;
+		for (org.eclipse.elk.graph.ElkNode node : all)
+			sum += node.getX() + node.getY() + node.getWidth() + node.getHeight();
+		return sum;
+	}
+
+}
@@ -0,0 +1,105 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.plantuml.klimt.compress.CompressionTransform;
+import net.sourceforge.plantuml.klimt.compress.SlotSet;
+
+/**
+ * The compression pass of large drawings: one slot per shape, then the
+ * complement and the transformation of every coordinate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SlotSetBenchmark {
+
+	@Param({ "100000" })
+	public int slots;
+
+	/**
+	 * Shapes drawn top to bottom, as a diagram does, or in any order.
+	 */
+	@Param({ "true", "false" })
+	public boolean ordered;
+
+	private double[] starts;
+	private double[] sizes;
+
+	@Setup
+	public void generateSlots() {
+		final Random rnd = new Random(42);
+		starts = new double[slots];
+		sizes = new double[slots];
+		for (int i = 0; i < slots; i++) {
+			starts[i] = ordered ? i * 30 + rnd.nextInt(20) : rnd.nextInt(slots * 30);
+			sizes[i] = 1 + rnd.nextInt(25);
+		}
+	}
+
+	@Benchmark
+	public double compress() {
+		final SlotSet set = new SlotSet();
+		for (int i = 0; i < slots; i++)
+			set.addSlot(starts[i], starts[i] + sizes[i]);
+
+		final CompressionTransform transform = new CompressionTransform(set.reverse().smaller(5.0));
+		double sum = 0;
+		for (int i = 0; i < slots; i++)
+			sum += transform.transform(starts[i]);
+
+		return sum;
+	}
+
+}
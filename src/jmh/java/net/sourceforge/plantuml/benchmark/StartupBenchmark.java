@@ -0,0 +1,108 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.NullOutputStream;
+import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.core.DiagramDescription;
+
+/**
+ * Time to the first image of a fresh JVM, on a trivial sequence diagram. Each
+ * fork renders exactly once, so this is what a command line run pays before
+ * the JIT has done anything. The <code>classesLoaded</code> counter reports how
+ * many classes that first render had to load.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 10, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StartupBenchmark {
+
+	private static final String SOURCE = "@startuml\nAlice -> Bob : hello\n@enduml\n";
+
+	// JMH only accepts numeric fields in an @AuxCounters state, so the counter
+	// lives apart from the benchmark
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class ClassCounter {
+
+		private ClassLoadingMXBean classLoading;
+		private long loadedBefore;
+
+		public long classesLoaded;
+
+		@Setup(Level.Iteration)
+		public void countLoadedClasses() {
+			classLoading = ManagementFactory.getClassLoadingMXBean();
+			loadedBefore = classLoading.getTotalLoadedClassCount();
+		}
+
+		void update() {
+			classesLoaded = classLoading.getTotalLoadedClassCount() - loadedBefore;
+		}
+
+	}
+
+	@Benchmark
+	public DiagramDescription firstImage(ClassCounter counter) throws IOException {
+		final DiagramDescription result = new SourceStringReader(SOURCE).outputImage(new NullOutputStream(),
+				new FileFormatOption(FileFormat.SVG));
+		counter.update();
+		return result;
+	}
+
+}
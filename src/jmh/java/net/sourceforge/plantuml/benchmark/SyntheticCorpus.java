@@ -0,0 +1,165 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.benchmark;
+
+import java.util.Random;
+
+/**
+ * Reproducible synthetic diagrams used by the benchmarks.
+ * <p>
+ * Every corpus is generated from a fixed seed, so two runs (or two machines)
+ * always measure exactly the same sources. Diagrams needing a graph layout use
+ * Smetana so that no Graphviz installation is required.
+ */
+public enum SyntheticCorpus {
+
+	SEQUENCE {
+		@Override
+		public String generate(int size) {
+			final Random rnd = new Random(42);
+			final StringBuilder sb = new StringBuilder("@startuml\n");
+			final int participants = Math.max(2, size / 20);
+			for (int i = 0; i < participants; i++)
+				sb.append("participant P").append(i).append('\n');
+			for (int i = 0; i < size; i++) {
+				final int from = rnd.nextInt(participants);
+				final int to = rnd.nextInt(participants);
+				sb.append('P').append(from).append(i % 7 == 0 ? " --> P" : " -> P").append(to);
+				sb.append(" : message ").append(i).append('\n');
+				if (i % 25 == 0)
+					sb.append("note over P").append(from).append(" : note ").append(i).append('\n');
+				if (i % 50 == 0)
+					sb.append("== Section ").append(i / 50).append(" ==\n");
+			}
+			return sb.append("@enduml\n").toString();
+		}
+	},
+
+	CLASS {
+		@Override
+		public String generate(int size) {
+			final Random rnd = new Random(42);
+			final StringBuilder sb = new StringBuilder("@startuml\n!pragma layout smetana\n");
+			for (int i = 0; i < size; i++) {
+				if (i % 20 == 0)
+					sb.append("package pkg").append(i / 20).append(" {\n");
+				sb.append("class C").append(i).append(" {\n");
+				sb.append("  -id : long\n");
+				sb.append("  +name : String\n");
+				sb.append("  +compute").append(i).append("(int x) : double\n");
+				sb.append("}\n");
+				if (i % 20 == 19 || i == size - 1)
+					sb.append("}\n");
+			}
+			for (int i = 1; i < size; i++) {
+				final int other = rnd.nextInt(i);
+				sb.append('C').append(i).append(i % 3 == 0 ? " --|> C" : " --> C").append(other).append('\n');
+			}
+			return sb.append("@enduml\n").toString();
+		}
+	},
+
+	ACTIVITY {
+		@Override
+		public String generate(int size) {
+			final StringBuilder sb = new StringBuilder("@startuml\n|Lane 0|\nstart\n");
+			for (int i = 0; i < size; i++) {
+				if (i % 40 == 0 && i > 0)
+					sb.append("|Lane ").append(i / 40 % 4).append("|\n");
+				if (i % 10 == 0) {
+					sb.append("if (condition ").append(i).append("?) then (yes)\n");
+					sb.append(":action ").append(i).append(" yes;\n");
+					sb.append("else (no)\n");
+					sb.append(":action ").append(i).append(" no;\n");
+					sb.append("endif\n");
+				} else if (i % 17 == 0) {
+					sb.append("while (loop ").append(i).append("?)\n");
+					sb.append(":action ").append(i).append(" in loop;\n");
+					sb.append("endwhile\n");
+				} else {
+					sb.append(":action ").append(i).append(";\n");
+				}
+			}
+			return sb.append("stop\n@enduml\n").toString();
+		}
+	},
+
+	GANTT {
+		@Override
+		public String generate(int size) {
+			final Random rnd = new Random(42);
+			final StringBuilder sb = new StringBuilder("@startgantt\n");
+			sb.append("Project starts 2024-01-01\n");
+			sb.append("saturday are closed\nsunday are closed\n");
+			for (int i = 0; i < size; i++) {
+				sb.append("[Task ").append(i).append("] requires ").append(1 + rnd.nextInt(10)).append(" days\n");
+				if (i > 0)
+					sb.append("[Task ").append(i).append("] starts at [Task ").append(rnd.nextInt(i))
+							.append("]'s end\n");
+				if (i % 30 == 29)
+					sb.append("[Milestone ").append(i).append("] happens at [Task ").append(i).append("]'s end\n");
+			}
+			return sb.append("@endgantt\n").toString();
+		}
+	},
+
+	C4_WITH_INCLUDES {
+		@Override
+		public String generate(int size) {
+			final Random rnd = new Random(42);
+			final StringBuilder sb = new StringBuilder("@startuml\n");
+			sb.append("!include <C4/C4_Container>\n");
+			sb.append("!pragma layout smetana\n");
+			sb.append("Person(user, \"User\", \"A user of the system\")\n");
+			for (int i = 0; i < size; i++) {
+				if (i % 10 == 0)
+					sb.append("System_Boundary(b").append(i / 10).append(", \"Boundary ").append(i / 10)
+							.append("\") {\n");
+				sb.append("Container(c").append(i).append(", \"Container ").append(i)
+						.append("\", \"Java\", \"Does things\")\n");
+				if (i % 10 == 9 || i == size - 1)
+					sb.append("}\n");
+			}
+			sb.append("Rel(user, c0, \"Uses\", \"HTTPS\")\n");
+			for (int i = 1; i < size; i++)
+				sb.append("Rel(c").append(i).append(", c").append(rnd.nextInt(i)).append(", \"Calls\")\n");
+			return sb.append("@enduml\n").toString();
+		}
+	};
+
+	public abstract String generate(int size);
+
+}
@@ -0,0 +1,6 @@
+/**
+ * JMH benchmarks of the preprocessing, parsing, layout and export stages,
+ * run with <code>gradle jmh</code>.
+ *
+ */
+package net.sourceforge.plantuml.benchmark;
@@ -45,6 +45,7 @@ import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import com.plantuml.api.cheerpj.WasmLog;
 
@@ -60,6 +61,8 @@ import net.sourceforge.plantuml.api.ImageDataComplex;
 import net.sourceforge.plantuml.api.ImageDataSimple;
 import net.sourceforge.plantuml.braille.UGraphicBraille;
 import net.sourceforge.plantuml.core.ImageData;
+import net.sourceforge.plantuml.dot.GraphvizUtils;
+import net.sourceforge.plantuml.klimt.UPattern;
 import net.sourceforge.plantuml.klimt.UStroke;
 import net.sourceforge.plantuml.klimt.UTranslate;
 import net.sourceforge.plantuml.klimt.color.ColorMapper;
@@ -76,6 +79,7 @@ import net.sourceforge.plantuml.klimt.drawing.eps.UGraphicEps;
 import net.sourceforge.plantuml.klimt.drawing.g2d.UGraphicG2d;
 import net.sourceforge.plantuml.klimt.drawing.hand.UGraphicHandwritten;
 import net.sourceforge.plantuml.klimt.drawing.html5.UGraphicHtml5;
+import net.sourceforge.plantuml.klimt.drawing.pdf.UGraphicPdf;
 import net.sourceforge.plantuml.klimt.drawing.svg.SvgOption;
 import net.sourceforge.plantuml.klimt.drawing.svg.UGraphicSvg;
 import net.sourceforge.plantuml.klimt.drawing.tikz.UGraphicTikz;
@@ -85,10 +89,19 @@ import net.sourceforge.plantuml.klimt.font.FontConfiguration;
 import net.sourceforge.plantuml.klimt.font.StringBounder;
 import net.sourceforge.plantuml.klimt.font.UFont;
 import net.sourceforge.plantuml.klimt.geom.XDimension2D;
+import net.sourceforge.plantuml.klimt.shape.AbstractTextBlock;
 import net.sourceforge.plantuml.klimt.shape.TextBlock;
 import net.sourceforge.plantuml.klimt.shape.UDrawable;
 import net.sourceforge.plantuml.klimt.shape.URectangle;
 import net.sourceforge.plantuml.klimt.shape.UText;
+import net.sourceforge.plantuml.metrics.Jfr;
+import net.sourceforge.plantuml.metrics.JfrEvent;
+import net.sourceforge.plantuml.metrics.JfrStage;
+import net.sourceforge.plantuml.metrics.Metrics;
+import net.sourceforge.plantuml.metrics.Phase;
+import net.sourceforge.plantuml.png.BandedImage;
+import net.sourceforge.plantuml.png.PngIOMetadata;
+import net.sourceforge.plantuml.png.RasterPool;
 import net.sourceforge.plantuml.preproc.ConfigurationStore;
 import net.sourceforge.plantuml.preproc.OptionKey;
 import net.sourceforge.plantuml.skin.ColorParam;
@@ -128,6 +141,7 @@ public class ImageBuilder {
 	private boolean randomPixel;
 	private String warningOrError;
 	private final Collection<Warning> warnings = new LinkedHashSet<>();
+	private Consumer<TextBlock> capture;
 
 	public static ImageBuilder create(FileFormatOption fileFormatOption) {
 		return new ImageBuilder(fileFormatOption);
@@ -208,6 +222,17 @@ public class ImageBuilder {
 
 	}
 
+	/**
+	 * When not null, the image is not encoded: what would have been drawn is given
+	 * to the consumer as a TextBlock, so that another UGraphic can draw it. This is
+	 * skipped when the image has to be scaled or recolored, as neither can be done
+	 * on the receiving UGraphic.
+	 */
+	public ImageBuilder capture(Consumer<TextBlock> capture) {
+		this.capture = capture;
+		return this;
+	}
+
 	public ImageBuilder warningOrError(String warningOrError) {
 		this.warningOrError = warningOrError;
 		return this;
@@ -228,6 +253,7 @@ public class ImageBuilder {
 	}
 
 	public ImageData write(OutputStream os) throws IOException {
+		final JfrEvent event = Jfr.begin(JfrStage.WRITE);
 		if (annotations && diagram != null) {
 			if (!(udrawable instanceof TextBlock))
 				throw new IllegalStateException("udrawable is not a TextBlock");
@@ -236,7 +262,28 @@ public class ImageBuilder {
 			udrawable = annotatedWorker.addAdd((TextBlock) udrawable);
 		}
 
-		return writeImageInternal(os);
+		try {
+			if (capture != null) {
+				final TextBlock captured = createCapturedTextBlock();
+				if (captured != null) {
+					capture.accept(captured);
+					return createImageData(captured.calculateDimension(stringBounder));
+				}
+			}
+			return writeImageInternal(os);
+		} finally {
+			if (event.isRecording())
+				commit(event);
+		}
+	}
+
+	private void commit(JfrEvent event) {
+		if (diagram == null)
+			event.commit(null, -1, -1, fileFormatOption.getFileFormat().name());
+		else
+			event.commit(Jfr.diagramType(diagram, diagram.getSource().getDiagramType()),
+					diagram.getSource().getTotalLineCount(), Jfr.countEntities(diagram),
+					fileFormatOption.getFileFormat().name());
 	}
 
 	public byte[] writeByteArray() throws IOException {
@@ -246,23 +293,98 @@ public class ImageBuilder {
 		}
 	}
 
-	private ImageData writeImageInternal(OutputStream os) throws IOException {
+	private TextBlock createCapturedTextBlock() {
+		if (fileFormatOption.getColorMapper() != ColorMapper.IDENTITY)
+			return null;
+
+		final XDimension2D dimWarning = getWarningDimension();
+		final XDimension2D dim = getFullDimension(dimWarning);
+		if (getScaleFactor(dim) != 1)
+			return null;
+
+		return new AbstractTextBlock() {
+			public void drawU(UGraphic ug) {
+				// Start from the same state a fresh UGraphic would have, so that colors or
+				// strokes set by the enclosing diagram do not leak into this one
+				ug = ug.apply(UStroke.simple()).apply(UPattern.FULL).apply(HColors.none())
+						.apply(HColors.none().bg());
+				if (backcolor != null && backcolor.isTransparent() == false)
+					ug.apply(backcolor).apply(backcolor.bg()).draw(URectangle.build(dim.getWidth(), dim.getHeight()));
+				drawContent(ug, dim, dimWarning);
+			}
+
+			public XDimension2D calculateDimension(StringBounder stringBounder) {
+				return dim;
+			}
+		};
+	}
+
+	private XDimension2D getWarningDimension() {
+		if (warnings.size() > 0)
+			return getWarningDimension(fileFormatOption.getFileFormat().getDefaultStringBounder());
+
+		return null;
+	}
+
+	private XDimension2D getFullDimension(XDimension2D dimWarning) {
 		XDimension2D dim = getFinalDimension();
-		XDimension2D dimWarning = null;
-		if (warnings.size() > 0) {
-			dimWarning = getWarningDimension(fileFormatOption.getFileFormat().getDefaultStringBounder());
+		if (dimWarning != null) {
 			dim = dim.atLeast(dimWarning.getWidth(), 0);
 			dim = dim.delta(15, dimWarning.getHeight() + 20);
 		}
+		return dim;
+	}
+
+	private double getScaleFactor(XDimension2D dim) {
 		final Scale scale = diagram == null ? null : diagram.getScale();
 		final double scaleFactor = (scale == null ? 1 : scale.getScale(dim.getWidth(), dim.getHeight())) * getDpi()
 				/ 96.0;
 		if (scaleFactor <= 0)
 			throw new IllegalStateException("Bad scaleFactor");
+
+		return scaleFactor;
+	}
+
+	private ImageData writeImageInternal(OutputStream os) throws IOException {
+		final XDimension2D dimWarning = getWarningDimension();
+		final XDimension2D dim = getFullDimension(dimWarning);
+		final double scaleFactor = getScaleFactor(dim);
 		WasmLog.log("...image drawing...");
+		// ::comment when __CORE__
+		if (fileFormatOption.getFileFormat() == FileFormat.PNG) {
+			final int width = Math.min((int) (dim.getWidth() * scaleFactor), GraphvizUtils.getenvImageLimit());
+			final int height = Math.min((int) (dim.getHeight() * scaleFactor), GraphvizUtils.getenvImageLimit());
+			if (width > 0 && height > 0 && BandedImage.isRequired(width, height))
+				return writeBandedPng(os, dim, dimWarning, scaleFactor, width, height);
+		}
+		// ::done
 		UGraphic ug = createUGraphic(dim, scaleFactor, diagram == null ? Pragma.createEmpty() : diagram.getPragma());
+		ug = drawAll(ug, dim, dimWarning);
 
-		if (warnings.size() > 0) {
+		final long startEncode = Metrics.start();
+		final JfrEvent event = Jfr.begin(JfrStage.ENCODE);
+		ug.writeToStream(os, metadata, 96);
+		os.flush();
+		// The raster is no longer needed once encoded: give it back for the next image
+		if (ug instanceof UGraphicG2d)
+			RasterPool.release(((UGraphicG2d) ug).getBufferedImage());
+		Metrics.stop(Phase.ENCODE, startEncode);
+		if (event.isRecording())
+			commit(event);
+
+		return createImageData(dim, ug, scaleFactor);
+	}
+
+	private UGraphic drawAll(UGraphic ug, XDimension2D dim, XDimension2D dimWarning) {
+		final long startDraw = Metrics.start();
+		ug = drawContent(ug, dim, dimWarning);
+		ug.flushUg();
+		Metrics.stop(Phase.DRAW, startDraw);
+		return ug;
+	}
+
+	private UGraphic drawContent(UGraphic ug, XDimension2D dim, XDimension2D dimWarning) {
+		if (dimWarning != null) {
 			drawWarning(dimWarning, ug.apply(UTranslate.dy(5)), dim.getWidth());
 			ug = ug.apply(UTranslate.dy(dimWarning.getHeight() + 20));
 		}
@@ -273,10 +395,10 @@ public class ImageBuilder {
 
 		ug = handwritten(ug.apply(new UTranslate(margin.getLeft(), margin.getTop())));
 		udrawable.drawU(ug);
-		ug.flushUg();
-		ug.writeToStream(os, metadata, 96);
-		os.flush();
+		return ug;
+	}
 
+	private ImageData createImageData(XDimension2D dim, UGraphic ug, double scaleFactor) {
 		if (ug instanceof UGraphicG2d) {
 			final Set<Url> urls = ((UGraphicG2d) ug).getAllUrlsEncountered();
 			if (urls.size() > 0) {
@@ -287,6 +409,41 @@ public class ImageBuilder {
 		return createImageData(dim);
 	}
 
+	// ::comment when __CORE__
+	// The full raster would not fit in memory: replay the drawing into horizontal
+	// bands that are encoded one after the other
+	private ImageData writeBandedPng(OutputStream os, XDimension2D dim, XDimension2D dimWarning, double scaleFactor,
+			int width, int height) throws IOException {
+		final Color pngBackColor = getPngBackColor();
+		final String watermark = fileFormatOption.getWatermark();
+		final UGraphicG2d[] lastPainted = new UGraphicG2d[1];
+		final BandedImage image = new BandedImage(width, height, EmptyImageBuilder.getType(pngBackColor),
+				(band, top) -> {
+					final EmptyImageBuilder builder = new EmptyImageBuilder(watermark, band, top, width, height,
+							pngBackColor);
+					final UGraphicG2d ug = createUGraphicG2d(builder, scaleFactor, width, height, FileFormat.PNG);
+					drawAll(ug, dim, dimWarning);
+					builder.getGraphics2D().dispose();
+					lastPainted[0] = ug;
+				});
+
+		// Bands are painted while the encoder pulls them, so this also covers drawing
+		final long startEncode = Metrics.start();
+		final JfrEvent event = Jfr.begin(JfrStage.ENCODE);
+		try {
+			PngIOMetadata.writeWithMetadata(image, os, metadata, 96, null, 7);
+		} finally {
+			image.release();
+		}
+		os.flush();
+		Metrics.stop(Phase.ENCODE, startEncode);
+		if (event.isRecording())
+			commit(event);
+
+		return createImageData(dim, lastPainted[0], scaleFactor);
+	}
+	// ::done
+
 	private final static FontConfiguration fc = FontConfiguration.blackBlueTrue(UFont.monospaced(10));
 
 	private void drawWarning(XDimension2D dimWarning, UGraphic ug, double fullWidth) {
@@ -357,10 +514,12 @@ public class ImageBuilder {
 
 	private XDimension2D getFinalDimension() {
 		if (dimension == null) {
+			final long start = Metrics.start();
 			final LimitFinder limitFinder = LimitFinder.create(stringBounder, true);
 			udrawable.drawU(limitFinder);
 			dimension = new XDimension2D(limitFinder.getMaxX() + 1 + margin.getLeft() + margin.getRight(),
 					limitFinder.getMaxY() + 1 + margin.getTop() + margin.getBottom());
+			Metrics.stop(Phase.DIMENSION, start);
 		}
 		return dimension;
 	}
@@ -389,6 +548,8 @@ public class ImageBuilder {
 			return new UGraphicEps(backcolor, colorMapper, stringBounder, EpsStrategy.getDefault2());
 		case EPS_TEXT:
 			return new UGraphicEps(backcolor, colorMapper, stringBounder, EpsStrategy.WITH_MACRO_AND_TEXT);
+		case PDF:
+			return createUGraphicPdf(scaleFactor, dim);
 		case HTML5:
 			return new UGraphicHtml5(backcolor, colorMapper, stringBounder);
 		case VDX:
@@ -445,8 +606,18 @@ public class ImageBuilder {
 
 	}
 
-	private UGraphic createUGraphicPNG(double scaleFactor, final XDimension2D dim, String watermark,
-			FileFormat format) {
+	// ::comment when __CORE__
+	private UGraphic createUGraphicPdf(double scaleFactor, XDimension2D dim) {
+		final UGraphicPdf ug = new UGraphicPdf(backcolor, fileFormatOption.getColorMapper(), stringBounder,
+				dim.getWidth(), dim.getHeight(), scaleFactor);
+		if (this.backcolor != null && this.backcolor.isTransparent() == false)
+			ug.apply(this.backcolor).apply(this.backcolor.bg())
+					.draw(URectangle.build(dim.getWidth(), dim.getHeight()));
+		return ug;
+	}
+	// ::done
+
+	private Color getPngBackColor() {
 		Color pngBackColor = new Color(0, 0, 0, 0);
 
 		if (this.backcolor instanceof HColorSimple)
@@ -456,18 +627,27 @@ public class ImageBuilder {
 				&& (Color.WHITE.equals(pngBackColor) || Color.BLACK.equals(pngBackColor)))
 			pngBackColor = new Color(0, 0, 0, 0);
 
+		return pngBackColor;
+	}
+
+	private UGraphic createUGraphicPNG(double scaleFactor, final XDimension2D dim, String watermark,
+			FileFormat format) {
 		final EmptyImageBuilder builder = new EmptyImageBuilder(watermark, (int) (dim.getWidth() * scaleFactor),
-				(int) (dim.getHeight() * scaleFactor), pngBackColor, stringBounder);
+				(int) (dim.getHeight() * scaleFactor), getPngBackColor(), stringBounder);
+		final BufferedImage im = builder.getBufferedImage();
+		return createUGraphicG2d(builder, scaleFactor, im.getWidth(), im.getHeight(), format);
+	}
+
+	private UGraphicG2d createUGraphicG2d(EmptyImageBuilder builder, double scaleFactor, int width, int height,
+			FileFormat format) {
 		final Graphics2D graphics2D = builder.getGraphics2D();
 
 		final UGraphicG2d ug = new UGraphicG2d(backcolor, fileFormatOption.getColorMapper(), stringBounder, graphics2D,
 				scaleFactor, format);
 
 		ug.setBufferedImage(builder.getBufferedImage());
-		final BufferedImage im = ug.getBufferedImage();
 		if (this.backcolor instanceof HColorGradient)
-			ug.apply(this.backcolor.bg())
-					.draw(URectangle.build(im.getWidth() / scaleFactor, im.getHeight() / scaleFactor));
+			ug.apply(this.backcolor.bg()).draw(URectangle.build(width / scaleFactor, height / scaleFactor));
 
 		return ug;
 	}
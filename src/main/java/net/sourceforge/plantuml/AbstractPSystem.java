@@ -43,6 +43,8 @@ import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import net.atmp.ImageBuilder;
 import net.sourceforge.plantuml.abel.DisplayPositioned;
@@ -64,6 +66,7 @@ import net.sourceforge.plantuml.klimt.font.FontConfiguration;
 import net.sourceforge.plantuml.klimt.font.UFont;
 import net.sourceforge.plantuml.klimt.geom.HorizontalAlignment;
 import net.sourceforge.plantuml.klimt.geom.VerticalAlignment;
+import net.sourceforge.plantuml.klimt.shape.TextBlock;
 import net.sourceforge.plantuml.klimt.shape.UText;
 import net.sourceforge.plantuml.preproc.PreprocessingArtifact;
 import net.sourceforge.plantuml.stats.StatsUtilsIncrement;
@@ -236,7 +239,29 @@ public abstract class AbstractPSystem implements Diagram, WarningHandler {
 	public ImageBuilder createImageBuilder(FileFormatOption fileFormatOption) throws IOException {
 		final ColorMapper init = fileFormatOption.getColorMapper();
 		final ColorMapper newColorMappter = muteColorMapper(init);
-		return ImageBuilder.create(fileFormatOption.withColorMapper(newColorMappter));
+		return ImageBuilder.create(fileFormatOption.withColorMapper(newColorMappter)).capture(capture);
+	}
+
+	private Consumer<TextBlock> capture;
+
+	/**
+	 * Lays the diagram out as for an export, but gives back what would have been
+	 * drawn instead of encoding it, so that another diagram can draw it natively.
+	 * 
+	 * @return null when the diagram could not be captured (it does not go through
+	 *         {@link #createImageBuilder(FileFormatOption)}, or it is scaled). The
+	 *         image has then been written to <code>os</code> as usual.
+	 */
+	public TextBlock exportDiagramAsTextBlock(OutputStream os, FileFormatOption fileFormatOption)
+			throws IOException {
+		final AtomicReference<TextBlock> result = new AtomicReference<>();
+		this.capture = result::set;
+		try {
+			exportDiagram(os, 0, fileFormatOption);
+		} finally {
+			this.capture = null;
+		}
+		return result.get();
 	}
 
 	protected ColorMapper muteColorMapper(ColorMapper init) {
@@ -44,6 +44,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 
@@ -54,12 +55,15 @@ import net.sourceforge.plantuml.core.Diagram;
 import net.sourceforge.plantuml.error.PSystemErrorPreprocessor;
 import net.sourceforge.plantuml.jaws.Jaws;
 import net.sourceforge.plantuml.log.Logme;
+import net.sourceforge.plantuml.metrics.Metrics;
+import net.sourceforge.plantuml.metrics.Phase;
 import net.sourceforge.plantuml.preproc.Defines;
 import net.sourceforge.plantuml.preproc.FileWithSuffix;
 import net.sourceforge.plantuml.preproc.PreprocessingArtifact;
 import net.sourceforge.plantuml.preproc.ReadLineWithYamlHeader;
 import net.sourceforge.plantuml.regex.Matcher2;
 import net.sourceforge.plantuml.text.BackSlash;
+import net.sourceforge.plantuml.text.CompactLines;
 import net.sourceforge.plantuml.text.StringLocated;
 import net.sourceforge.plantuml.tim.TimLoader;
 import net.sourceforge.plantuml.utils.LineLocationImpl;
@@ -69,7 +73,7 @@ import net.sourceforge.plantuml.version.Version;
 public class BlockUml {
 	// ::remove file when __HAXE__
 
-	private final List<StringLocated> rawSource;
+	private List<StringLocated> rawSource;
 	private final List<StringLocated> data;
 	private List<StringLocated> debug;
 	private Diagram system;
@@ -142,6 +146,7 @@ public class BlockUml {
 			this.data = new ArrayList<>(this.rawSource);
 			this.preprocessingArtifact = new PreprocessingArtifact();
 		} else {
+			final long start = Metrics.start();
 			final TimLoader timLoader = new TimLoader(definitions.getImportedFiles(), defines, charset, definitions,
 					this.rawSource.get(0));
 			this.included.addAll(timLoader.load(this.rawSource));
@@ -149,12 +154,32 @@ public class BlockUml {
 			tmp = Jaws.expands0(tmp);
 			tmp = Jaws.expandsJawsForPreprocessor(tmp);
 			this.data = tmp;
-			this.debug = timLoader.getDebug();
 			this.preprocessorError = timLoader.isPreprocessorError();
+			// The debug trace holds every processed line: only keep it to report an error
+			if (this.preprocessorError)
+				this.debug = timLoader.getDebug();
+
 			this.preprocessingArtifact = timLoader.getPreprocessingArtifact();
+			this.rawSource = compactIfNotShared(this.rawSource, this.data);
+			Metrics.stop(Phase.PREPROCESS, start);
 		}
 	}
 
+	// When the preprocessor has rewritten most lines, the raw source is only kept
+	// around for metadata: store it packed rather than as StringLocated objects
+	private static List<StringLocated> compactIfNotShared(List<StringLocated> raw, List<StringLocated> data) {
+		final Set<StringLocated> kept = Collections.newSetFromMap(new IdentityHashMap<StringLocated, Boolean>());
+		kept.addAll(data);
+		int shared = 0;
+		for (StringLocated line : raw)
+			if (kept.contains(line))
+				shared++;
+
+		if (2 * (raw.size() - shared) >= shared)
+			return CompactLines.copyOf(raw);
+		return raw;
+	}
+
 	// ::comment when __CORE__
 	public String getFileOrDirname() {
 		if (OptionFlags.getInstance().isWord())
@@ -0,0 +1,152 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ *
+ */
+package net.sourceforge.plantuml;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Properties;
+
+/**
+ * Thin client used with the <code>-client</code> flag: it forwards the command
+ * line, the working directory and the standard streams to a running
+ * {@link DaemonServer}.
+ * <p>
+ * When no daemon is running, or when the daemon declines the command line, the
+ * caller is expected to run it locally.
+ */
+public class DaemonClient {
+	// ::remove file when __CORE__
+	// ::remove file when __HAXE__
+
+	public static final int NOT_FORWARDED = Integer.MIN_VALUE;
+
+	static File getInfoFile() {
+		return new File(System.getProperty("user.home"), ".plantuml-daemon");
+	}
+
+	static Properties readInfo(File file) {
+		if (file.exists() == false)
+			return null;
+
+		final Properties result = new Properties();
+		try (InputStream is = new FileInputStream(file)) {
+			result.load(is);
+		} catch (IOException e) {
+			return null;
+		}
+		if (result.getProperty("port") == null || result.getProperty("token") == null)
+			return null;
+
+		return result;
+	}
+
+	public static int forward(String[] args) {
+		final Properties info = readInfo(getInfoFile());
+		if (info == null)
+			return NOT_FORWARDED;
+
+		boolean started = false;
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(info.getProperty("port")))) {
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			out.writeUTF(info.getProperty("token"));
+			out.writeUTF(new File("").getAbsolutePath());
+			out.writeInt(args.length);
+			for (String s : args)
+				out.writeUTF(s);
+			out.flush();
+
+			final byte[] buffer = new byte[8192];
+			while (true) {
+				final int type = in.read();
+				switch (type) {
+				case DaemonServer.STDOUT:
+					started = true;
+					copy(in, System.out, buffer);
+					break;
+				case DaemonServer.STDERR:
+					started = true;
+					copy(in, System.err, buffer);
+					break;
+				case DaemonServer.STDIN:
+					started = true;
+					System.out.flush();
+					final int nb = System.in.read(buffer, 0, Math.min(in.readInt(), buffer.length));
+					out.writeInt(nb);
+					if (nb > 0)
+						out.write(buffer, 0, nb);
+					out.flush();
+					break;
+				case DaemonServer.EXIT:
+					System.out.flush();
+					System.err.flush();
+					return in.readInt();
+				case DaemonServer.FALLBACK:
+					return NOT_FORWARDED;
+				default:
+					throw new IOException("Connection to daemon lost");
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			if (started == false)
+				return NOT_FORWARDED;
+
+			System.err.println("Error while talking to daemon: " + e);
+			return 1;
+		}
+	}
+
+	private static void copy(DataInputStream in, OutputStream os, byte[] buffer) throws IOException {
+		int remaining = in.readInt();
+		while (remaining > 0) {
+			final int nb = Math.min(remaining, buffer.length);
+			in.readFully(buffer, 0, nb);
+			os.write(buffer, 0, nb);
+			remaining -= nb;
+		}
+		os.flush();
+	}
+
+}
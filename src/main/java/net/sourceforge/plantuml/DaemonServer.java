@@ -0,0 +1,406 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ *
+ */
+package net.sourceforge.plantuml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sourceforge.plantuml.log.Logme;
+import net.sourceforge.plantuml.security.SFile;
+
+/**
+ * Keeps a warm JVM around for repeated command line invocations.
+ * <p>
+ * The daemon listens on a loopback port and writes this port, together with a
+ * random token, in a file of the user home directory (see
+ * {@link DaemonClient}). Each client connection runs on its own thread with its
+ * own {@link OptionFlags}, working directory and standard streams, which are
+ * forwarded to the client as frames. The daemon stops after some idle time.
+ * <p>
+ * Command lines that change process-wide state (GUI, servers, stats, Graphviz
+ * path, help printing...) are not run here: the client is asked to run them
+ * itself.
+ */
+public class DaemonServer implements Runnable {
+	// ::remove file when __CORE__
+	// ::remove file when __HAXE__
+
+	static final int STDOUT = 1;
+	static final int STDERR = 2;
+	static final int STDIN = 3;
+	static final int EXIT = 4;
+	static final int FALLBACK = 5;
+
+	private static final Set<String> LOCAL_ONLY = new HashSet<>(Arrays.asList("-gui", "-version", "--version",
+			"-testdot", "-about", "-author", "-authors", "-help", "-h", "-?", "-language", "-encodesprite",
+			"-printfonts", "-dumphtmlstats", "-dumpstats", "-loopstats", "-enablestats", "-disablestats",
+			"-extractstdlib", "-stdlib", "-clipboard", "-clipboardloop", "-htmlstats", "-xmlstats", "-realtimestats",
+			"-splash", "-progress", "-watch", "-cypher", "-graphvizdot", "-graphviz_dot", "-client"));
+
+	private static final InheritableThreadLocal<PrintStream> localOut = new InheritableThreadLocal<>();
+	private static final InheritableThreadLocal<PrintStream> localErr = new InheritableThreadLocal<>();
+	private static final InheritableThreadLocal<InputStream> localIn = new InheritableThreadLocal<>();
+
+	private static final AtomicInteger activeClients = new AtomicInteger();
+
+	private final Socket socket;
+	private final String token;
+
+	private DaemonServer(Socket socket, String token) {
+		this.socket = socket;
+		this.token = token;
+	}
+
+	public static void startServer(int port, int idleMinutes) throws IOException {
+		System.setProperty("java.awt.headless", "true");
+		final String token = newToken();
+		final File infoFile = DaemonClient.getInfoFile();
+		try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			writeInfo(infoFile, serverSocket.getLocalPort(), token);
+			System.err.println("daemonPort=" + serverSocket.getLocalPort());
+			routeStandardStreams();
+			if (idleMinutes > 0)
+				serverSocket.setSoTimeout(idleMinutes * 60 * 1000);
+
+			while (true) {
+				try {
+					final Socket socket = serverSocket.accept();
+					new Thread(new DaemonServer(socket, token), "plantuml-daemon-client").start();
+				} catch (SocketTimeoutException e) {
+					if (activeClients.get() == 0)
+						break;
+				}
+			}
+		} finally {
+			final Properties info = DaemonClient.readInfo(infoFile);
+			if (info != null && token.equals(info.getProperty("token")))
+				infoFile.delete();
+		}
+	}
+
+	public void run() {
+		activeClients.incrementAndGet();
+		try {
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			if (MessageDigest.isEqual(token.getBytes(UTF_8), in.readUTF().getBytes(UTF_8)) == false)
+				return;
+
+			final File workingDir = new File(in.readUTF());
+			final String[] args = new String[in.readInt()];
+			for (int i = 0; i < args.length; i++)
+				args[i] = in.readUTF();
+
+			if (isLocalOnly(args)) {
+				out.writeByte(FALLBACK);
+				out.flush();
+				return;
+			}
+			final int exitCode = process(workingDir, args, in, out);
+			synchronized (out) {
+				out.writeByte(EXIT);
+				out.writeInt(exitCode);
+				out.flush();
+			}
+		} catch (Throwable e) {
+			Logme.error(e);
+		} finally {
+			activeClients.decrementAndGet();
+			try {
+				socket.close();
+			} catch (IOException e) {
+				Logme.error(e);
+			}
+		}
+	}
+
+	static boolean isLocalOnly(String[] args) {
+		if (args.length == 0)
+			return true;
+
+		for (String s : args) {
+			final String lower = StringUtils.goLowerCase(s);
+			if (LOCAL_ONLY.contains(lower) || lower.startsWith("-ftp") || lower.startsWith("-picoweb")
+					|| lower.startsWith("-daemon") || lower.startsWith("-dplantuml_limit_size=")
+					|| lower.matches("^-li[sc][ea]n[sc]e\\s*$"))
+				return true;
+		}
+		return false;
+	}
+
+	private int process(File workingDir, String[] args, DataInputStream in, DataOutputStream out)
+			throws IOException, InterruptedException {
+		final PrintStream stdout = new PrintStream(new BufferedOutputStream(new FrameOutputStream(out, STDOUT)), true);
+		final PrintStream stderr = new PrintStream(new BufferedOutputStream(new FrameOutputStream(out, STDERR)), true);
+		localOut.set(stdout);
+		localErr.set(stderr);
+		localIn.set(new FrameInputStream(in, out, stdout, stderr));
+		OptionFlags.installLocalInstance();
+		FileSystem.getInstance().setCurrentDir(SFile.fromFile(workingDir));
+		try {
+			final long start = System.currentTimeMillis();
+			final Option option = new Option(workingDir, args);
+			final ErrorStatus error = ErrorStatus.init();
+			if (option.isPipe() || option.isPipeMap() || option.isSyntax())
+				Run.managePipe(option, error);
+			else if (option.isFailfast2())
+				Run.manageFailfast2(option, error);
+			else
+				Run.manageAllFiles(option, error);
+
+			if (option.isDuration()) {
+				final double duration = (System.currentTimeMillis() - start) / 1000.0;
+				stderr.println("Duration = " + duration + " seconds");
+			}
+			if (error.hasError() || error.isNoData())
+				option.getStdrpt().finalMessage(error);
+
+			if (error.hasError())
+				return error.getExitCode();
+
+			return 0;
+		} catch (RuntimeException e) {
+			// Like an uncaught exception in the main thread of a local run
+			e.printStackTrace(stderr);
+			return 1;
+		} finally {
+			stdout.flush();
+			stderr.flush();
+			FileSystem.getInstance().setCurrentDir(null);
+			OptionFlags.removeLocalInstance();
+			localIn.remove();
+			localErr.remove();
+			localOut.remove();
+		}
+	}
+
+	private static synchronized void routeStandardStreams() {
+		final PrintStream out = System.out;
+		final PrintStream err = System.err;
+		final InputStream in = System.in;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				target().write(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				target().write(b, off, len);
+			}
+
+			@Override
+			public void flush() throws IOException {
+				target().flush();
+			}
+
+			private PrintStream target() {
+				final PrintStream result = localOut.get();
+				return result == null ? out : result;
+			}
+		}, true));
+		System.setErr(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				target().write(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				target().write(b, off, len);
+			}
+
+			@Override
+			public void flush() throws IOException {
+				target().flush();
+			}
+
+			private PrintStream target() {
+				final PrintStream result = localErr.get();
+				return result == null ? err : result;
+			}
+		}, true));
+		System.setIn(new InputStream() {
+			@Override
+			public int read() throws IOException {
+				return target().read();
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				return target().read(b, off, len);
+			}
+
+			private InputStream target() {
+				final InputStream result = localIn.get();
+				return result == null ? in : result;
+			}
+		});
+	}
+
+	private static String newToken() {
+		final byte[] bytes = new byte[16];
+		new SecureRandom().nextBytes(bytes);
+		final StringBuilder sb = new StringBuilder();
+		for (byte b : bytes)
+			sb.append(String.format("%02x", b & 0xFF));
+
+		return sb.toString();
+	}
+
+	private static void writeInfo(File file, int port, String token) throws IOException {
+		file.delete();
+		file.createNewFile();
+		// Only the current user may read the token
+		file.setReadable(false, false);
+		file.setWritable(false, false);
+		file.setReadable(true, true);
+		file.setWritable(true, true);
+		final Properties info = new Properties();
+		info.setProperty("port", "" + port);
+		info.setProperty("token", token);
+		try (OutputStream os = new FileOutputStream(file)) {
+			info.store(os, "PlantUML daemon");
+		}
+	}
+
+	static class FrameOutputStream extends OutputStream {
+
+		private final DataOutputStream out;
+		private final int type;
+
+		FrameOutputStream(DataOutputStream out, int type) {
+			this.out = out;
+			this.type = type;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (len == 0)
+				return;
+
+			synchronized (out) {
+				out.writeByte(type);
+				out.writeInt(len);
+				out.write(b, off, len);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			synchronized (out) {
+				out.flush();
+			}
+		}
+	}
+
+	static class FrameInputStream extends InputStream {
+
+		private final DataInputStream in;
+		private final DataOutputStream out;
+		private final PrintStream stdout;
+		private final PrintStream stderr;
+		private boolean eof;
+
+		FrameInputStream(DataInputStream in, DataOutputStream out, PrintStream stdout, PrintStream stderr) {
+			this.in = in;
+			this.out = out;
+			this.stdout = stdout;
+			this.stderr = stderr;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] b = new byte[1];
+			if (read(b, 0, 1) == -1)
+				return -1;
+
+			return b[0] & 0xFF;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) throws IOException {
+			if (eof)
+				return -1;
+
+			if (len == 0)
+				return 0;
+
+			// The client may be waiting for what we already wrote before sending more
+			stdout.flush();
+			stderr.flush();
+			synchronized (out) {
+				out.writeByte(STDIN);
+				out.writeInt(len);
+				out.flush();
+			}
+			final int nb = in.readInt();
+			if (nb < 0) {
+				eof = true;
+				return -1;
+			}
+			in.readFully(b, off, nb);
+			return nb;
+		}
+	}
+
+}
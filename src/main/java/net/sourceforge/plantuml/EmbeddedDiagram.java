@@ -40,8 +40,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import net.atmp.PixelImage;
 import net.sourceforge.plantuml.core.Diagram;
@@ -55,6 +57,8 @@ import net.sourceforge.plantuml.klimt.geom.HorizontalAlignment;
 import net.sourceforge.plantuml.klimt.geom.XDimension2D;
 import net.sourceforge.plantuml.klimt.shape.AbstractTextBlock;
 import net.sourceforge.plantuml.klimt.shape.Line;
+import net.sourceforge.plantuml.klimt.shape.TextBlock;
+import net.sourceforge.plantuml.klimt.shape.UEmbedded;
 import net.sourceforge.plantuml.klimt.shape.UImage;
 import net.sourceforge.plantuml.klimt.shape.UImageSvg;
 import net.sourceforge.plantuml.log.Logme;
@@ -151,7 +155,7 @@ public class EmbeddedDiagram extends AbstractTextBlock implements Line, Atom {
 
 	private final List<StringLocated> list;
 	private final ISkinSimple skinParam;
-	private BufferedImage image;
+	private final Map<FileFormat, TextBlock> blocks = new EnumMap<>(FileFormat.class);
 
 	private EmbeddedDiagram(ISkinSimple skinParam, List<StringLocated> system) {
 		this.list = system;
@@ -168,13 +172,8 @@ public class EmbeddedDiagram extends AbstractTextBlock implements Line, Atom {
 
 	public XDimension2D calculateDimension(StringBounder stringBounder) {
 		try {
-			if (stringBounder.matchesProperty("SVG")) {
-				final String imageSvg = getImageSvg();
-				final UImageSvg svg = new UImageSvg(imageSvg, 1);
-				return new XDimension2D(svg.getWidth(), svg.getHeight());
-			}
-			final BufferedImage im = getImage();
-			return new XDimension2D(im.getWidth(), im.getHeight());
+			final FileFormat format = stringBounder.matchesProperty("SVG") ? FileFormat.SVG : FileFormat.PNG;
+			return getTextBlock(format).calculateDimension(stringBounder);
 		} catch (IOException e) {
 			Logme.error(e);
 		} catch (InterruptedException e) {
@@ -185,16 +184,8 @@ public class EmbeddedDiagram extends AbstractTextBlock implements Line, Atom {
 
 	public void drawU(UGraphic ug) {
 		try {
-			final boolean isSvg = ug.matchesProperty("SVG");
-			if (isSvg) {
-				final String imageSvg = getImageSvg();
-				final UImageSvg svg = new UImageSvg(imageSvg, 1);
-				ug.draw(svg);
-				return;
-			}
-			final BufferedImage im = getImage();
-			final UShape image = new UImage(new PixelImage(im, AffineTransformType.TYPE_BILINEAR));
-			ug.draw(image);
+			final FileFormat format = ug.matchesProperty("SVG") ? FileFormat.SVG : FileFormat.PNG;
+			getTextBlock(format).drawU(ug);
 		} catch (IOException e) {
 			Logme.error(e);
 		} catch (InterruptedException e) {
@@ -203,27 +194,50 @@ public class EmbeddedDiagram extends AbstractTextBlock implements Line, Atom {
 
 	}
 
-	private String getImageSvg() throws IOException, InterruptedException {
+	private TextBlock getTextBlock(FileFormat format) throws IOException, InterruptedException {
+		TextBlock result = blocks.get(format);
+		if (result == null) {
+			result = createTextBlock(format);
+			blocks.put(format, result);
+		}
+		return result;
+	}
+
+	private TextBlock createTextBlock(FileFormat format) throws IOException, InterruptedException {
 		final Diagram system = getSystem();
 		final ByteArrayOutputStream os = new ByteArrayOutputStream();
-		system.exportDiagram(os, 0, new FileFormatOption(FileFormat.SVG));
+		if (system instanceof AbstractPSystem) {
+			// Drawn natively by the final UGraphic, without encoding anything
+			final TextBlock captured = ((AbstractPSystem) system).exportDiagramAsTextBlock(os,
+					new FileFormatOption(format));
+			if (captured != null) {
+				final XDimension2D dim = captured.calculateDimension(format.getDefaultStringBounder());
+				return fromShape(new UEmbedded(captured, dim), dim);
+			}
+		} else {
+			system.exportDiagram(os, 0, new FileFormatOption(format));
+		}
 		os.close();
-		return new String(os.toByteArray());
-	}
 
-	private BufferedImage getImage() throws IOException, InterruptedException {
-		if (image == null)
-			image = getImageSlow();
-
-		return image;
+		if (format == FileFormat.SVG) {
+			final UImageSvg svg = new UImageSvg(new String(os.toByteArray()), 1);
+			return fromShape(svg, new XDimension2D(svg.getWidth(), svg.getHeight()));
+		}
+		final BufferedImage im = SImageIO.read(os.toByteArray());
+		final UShape image = new UImage(new PixelImage(im, AffineTransformType.TYPE_BILINEAR));
+		return fromShape(image, new XDimension2D(im.getWidth(), im.getHeight()));
 	}
 
-	private BufferedImage getImageSlow() throws IOException, InterruptedException {
-		final Diagram system = getSystem();
-		final ByteArrayOutputStream os = new ByteArrayOutputStream();
-		system.exportDiagram(os, 0, new FileFormatOption(FileFormat.PNG));
-		os.close();
-		return SImageIO.read(os.toByteArray());
+	private static TextBlock fromShape(final UShape shape, final XDimension2D dim) {
+		return new AbstractTextBlock() {
+			public void drawU(UGraphic ug) {
+				ug.draw(shape);
+			}
+
+			public XDimension2D calculateDimension(StringBounder stringBounder) {
+				return dim;
+			}
+		};
 	}
 
 	public HorizontalAlignment getHorizontalAlignment() {
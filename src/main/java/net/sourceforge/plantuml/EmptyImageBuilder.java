@@ -47,6 +47,7 @@ import java.util.List;
 import net.sourceforge.plantuml.dot.GraphvizUtils;
 import net.sourceforge.plantuml.klimt.UAntiAliasing;
 import net.sourceforge.plantuml.klimt.font.StringBounder;
+import net.sourceforge.plantuml.png.RasterPool;
 import net.sourceforge.plantuml.utils.Log;
 
 public class EmptyImageBuilder {
@@ -76,8 +77,26 @@ public class EmptyImageBuilder {
 		final int type = getType(background);
 		Log.info(() -> "Creating image " + widthFinal + "x" + heightFinal + " type=" + type);
 
-		im = new BufferedImage(width, height, type);
+		im = RasterPool.createImage(width, height, type);
 		g2d = im.createGraphics();
+		paintBackground(watermark, width, height, background);
+	}
+
+	/**
+	 * Prepares a band of a larger image, as painted by
+	 * {@link net.sourceforge.plantuml.png.BandedImage}.
+	 *
+	 * @param top the row of the full image drawn on the first row of the band
+	 */
+	public EmptyImageBuilder(String watermark, BufferedImage band, int top, int width, int height,
+			Color background) {
+		im = band;
+		g2d = im.createGraphics();
+		g2d.translate(0, -top);
+		paintBackground(watermark, width, height, background);
+	}
+
+	private void paintBackground(String watermark, int width, int height, Color background) {
 		UAntiAliasing.ANTI_ALIASING_ON.apply(g2d);
 		if (background != null) {
 			g2d.setColor(background);
@@ -90,7 +109,7 @@ public class EmptyImageBuilder {
 		}
 	}
 
-	private int getType(Color background) {
+	public static int getType(Color background) {
 		if (background == null)
 			return BufferedImage.TYPE_INT_ARGB;
 
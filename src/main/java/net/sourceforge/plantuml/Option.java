@@ -90,10 +90,14 @@ public class Option {
 	// ::comment when __CORE__
 	private boolean splash = false;
 	private boolean textProgressBar = false;
+	private boolean watch = false;
 	private int ftpPort = -1;
 	private String picowebBindAddress = null;
 	private int picowebPort = -1;
 	private boolean picowebEnableStop = false;
+	private int daemonPort = -1;
+	private int daemonIdleMinutes = 10;
+	private File baseDir;
 	private int stdrpt = 0;
 	private boolean hideMetadata = false;
 	private boolean checkMetadata = false;
@@ -127,6 +131,16 @@ public class Option {
 
 	// ::comment when __CORE__
 	public Option(String... arg) throws InterruptedException, IOException {
+		this(null, arg);
+	}
+
+	/**
+	 * Parses the command line as if it were launched from <code>baseDir</code>:
+	 * relative files, directories and patterns are resolved against it. Used by
+	 * the daemon, which cannot change its own working directory.
+	 */
+	Option(File baseDir, String... arg) throws InterruptedException, IOException {
+		this.baseDir = baseDir;
 		if (arg.length == 0)
 			OptionFlags.getInstance().setGui(true);
 
@@ -210,13 +224,13 @@ public class Option {
 				if (i == arg.length)
 					continue;
 
-				outputDir = new File(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i]));
+				outputDir = outputDir(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i]));
 			} else if (s.equalsIgnoreCase("-ofile")) {
 				i++;
 				if (i == arg.length)
 					continue;
 
-				outputFile = new File(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i]));
+				outputFile = new File(resolvePath(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i])));
 			} else if (s.equalsIgnoreCase("-graphvizdot") || s.equalsIgnoreCase("-graphviz_dot")) {
 				i++;
 				if (i == arg.length)
@@ -240,16 +254,16 @@ public class Option {
 				if (i == arg.length)
 					continue;
 
-				fileDir = StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i]);
+				fileDir = resolvePath(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i]));
 			} else if (s.startsWith("-o") && s.length() > 3) {
 				s = s.substring(2);
-				outputDir = new File(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(s));
+				outputDir = outputDir(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(s));
 			} else if (s.equalsIgnoreCase("-exclude") || s.equalsIgnoreCase("-x")) {
 				i++;
 				if (i == arg.length)
 					continue;
 
-				excludes.add(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i]));
+				excludes.add(resolvePath(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i])));
 			} else if (s.equalsIgnoreCase("-nbthread") || s.equalsIgnoreCase("-nbthreads")) {
 				i++;
 				if (i == arg.length)
@@ -293,16 +307,16 @@ public class Option {
 				if (i == arg.length)
 					continue;
 
-				initConfig(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i]));
+				initConfig(resolvePath(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i])));
 			} else if (s.startsWith("-I")) {
-				initInclude(s.substring(2));
+				initInclude(resolvePath(s.substring(2)));
 
 			} else if (s.equalsIgnoreCase("-computeurl") || s.equalsIgnoreCase("-encodeurl")) {
 				this.computeurl = true;
 
 			} else if (s.startsWith("-x")) {
 				s = s.substring(2);
-				excludes.add(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(s));
+				excludes.add(resolvePath(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(s)));
 
 			} else if (s.equalsIgnoreCase("-verbose") || s.equalsIgnoreCase("--verbose") || s.equalsIgnoreCase("-v")) {
 				OptionFlags.getInstance().setVerbose(true);
@@ -343,8 +357,8 @@ public class Option {
 				if (i == arg.length)
 					continue;
 
-				OptionFlags.getInstance()
-						.setLogData(new SFile(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i])));
+				OptionFlags.getInstance().setLogData(
+						new SFile(resolvePath(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i]))));
 
 			} else if (s.equalsIgnoreCase("-word")) {
 				OptionFlags.getInstance().setWord(true);
@@ -444,6 +458,9 @@ public class Option {
 			} else if (s.equalsIgnoreCase("-progress")) {
 				textProgressBar = true;
 
+			} else if (s.equalsIgnoreCase("-watch")) {
+				watch = true;
+
 			} else if (s.equalsIgnoreCase("-nometadata")) {
 				hideMetadata = true;
 
@@ -489,16 +506,45 @@ public class Option {
 				this.picowebBindAddress = parts.length > 2 ? parts[2] : null;
 
 				this.picowebEnableStop = StringUtils.goLowerCase(s).contains("stop");
+			} else if (StringUtils.goLowerCase(s).startsWith("-daemon")) {
+				final String[] parts = s.split(":");
+				this.daemonPort = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+				if (parts.length > 2)
+					this.daemonIdleMinutes = Integer.parseInt(parts[2]);
 			} else if (s.startsWith("-c")) {
 				s = s.substring(2);
 				config.add(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(s));
 
-			} else {
+			} else if (decodeurl) {
 				result.add(s);
+			} else {
+				result.add(resolvePath(s));
 			}
 		}
 	}
 
+	private File outputDir(String path) {
+		// A relative output directory is relative to each source file, except for the
+		// "copy cat" form ending with '$'
+		if (path.endsWith("$"))
+			return new File(resolvePath(path));
+
+		return new File(path);
+	}
+
+	private String resolvePath(String path) {
+		if (baseDir == null || path.length() == 0 || new File(path).isAbsolute())
+			return path;
+
+		while (path.startsWith("./") || path.startsWith(".\\"))
+			path = path.substring(2);
+
+		if (path.length() == 0 || path.equals("."))
+			return baseDir.getPath();
+
+		return new File(baseDir, path).getPath();
+	}
+
 	public Stdrpt getStdrpt() {
 		if (stdrpt == 1)
 			return new StdrptV1();
@@ -528,6 +574,18 @@ public class Option {
 	public boolean getPicowebEnableStop() {
 		return picowebEnableStop;
 	}
+
+	public int getDaemonPort() {
+		return daemonPort;
+	}
+
+	public int getDaemonIdleMinutes() {
+		return daemonIdleMinutes;
+	}
+
+	File getBaseDir() {
+		return baseDir;
+	}
 	// ::done
 
 	private void addInConfig(BufferedReader br) throws IOException {
@@ -779,6 +837,10 @@ public class Option {
 		return textProgressBar;
 	}
 
+	public final boolean isWatch() {
+		return watch;
+	}
+
 	public String getPipeDelimitor() {
 		return pipeDelimitor;
 	}
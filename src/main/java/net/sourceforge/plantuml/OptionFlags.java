@@ -51,6 +51,7 @@ public class OptionFlags {
 	// ::remove file when __HAXE__
 
 	private static final OptionFlags singleton = new OptionFlags();
+	private static final InheritableThreadLocal<OptionFlags> local = new InheritableThreadLocal<>();
 	static public final boolean STRICT_SELFMESSAGE_POSITION = true;
 	static public final boolean USE_INTERFACE_EYE1 = false;
 	static public final boolean USE_INTERFACE_EYE2 = false;
@@ -59,9 +60,23 @@ public class OptionFlags {
 	private boolean replaceWhiteBackgroundByTransparent;
 
 	public static OptionFlags getInstance() {
+		final OptionFlags result = local.get();
+		if (result != null)
+			return result;
+
 		return singleton;
 	}
 
+	// Gives the current thread, and the threads it starts, their own flags so that
+	// several daemon clients can run side by side
+	static void installLocalInstance() {
+		local.set(new OptionFlags());
+	}
+
+	static void removeLocalInstance() {
+		local.remove();
+	}
+
 	public final boolean isReplaceWhiteBackgroundByTransparent() {
 		return replaceWhiteBackgroundByTransparent;
 	}
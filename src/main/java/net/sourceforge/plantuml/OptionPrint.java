@@ -92,10 +92,12 @@ public class OptionPrint {
 		System.out.println("    -checkmetadata\t\tSkip PNG files that don't need to be regenerated");
 		System.out.println("    -checkonly\t\tTo check the syntax of files without generating images");
 		System.out.println("    -charset xxx\tTo use a specific charset (default is " + charset + ")");
+		System.out.println("    -client\t\tTo forward the command line to a running daemon (must be the first flag)");
 		System.out.println("    -computeurl|-encodeurl\tTo compute the encoded URL of a PlantUML source file");
 		// System.out.println(" -config \"file\"\tTo read the provided config file
 		System.out.println("    -cypher\t\tTo cypher texts of diagrams so that you can share them");
 		System.out.println("    -DVAR1=value\tTo set a preprocessing variable as if '!define VAR1 value' were used");
+		System.out.println("    -daemon[:port[:minutes]]\tTo start a daemon reused by -client, stopped after idle minutes");
 		System.out.println("    -darkmode\t\tTo use dark mode for diagrams");
 		System.out.println("    -debugsvek\t\tTo generate intermediate svek files");
 		System.out.println("    -decodeurl\t\tTo retrieve the PlantUML source from an encoded URL");
@@ -120,6 +122,7 @@ public class OptionPrint {
 		System.out.println("    -metadata\t\tTo retrieve PlantUML sources from PNG images");
 		System.out.println("    -nbthread N\t\tTo use (N) threads for processing");
 		System.out.println("    -nbthread auto\tTo use " + Option.defaultNbThreads() + " threads for processing");
+		System.out.println("    -nbthread N -pipe\tTo render piped diagrams in parallel, output keeps input order");
 		System.out.println("    -noerror\t\tTo skip images when error in diagrams");
 		System.out.println("    -nometadata\t\tTo NOT export metadata in PNG/SVG generated files");
 		System.out.println("    -o[utput] \"dir\"\tTo generate images in the specified directory");
@@ -154,6 +157,7 @@ public class OptionPrint {
 		System.out.println("    -txmi\t\tTo generate XMI file for class diagram");
 		System.out.println("    -v[erbose]\t\tTo have log information");
 		System.out.println("    -version\t\tTo display information about PlantUML and Java versions");
+		System.out.println("    -watch\t\tTo keep running and regenerate images when sources or included files change");
 		System.out.println("    -xmlstats\t\tTo output general statistics in file plantuml-stats.xml");
 		System.out.println();
 		System.out.println("If needed, you can setup the environment variable GRAPHVIZ_DOT.");
@@ -38,6 +38,7 @@ package net.sourceforge.plantuml;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 import com.plantuml.api.cheerpj.WasmLog;
 
@@ -85,6 +86,11 @@ import net.sourceforge.plantuml.klimt.sprite.PSystemListArchimateSpritesFactory;
 import net.sourceforge.plantuml.klimt.sprite.StdlibDiagramFactory;
 import net.sourceforge.plantuml.math.PSystemLatexFactory;
 import net.sourceforge.plantuml.math.PSystemMathFactory;
+import net.sourceforge.plantuml.metrics.Jfr;
+import net.sourceforge.plantuml.metrics.JfrEvent;
+import net.sourceforge.plantuml.metrics.JfrStage;
+import net.sourceforge.plantuml.metrics.Metrics;
+import net.sourceforge.plantuml.metrics.Phase;
 import net.sourceforge.plantuml.mindmap.MindMapDiagramFactory;
 import net.sourceforge.plantuml.nwdiag.NwDiagramFactory;
 import net.sourceforge.plantuml.openiconic.PSystemListOpenIconicFactory;
@@ -115,7 +121,7 @@ import net.sourceforge.plantuml.yaml.YamlDiagramFactory;
  *
  * <p>
  * Tries each of the factories (enumerated in the static block below) until one
- * succeeds.
+ * succeeds. Only the factories matching the diagram type are instantiated.
  *
  * @see AbstractPSystem
  */
@@ -130,10 +136,12 @@ public class PSystemBuilder {
 		WasmLog.log("..compiling diagram...");
 
 		final long now = System.currentTimeMillis();
+		final long start = Metrics.start();
+		final JfrEvent event = Jfr.begin(JfrStage.PARSE);
 
+		final DiagramType type = DiagramType.getTypeFromArobaseStart(source.get(0).getString());
 		Diagram result = null;
 		try {
-			final DiagramType type = DiagramType.getTypeFromArobaseStart(source.get(0).getString());
 			final UmlSource umlSource = UmlSource.createWithRaw(source, type == DiagramType.UML, rawSource);
 
 			for (StringLocated s : source) {
@@ -152,12 +160,18 @@ public class PSystemBuilder {
 				return new PSystemUnsupported(umlSource, preprocessing);
 
 			final List<PSystemError> errors = new ArrayList<>();
-			for (PSystemFactory systemFactory : factories) {
-				if (diagramType != systemFactory.getDiagramType())
+			for (LazyFactory lazy : factories) {
+				if (diagramType != lazy.type)
 					continue;
 
+				final PSystemFactory systemFactory = lazy.get();
 				// WasmLog.log("...trying " + systemFactory.getClass().getName() + " ...");
+				final JfrEvent attempt = Jfr.begin(JfrStage.FACTORY);
 				final Diagram sys = systemFactory.createSystem(umlSource, previous, preprocessing);
+				if (attempt.isRecording())
+					attempt.commit(Jfr.diagramType(sys, diagramType), source.size(), Jfr.countEntities(sys),
+							systemFactory.getClass().getSimpleName());
+
 				if (isOk(sys)) {
 					result = sys;
 					return sys;
@@ -171,6 +185,11 @@ public class PSystemBuilder {
 			return result;
 		} finally {
 			WasmLog.log("...parsing ok...");
+			Metrics.stop(Phase.PARSE, start);
+			if (event.isRecording())
+				event.commit(Jfr.diagramType(result, type), source.size(),
+						Jfr.countEntities(result), null);
+
 			// ::comment when __CORE__
 			if (result != null && OptionFlags.getInstance().isEnableStats()) {
 				StatsUtilsIncrement.onceMoreParse(System.currentTimeMillis() - now, result.getClass());
@@ -181,101 +200,138 @@ public class PSystemBuilder {
 		}
 	}
 
-	private static final List<PSystemFactory> factories = new ArrayList<>();
+	private static final List<LazyFactory> factories = new ArrayList<>();
+
+	/**
+	 * A factory known only by the diagram type it accepts. The factory itself,
+	 * with its command table and everything it pulls in, is created the first time
+	 * a diagram of that type is actually parsed.
+	 */
+	private static final class LazyFactory {
+
+		private final DiagramType type;
+		private final Supplier<PSystemFactory> supplier;
+		private volatile PSystemFactory factory;
+
+		private LazyFactory(DiagramType type, Supplier<PSystemFactory> supplier) {
+			this.type = type;
+			this.supplier = supplier;
+		}
+
+		private PSystemFactory get() {
+			PSystemFactory result = factory;
+			if (result == null)
+				synchronized (this) {
+					result = factory;
+					if (result == null) {
+						result = supplier.get();
+						assert result.getDiagramType() == type;
+						factory = result;
+					}
+				}
+			return result;
+		}
+	}
+
+	// Lambdas rather than constructor references, so that no factory class is
+	// loaded before it is needed
+	private static void register(DiagramType type, Supplier<PSystemFactory> supplier) {
+		factories.add(new LazyFactory(type, supplier));
+	}
 
 	static {
-		factories.add(new PSystemWelcomeFactory());
-		factories.add(new PSystemColorsFactory());
-		factories.add(new SequenceDiagramFactory());
-		factories.add(new ClassDiagramFactory());
-		factories.add(new ActivityDiagramFactory());
-		factories.add(new DescriptionDiagramFactory());
-		factories.add(new StateDiagramFactory());
-		factories.add(new ActivityDiagramFactory3());
+		register(DiagramType.UML, () -> new PSystemWelcomeFactory());
+		register(DiagramType.UML, () -> new PSystemColorsFactory());
+		register(DiagramType.UML, () -> new SequenceDiagramFactory());
+		register(DiagramType.UML, () -> new ClassDiagramFactory());
+		register(DiagramType.UML, () -> new ActivityDiagramFactory());
+		register(DiagramType.UML, () -> new DescriptionDiagramFactory());
+		register(DiagramType.UML, () -> new StateDiagramFactory());
+		register(DiagramType.UML, () -> new ActivityDiagramFactory3());
 
 		// ::comment when __CORE__
-		factories.add(new BpmDiagramFactory(DiagramType.BPM));
+		register(DiagramType.BPM, () -> new BpmDiagramFactory(DiagramType.BPM));
 		// ::done
 
 		// factories.add(new PostIdDiagramFactory());
-		factories.add(new PSystemLicenseFactory());
-		factories.add(new PSystemVersionFactory());
+		register(DiagramType.UML, () -> new PSystemLicenseFactory());
+		register(DiagramType.UML, () -> new PSystemVersionFactory());
 		// ::comment when __CORE__
-		factories.add(new PSystemDonorsFactory());
-		factories.add(new PSystemSkinparameterListFactory());
-		factories.add(new PSystemListFontsFactory());
-		factories.add(new PSystemListEmojiFactory());
-		factories.add(new PSystemOpenIconicFactory());
-		factories.add(new PSystemListOpenIconicFactory());
-		factories.add(new PSystemListArchimateSpritesFactory());
+		register(DiagramType.UML, () -> new PSystemDonorsFactory());
+		register(DiagramType.UML, () -> new PSystemSkinparameterListFactory());
+		register(DiagramType.UML, () -> new PSystemListFontsFactory());
+		register(DiagramType.UML, () -> new PSystemListEmojiFactory());
+		register(DiagramType.UML, () -> new PSystemOpenIconicFactory());
+		register(DiagramType.UML, () -> new PSystemListOpenIconicFactory());
+		register(DiagramType.UML, () -> new PSystemListArchimateSpritesFactory());
 		// ::done
-		factories.add(new PSystemSaltFactory(DiagramType.UML));
-		factories.add(new PSystemSaltFactory(DiagramType.SALT));
+		register(DiagramType.UML, () -> new PSystemSaltFactory(DiagramType.UML));
+		register(DiagramType.SALT, () -> new PSystemSaltFactory(DiagramType.SALT));
 		// ::comment when __CORE__
-		factories.add(new PSystemDotFactory(DiagramType.DOT));
-		factories.add(new PSystemDotFactory(DiagramType.UML));
+		register(DiagramType.DOT, () -> new PSystemDotFactory(DiagramType.DOT));
+		register(DiagramType.UML, () -> new PSystemDotFactory(DiagramType.UML));
 		// ::done
-		factories.add(new NwDiagramFactory(DiagramType.UML));
-		factories.add(new NwDiagramFactory(DiagramType.NW));
-		factories.add(new MindMapDiagramFactory());
-		factories.add(new WBSDiagramFactory());
+		register(DiagramType.UML, () -> new NwDiagramFactory(DiagramType.UML));
+		register(DiagramType.NW, () -> new NwDiagramFactory(DiagramType.NW));
+		register(DiagramType.MINDMAP, () -> new MindMapDiagramFactory());
+		register(DiagramType.WBS, () -> new WBSDiagramFactory());
 
 		// ::uncomment when __CORE__
-		// factories.add(new PSystemSudokuFactory());
+		// register(DiagramType.UML, () -> new PSystemSudokuFactory());
 		// ::done
 
 		// ::comment when __CORE__ or __MIT__ or __EPL__ or __BSD__ or __ASL__ or __LGPL__
-		factories.add(new PSystemJcckitFactory());
-		factories.add(new PSystemSudokuFactory());
+		register(DiagramType.JCCKIT, () -> new PSystemJcckitFactory());
+		register(DiagramType.UML, () -> new PSystemSudokuFactory());
 		// ::done
 		// ::comment when __CORE__ or __MIT__ or __EPL__ or __BSD__ or __ASL__
-		factories.add(new PSystemDitaaFactory());
+		register(DiagramType.DITAA, () -> new PSystemDitaaFactory());
 		// ::done
 
 		// ::comment when __CORE__
-		factories.add(new PSystemDefinitionFactory());
-		factories.add(new ListSpriteDiagramFactory());
-		factories.add(new StdlibDiagramFactory());
-		factories.add(new PSystemMathFactory(DiagramType.MATH));
-		factories.add(new PSystemLatexFactory(DiagramType.LATEX));
-		factories.add(new PSystemCreoleFactory());
-		factories.add(new PSystemEggFactory());
-		factories.add(new PSystemAppleTwoFactory());
-		factories.add(new PSystemRIPFactory());
+		register(DiagramType.DEFINITION, () -> new PSystemDefinitionFactory());
+		register(DiagramType.UML, () -> new ListSpriteDiagramFactory());
+		register(DiagramType.UML, () -> new StdlibDiagramFactory());
+		register(DiagramType.MATH, () -> new PSystemMathFactory(DiagramType.MATH));
+		register(DiagramType.LATEX, () -> new PSystemLatexFactory(DiagramType.LATEX));
+		register(DiagramType.CREOLE, () -> new PSystemCreoleFactory());
+		register(DiagramType.UML, () -> new PSystemEggFactory());
+		register(DiagramType.UML, () -> new PSystemAppleTwoFactory());
+		register(DiagramType.UML, () -> new PSystemRIPFactory());
 		if (SecurityUtils.getSecurityProfile() == SecurityProfile.UNSECURE)
-			factories.add(new PSystemPathFactory());
-		factories.add(new PSystemOregonFactory());
+			register(DiagramType.UML, () -> new PSystemPathFactory());
+		register(DiagramType.UML, () -> new PSystemOregonFactory());
 		// ::done
 
-		factories.add(new PSystemCharlieFactory());
+		register(DiagramType.UML, () -> new PSystemCharlieFactory());
 
-		factories.add(new GanttDiagramFactory());
-		factories.add(new ChronologyDiagramFactory());
-		factories.add(new FlowDiagramFactory());
+		register(DiagramType.GANTT, () -> new GanttDiagramFactory());
+		register(DiagramType.CHRONOLOGY, () -> new ChronologyDiagramFactory());
+		register(DiagramType.FLOW, () -> new FlowDiagramFactory());
 
 		// ::comment when __CORE__
-		factories.add(new PSystemDedicationFactory());
+		register(DiagramType.UML, () -> new PSystemDedicationFactory());
 		// ::done
 
-		factories.add(new TimingDiagramFactory());
+		register(DiagramType.UML, () -> new TimingDiagramFactory());
 
 		// ::comment when __CORE__
-		factories.add(new HelpFactory());
-		factories.add(new WireDiagramFactory());
+		register(DiagramType.UML, () -> new HelpFactory());
+		register(DiagramType.WIRE, () -> new WireDiagramFactory());
 		// ::done
 
-		factories.add(new JsonDiagramFactory());
-		factories.add(new GitDiagramFactory());
+		register(DiagramType.JSON, () -> new JsonDiagramFactory());
+		register(DiagramType.GIT, () -> new GitDiagramFactory());
 		// ::comment when __CORE__
-		factories.add(new FilesDiagramFactory());
-		factories.add(new BoardDiagramFactory());
+		register(DiagramType.FILES, () -> new FilesDiagramFactory());
+		register(DiagramType.BOARD, () -> new BoardDiagramFactory());
 		// ::done
-		factories.add(new YamlDiagramFactory());
-		factories.add(new HclDiagramFactory());
-		factories.add(new PSystemEbnfFactory());
-		factories.add(new PSystemRegexFactory());
+		register(DiagramType.YAML, () -> new YamlDiagramFactory());
+		register(DiagramType.HCL, () -> new HclDiagramFactory());
+		register(DiagramType.EBNF, () -> new PSystemEbnfFactory());
+		register(DiagramType.REGEX, () -> new PSystemRegexFactory());
 
-		factories.add(new ChenEerDiagramFactory());
+		register(DiagramType.CHEN_EER, () -> new ChenEerDiagramFactory());
 	}
 
 	private boolean isOk(Diagram ps) {
@@ -47,6 +47,14 @@ import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -55,6 +63,7 @@ import net.sourceforge.plantuml.core.DiagramDescription;
 import net.sourceforge.plantuml.error.PSystemError;
 import net.sourceforge.plantuml.preproc.Defines;
 import net.sourceforge.plantuml.security.SFile;
+import net.sourceforge.plantuml.utils.Log;
 
 public class Pipe {
 	// ::remove file when __CORE__
@@ -78,34 +87,133 @@ public class Pipe {
 	}
 
 	public void managePipe(ErrorStatus error) throws IOException {
-		final boolean noStdErr = option.isPipeNoStdErr();
+		if (option.getNbThreads() > 1) {
+			managePipeParallel(error);
+			return;
+		}
 
 		for (String source = readFirstDiagram(); source != null; source = readSubsequentDiagram()) {
-			final Defines defines = option.getDefaultDefines();
-			final SFile newCurrentDir = option.getFileDir() == null ? null : new SFile(option.getFileDir());
-			final SourceStringReader sourceStringReader = new SourceStringReader(defines, source, UTF_8,
-					option.getConfig(), newCurrentDir);
-
-			if (option.isComputeurl())
-				computeUrlForDiagram(sourceStringReader);
-			else if (option.isSyntax())
-				syntaxCheckDiagram(sourceStringReader, error);
-			else if (option.isPipeMap())
-				createPipeMapForDiagram(sourceStringReader, error);
-			else
-				generateDiagram(sourceStringReader, error, noStdErr);
-
+			processDiagram(source, option.getFileFormatOption(), ps, System.err, error);
 			ps.flush();
 		}
 	}
 
-	private void generateDiagram(SourceStringReader sourceStringReader, ErrorStatus error, boolean noStdErr)
+	/**
+	 * Pipelined version of {@link #managePipe(ErrorStatus)}: this thread only
+	 * writes, a reader thread splits the input into diagrams and a pool of
+	 * workers renders them concurrently. Results are written strictly in input
+	 * order, with the same delimiters and error status as the sequential mode.
+	 */
+	private void managePipeParallel(ErrorStatus error) throws IOException {
+		final int nbThreads = option.getNbThreads();
+		Log.info(() -> "Using several threads for pipe: " + nbThreads);
+		final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+		// Bounded, so that a fast producer does not buffer the whole input
+		final BlockingQueue<Future<PipeOutput>> pending = new ArrayBlockingQueue<>(2 * nbThreads);
+		final AtomicReference<IOException> readError = new AtomicReference<>();
+
+		final Thread reader = new Thread(() -> {
+			try {
+				for (String source = readFirstDiagram(); source != null; source = readSubsequentDiagram()) {
+					final String diagram = source;
+					// @@@format lines change the option while reading, so the format is
+					// captured now rather than when the worker starts
+					final FileFormatOption fileFormatOption = option.getFileFormatOption();
+					pending.put(executor.submit(() -> renderDiagram(diagram, fileFormatOption, error)));
+				}
+			} catch (IOException e) {
+				readError.set(e);
+			} catch (InterruptedException e) {
+				return;
+			}
+			try {
+				pending.put(END_OF_INPUT);
+			} catch (InterruptedException e) {
+				// Writer is gone
+			}
+		}, "PlantUML pipe reader");
+		reader.setDaemon(true);
+		reader.start();
+
+		try {
+			for (Future<PipeOutput> next = pending.take(); next != END_OF_INPUT; next = pending.take()) {
+				final PipeOutput output = next.get();
+				System.err.write(output.err);
+				ps.write(output.out);
+				ps.flush();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new IOException(cause);
+		} finally {
+			reader.interrupt();
+			executor.shutdownNow();
+		}
+
+		if (readError.get() != null)
+			throw readError.get();
+	}
+
+	private static final Future<PipeOutput> END_OF_INPUT = new FutureTask<>(() -> null);
+
+	private static class PipeOutput {
+		private final byte[] out;
+		private final byte[] err;
+
+		PipeOutput(byte[] out, byte[] err) {
+			this.out = out;
+			this.err = err;
+		}
+	}
+
+	private PipeOutput renderDiagram(String source, FileFormatOption fileFormatOption, ErrorStatus error)
 			throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ByteArrayOutputStream err = new ByteArrayOutputStream();
+		try (PrintStream psOut = new PrintStream(out); PrintStream psErr = new PrintStream(err)) {
+			processDiagram(source, fileFormatOption, psOut, psErr, error);
+		}
+		return new PipeOutput(out.toByteArray(), err.toByteArray());
+	}
+
+	private void processDiagram(String source, FileFormatOption fileFormatOption, PrintStream ps, PrintStream err,
+			ErrorStatus error) throws IOException {
+		final Defines defines = option.getDefaultDefines();
+		final SFile newCurrentDir;
+		if (option.getFileDir() != null)
+			newCurrentDir = new SFile(option.getFileDir());
+		else if (option.getBaseDir() != null)
+			newCurrentDir = SFile.fromFile(option.getBaseDir());
+		else
+			newCurrentDir = null;
+		final SourceStringReader sourceStringReader = new SourceStringReader(defines, source, UTF_8,
+				option.getConfig(), newCurrentDir);
+
+		if (option.isComputeurl())
+			computeUrlForDiagram(sourceStringReader, ps);
+		else if (option.isSyntax())
+			syntaxCheckDiagram(sourceStringReader, ps, error);
+		else if (option.isPipeMap())
+			createPipeMapForDiagram(sourceStringReader, fileFormatOption, ps, error);
+		else
+			generateDiagram(sourceStringReader, fileFormatOption, ps, err, error);
+
+	}
+
+	private void generateDiagram(SourceStringReader sourceStringReader, FileFormatOption fileFormatOption,
+			PrintStream ps, PrintStream err, ErrorStatus error) throws IOException {
+		final boolean noStdErr = option.isPipeNoStdErr();
 		final OutputStream os = noStdErr ? new ByteArrayOutputStream() : ps;
 		final DiagramDescription result = sourceStringReader.outputImage(os, option.getImageIndex(),
-				option.getFileFormatOption());
+				fileFormatOption);
 
-		printInfo(noStdErr ? ps : System.err, sourceStringReader);
+		printInfo(noStdErr ? ps : err, sourceStringReader);
 		if (result != null && "(error)".equalsIgnoreCase(result.getDescription())) {
 			error.goWithError();
 		} else {
@@ -121,8 +229,9 @@ public class Pipe {
 
 	}
 
-	private void createPipeMapForDiagram(SourceStringReader sourceStringReader, ErrorStatus error) throws IOException {
-		final String result = sourceStringReader.getCMapData(option.getImageIndex(), option.getFileFormatOption());
+	private void createPipeMapForDiagram(SourceStringReader sourceStringReader, FileFormatOption fileFormatOption,
+			PrintStream ps, ErrorStatus error) throws IOException {
+		final String result = sourceStringReader.getCMapData(option.getImageIndex(), fileFormatOption);
 		// https://forum.plantuml.net/10049/2019-pipemap-diagrams-containing-links-give-zero-exit-code
 		// We don't check errors
 		error.goOk();
@@ -135,13 +244,13 @@ public class Pipe {
 
 	}
 
-	private void computeUrlForDiagram(SourceStringReader sourceStringReader) throws IOException {
+	private void computeUrlForDiagram(SourceStringReader sourceStringReader, PrintStream ps) throws IOException {
 		for (BlockUml s : sourceStringReader.getBlocks())
 			ps.println(s.getEncodedUrl());
 
 	}
 
-	private void syntaxCheckDiagram(SourceStringReader sourceStringReader, ErrorStatus error) {
+	private void syntaxCheckDiagram(SourceStringReader sourceStringReader, PrintStream ps, ErrorStatus error) {
 		final Diagram system = sourceStringReader.getBlocks().get(0).getDiagram();
 		if (system instanceof UmlDiagram) {
 			error.goOk();
@@ -47,6 +47,7 @@ import java.io.InputStream;
 import java.io.PrintWriter;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -58,6 +59,7 @@ import net.sourceforge.plantuml.code.NoPlantumlCompressionException;
 import net.sourceforge.plantuml.code.Transcoder;
 import net.sourceforge.plantuml.code.TranscoderUtil;
 import net.sourceforge.plantuml.file.FileGroup;
+import net.sourceforge.plantuml.file.FileWatchLoop;
 import net.sourceforge.plantuml.file.SuggestedFile;
 import net.sourceforge.plantuml.ftp.FtpServer;
 import net.sourceforge.plantuml.klimt.drawing.svg.SvgGraphics;
@@ -88,6 +90,12 @@ public class Run {
 			throws NoPlantumlCompressionException, IOException, InterruptedException {
 		System.setProperty("log4j.debug", "false");
 		final long start = System.currentTimeMillis();
+		if (argsArray.length > 0 && argsArray[0].equalsIgnoreCase("-client")) {
+			argsArray = Arrays.copyOfRange(argsArray, 1, argsArray.length);
+			final int exitCode = DaemonClient.forward(argsArray);
+			if (exitCode != DaemonClient.NOT_FORWARDED)
+				System.exit(exitCode);
+		}
 		if (argsArray.length > 0 && argsArray[0].equalsIgnoreCase("-headless"))
 			System.setProperty("java.awt.headless", "true");
 		saveCommandLine(argsArray);
@@ -168,6 +176,11 @@ public class Run {
 			return;
 		}
 
+		if (option.getDaemonPort() != -1) {
+			DaemonServer.startServer(option.getDaemonPort(), option.getDaemonIdleMinutes());
+			System.exit(0);
+		}
+
 		forceOpenJdkResourceLoad();
 		if (option.getPreprocessorOutputMode() == OptionPreprocOutputMode.CYPHER)
 			cypher = new LanguageDescriptor().getCypher();
@@ -199,21 +212,13 @@ public class Run {
 		} else if (option.isPipe() || option.isPipeMap() || option.isSyntax()) {
 			managePipe(option, error);
 			forceQuit = true;
+		} else if (option.isWatch()) {
+			new FileWatchLoop(option).run();
 		} else if (option.isFailfast2()) {
 			if (option.isSplash())
 				Splash.createSplash();
 
-			final long start2 = System.currentTimeMillis();
-			option.setCheckOnly(true);
-			manageAllFiles(option, error);
-			option.setCheckOnly(false);
-			if (option.isDuration()) {
-				final double duration = (System.currentTimeMillis() - start2) / 1000.0;
-				Log.error("Check Duration = " + duration + " seconds");
-			}
-			if (error.hasError() == false)
-				manageAllFiles(option, error);
-
+			manageFailfast2(option, error);
 			forceQuit = true;
 		} else {
 			if (option.isSplash())
@@ -368,12 +373,27 @@ public class Run {
 		}
 	}
 
-	private static void managePipe(Option option, ErrorStatus error) throws IOException {
+	static void manageFailfast2(Option option, ErrorStatus error)
+			throws NoPlantumlCompressionException, InterruptedException {
+		final long start2 = System.currentTimeMillis();
+		option.setCheckOnly(true);
+		manageAllFiles(option, error);
+		option.setCheckOnly(false);
+		if (option.isDuration()) {
+			final double duration = (System.currentTimeMillis() - start2) / 1000.0;
+			Log.error("Check Duration = " + duration + " seconds");
+		}
+		if (error.hasError() == false)
+			manageAllFiles(option, error);
+
+	}
+
+	static void managePipe(Option option, ErrorStatus error) throws IOException {
 		final String charset = option.getCharset();
 		new Pipe(option, System.out, System.in, charset).managePipe(error);
 	}
 
-	private static void manageAllFiles(Option option, ErrorStatus error)
+	static void manageAllFiles(Option option, ErrorStatus error)
 			throws NoPlantumlCompressionException, InterruptedException {
 
 		SFile lockFile = null;
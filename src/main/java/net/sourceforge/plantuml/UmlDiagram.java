@@ -35,10 +35,7 @@
  */
 package net.sourceforge.plantuml;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
@@ -54,7 +51,6 @@ import net.sourceforge.plantuml.file.SuggestedFile;
 import net.sourceforge.plantuml.klimt.font.FontParam;
 import net.sourceforge.plantuml.klimt.geom.XDimension2D;
 import net.sourceforge.plantuml.log.Logme;
-import net.sourceforge.plantuml.pdf.PdfConverter;
 import net.sourceforge.plantuml.preproc.PreprocessingArtifact;
 import net.sourceforge.plantuml.security.SFile;
 import net.sourceforge.plantuml.skin.UmlDiagramType;
@@ -110,11 +106,6 @@ public abstract class UmlDiagram extends TitledDiagram implements Diagram, Annot
 		fileFormatOption = fileFormatOption.withTikzFontDistortion(getSkinParam().getTikzFontDistortion());
 		fileFormatOption.getTikzFontDistortion().updateFromPragma(getPragma());
 
-		// ::comment when __CORE__
-		if (fileFormatOption.getFileFormat() == FileFormat.PDF)
-			return exportDiagramInternalPdf(os, index);
-		// ::done
-
 		try {
 			final ImageData imageData = exportDiagramInternal(os, index, fileFormatOption);
 			this.lastInfo = new XDimension2D(imageData.getWidth(), imageData.getHeight());
@@ -169,18 +160,6 @@ public abstract class UmlDiagram extends TitledDiagram implements Diagram, Annot
 	}
 
 	// ::comment when __CORE__
-	private ImageData exportDiagramInternalPdf(OutputStream os, int index) throws IOException {
-		final File svg = FileUtils.createTempFileLegacy("pdf", ".svf");
-		final File pdfFile = FileUtils.createTempFileLegacy("pdf", ".pdf");
-		final ImageData result;
-		try (OutputStream fos = new BufferedOutputStream(new FileOutputStream(svg))) {
-			result = exportDiagram(fos, index, new FileFormatOption(FileFormat.SVG));
-		}
-		PdfConverter.convert(svg, pdfFile);
-		FileUtils.copyToStream(pdfFile, os);
-		return result;
-	}
-
 	final protected void exportCmap(SuggestedFile suggestedFile, int index, final ImageData cmapdata)
 			throws FileNotFoundException {
 		final String name = changeName(suggestedFile.getFile(index).getAbsolutePath());
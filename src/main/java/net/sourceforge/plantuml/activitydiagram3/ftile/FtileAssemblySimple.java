@@ -145,12 +145,19 @@ public class FtileAssemblySimple extends AbstractTextBlock implements Ftile {
 		return Collections.emptyList();
 	}
 
+	private Set<Swimlane> cachedSwimlanes;
+
+	// Assemblies are chained as deep as the diagram is long and this is asked at
+	// every level of every drawing pass
 	@Override
 	public Set<Swimlane> getSwimlanes() {
-		final Set<Swimlane> result = new HashSet<>();
-		result.addAll(tile1.getSwimlanes());
-		result.addAll(tile2.getSwimlanes());
-		return Collections.unmodifiableSet(result);
+		if (cachedSwimlanes == null) {
+			final Set<Swimlane> result = new HashSet<>();
+			result.addAll(tile1.getSwimlanes());
+			result.addAll(tile2.getSwimlanes());
+			cachedSwimlanes = Collections.unmodifiableSet(result);
+		}
+		return cachedSwimlanes;
 	}
 
 	@Override
@@ -283,7 +283,7 @@ public class Snake implements UShape {
 
 	}
 
-	private XPoint2D getFirst() {
+	public XPoint2D getFirst() {
 		return worm.getPoint(0);
 	}
 
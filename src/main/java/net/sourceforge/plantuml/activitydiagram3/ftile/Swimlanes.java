@@ -214,10 +214,24 @@ public class Swimlanes extends AbstractTextBlock implements TextBlock, Styleable
 
 	}
 
+	private Ftile cachedFull;
+	private StringBounder cachedFullStringBounder;
+
+	// The tree only depends on the instructions and on the string bounder. Sharing
+	// it between the measurement passes and the final drawing lets every ftile
+	// compute its geometry once instead of once per pass.
+	private Ftile getFull(StringBounder stringBounder) {
+		if (cachedFull == null || cachedFullStringBounder != stringBounder) {
+			cachedFull = root.createFtile(getFtileFactory(stringBounder));
+			cachedFullStringBounder = stringBounder;
+		}
+		return cachedFull;
+	}
+
 	public final void computeSize(StringBounder stringBounder) {
 		final SlotFinder ug = SlotFinder.create(CompressionMode.ON_Y, stringBounder);
 		if (swimlanes().size() > 1) {
-			TextBlock full = root.createFtile(getFtileFactory(stringBounder));
+			TextBlock full = getFull(stringBounder);
 			computeSizeInternal(ug, full);
 		}
 
@@ -231,7 +245,7 @@ public class Swimlanes extends AbstractTextBlock implements TextBlock, Styleable
 		}
 		// ::done
 
-		TextBlock full = root.createFtile(getFtileFactory(ug.getStringBounder()));
+		TextBlock full = getFull(ug.getStringBounder());
 		final Style style = skinParam.getCurrentStyleBuilder()
 				.getMergedStyle(StyleSignatureBasic.of(SName.root, SName.element, SName.activityDiagram, SName.goto_));
 		final HColor gotoColor = style.value(PName.LineColor).asColor(skinParam.getIHtmlColorSet());
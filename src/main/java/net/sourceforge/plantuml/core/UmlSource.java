@@ -123,6 +123,9 @@ final public class UmlSource {
 				final String s = cs.getString();
 				if (StringUtils.endsWithBackslash(s)) {
 					pending.append(s, 0, s.length() - 1);
+				} else if (pending.length() == 0 && cs.getPreprocessorError() == null) {
+					// Nothing to merge: share the line instead of copying it
+					this.source.add(cs);
 				} else {
 					pending.append(s);
 					this.source.add(new StringLocated(pending.toString(), cs.getLocation()));
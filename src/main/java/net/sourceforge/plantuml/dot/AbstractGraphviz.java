@@ -37,6 +37,7 @@ package net.sourceforge.plantuml.dot;
 
 import java.io.File;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -44,6 +45,8 @@ import java.util.Objects;
 import net.sourceforge.plantuml.OptionFlags;
 import net.sourceforge.plantuml.StringUtils;
 import net.sourceforge.plantuml.log.Logme;
+import net.sourceforge.plantuml.metrics.Metrics;
+import net.sourceforge.plantuml.metrics.Phase;
 import net.sourceforge.plantuml.security.SFile;
 import net.sourceforge.plantuml.style.ISkinParam;
 import net.sourceforge.plantuml.utils.Log;
@@ -105,11 +108,12 @@ abstract class AbstractGraphviz implements Graphviz {
 		final String cmd[] = getCommandLine();
 		ProcessRunner p = null;
 		ProcessState state = null;
+		final long start = Metrics.start();
 		try {
 			Log.info(() -> "Starting Graphviz process " + Arrays.asList(cmd));
 			Log.info(() -> "DotString size: " + dotString.length());
 			p = new ProcessRunner(cmd);
-			state = p.run(dotString.getBytes(), os);
+			state = p.run(dotString, Charset.defaultCharset(), os);
 			Log.info(() -> "Ending process ok");
 		} catch (Throwable e) {
 			Logme.error(e);
@@ -119,6 +123,7 @@ abstract class AbstractGraphviz implements Graphviz {
 			Log.error("Try java -jar plantuml.jar -testdot to figure out the issue");
 			Log.error("");
 		} finally {
+			Metrics.stop(Phase.GRAPHVIZ, start);
 			Log.info(() -> "Ending Graphviz process");
 		}
 //		if (OptionFlags.getInstance().isCheckDotError() && p != null && p.getError().length() > 0) {
@@ -36,8 +36,12 @@
 package net.sourceforge.plantuml.dot;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.concurrent.TimeUnit;
 
 import net.sourceforge.plantuml.OptionFlags;
@@ -60,6 +64,35 @@ public class ProcessRunner {
 	}
 
 	public ProcessState run(byte[] in, OutputStream redirection, SFile dir) {
+		return execute(in == null ? null : os -> os.write(in), redirection, dir);
+	}
+
+	/**
+	 * Runs the process with a text input that is encoded chunk by chunk while the
+	 * process is running, so that no encoded copy of the whole text is ever built.
+	 * <p>
+	 * When a redirection is given, the process output is only written to it and
+	 * {@link #getOut()} returns an empty string.
+	 */
+	public ProcessState run(String in, Charset charset, OutputStream redirection) {
+		return execute(os -> writeChunks(in, charset, os), redirection, null);
+	}
+
+	interface InputFeeder {
+		void feed(OutputStream os) throws IOException;
+	}
+
+	private static void writeChunks(String in, Charset charset, OutputStream os) throws IOException {
+		final Writer writer = new OutputStreamWriter(os, charset);
+		for (int i = 0; i < in.length(); i += CHUNK_SIZE)
+			writer.write(in, i, Math.min(CHUNK_SIZE, in.length() - i));
+
+		writer.flush();
+	}
+
+	private static final int CHUNK_SIZE = 8192;
+
+	private ProcessState execute(InputFeeder feeder, OutputStream redirection, SFile dir) {
 		Process process = null;
 		try {
 			final ProcessBuilder builder = new ProcessBuilder(cmd);
@@ -69,29 +102,45 @@ public class ProcessRunner {
 
 			process = builder.start();
 
-			// Handling input to the process
-			if (in != null)
-				try (OutputStream os = process.getOutputStream()) {
-					os.write(in);
-				}
+			// Handling input to the process on its own thread, so that the process can
+			// start writing its output before it has read the whole input
+			final Throwable[] feederError = new Throwable[1];
+			Thread feederThread = null;
+			if (feeder != null) {
+				final OutputStream stdin = process.getOutputStream();
+				feederThread = new Thread(() -> {
+					try (OutputStream os = stdin) {
+						feeder.feed(os);
+					} catch (Throwable e) {
+						feederError[0] = e;
+					}
+				}, "ProcessRunner input");
+				feederThread.setDaemon(true);
+				feederThread.start();
+			}
 
-			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			final ByteArrayOutputStream outputStream = redirection == null ? new ByteArrayOutputStream() : null;
 			try (InputStream is = process.getInputStream()) {
-				final byte[] buffer = new byte[1024];
+				final byte[] buffer = new byte[CHUNK_SIZE];
 				int length;
-				while ((length = is.read(buffer)) != -1) {
-					outputStream.write(buffer, 0, length);
-					if (redirection != null)
+				while ((length = is.read(buffer)) != -1)
+					if (redirection == null)
+						outputStream.write(buffer, 0, length);
+					else
 						redirection.write(buffer, 0, length);
-				}
+			}
+
+			if (feederThread != null) {
+				feederThread.join();
+				if (feederError[0] != null)
+					throw feederError[0];
 			}
 
 			// Wait for process to terminate
 			final long timeoutMs = OptionFlags.getInstance().getTimeoutMs();
 			final boolean finished = process.waitFor(timeoutMs, TimeUnit.MILLISECONDS);
-			outputStream.close();
 			if (finished) {
-				this.out = new String(outputStream.toByteArray(), "UTF-8");
+				this.out = outputStream == null ? "" : outputStream.toString("UTF-8");
 				return ProcessState.TERMINATED_OK();
 			}
 
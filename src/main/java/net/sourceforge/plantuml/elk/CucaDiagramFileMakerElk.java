@@ -113,6 +113,8 @@ import net.sourceforge.plantuml.klimt.geom.XPoint2D;
 import net.sourceforge.plantuml.klimt.shape.TextBlock;
 import net.sourceforge.plantuml.klimt.shape.TextBlockUtils;
 import net.sourceforge.plantuml.log.Logme;
+import net.sourceforge.plantuml.metrics.Metrics;
+import net.sourceforge.plantuml.metrics.Phase;
 import net.sourceforge.plantuml.skin.AlignmentParam;
 import net.sourceforge.plantuml.skin.UmlDiagramType;
 import net.sourceforge.plantuml.skin.VisibilityModifier;
@@ -320,7 +322,9 @@ public class CucaDiagramFileMakerElk extends CucaDiagramFileMaker {
 
 			this.manageAllEdges(stringBounder);
 
+			final long start = Metrics.start();
 			new RecursiveGraphLayoutEngine().layout(root, new NullElkProgressMonitor());
+			Metrics.stop(Phase.LAYOUT, start);
 
 			final MinMax minMax = TextBlockUtils.getMinMax(
 					new MyElkDrawing(clusterManager, diagram, null, clusters, edges, nodes), stringBounder, false);
@@ -35,20 +35,116 @@
  */
 package net.sourceforge.plantuml.elk.proxy;
 
-import java.lang.reflect.Constructor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.sourceforge.plantuml.log.Logme;
 
 /*
  * Various methods to do Java introspection
+ *
+ * Classes and members are looked up once and kept as method handles: the
+ * graph proxies call the same dozen methods for every node, edge, label and
+ * bend point, and the lookup costs much more than the call itself.
  */
 public class Reflect {
 
+	private static final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+	private static final MethodType CONSTRUCTOR_4_DOUBLES = MethodType.methodType(Object.class, Double.TYPE,
+			Double.TYPE, Double.TYPE, Double.TYPE);
+
+	private static final ConcurrentMap<String, Class<?>> classes = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<Member, MethodHandle> handles = new ConcurrentHashMap<>();
+
+	// Either a member looked up with the exact classes of its arguments, or
+	// (when the argument classes are null) the first one with that many
+	// arguments
+	static final class Member {
+
+		private final Class<?> owner;
+		private final String name;
+		private final int nbArgs;
+		private final Class<?> arg1;
+		private final Class<?> arg2;
+
+		Member(Class<?> owner, String name, int nbArgs, Class<?> arg1, Class<?> arg2) {
+			this.owner = owner;
+			this.name = name;
+			this.nbArgs = nbArgs;
+			this.arg1 = arg1;
+			this.arg2 = arg2;
+		}
+
+		@Override
+		public int hashCode() {
+			return (owner.hashCode() * 31 + name.hashCode()) * 31 + nbArgs + Objects.hashCode(arg1)
+					+ 7 * Objects.hashCode(arg2);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			final Member other = (Member) obj;
+			return owner == other.owner && nbArgs == other.nbArgs && arg1 == other.arg1 && arg2 == other.arg2
+					&& name.equals(other.name);
+		}
+
+		private MethodHandle resolve() throws ReflectiveOperationException {
+			if (name.equals("<init>")) {
+				if (nbArgs == 0)
+					return generic(lookup.unreflectConstructor(owner.getConstructor()));
+				if (nbArgs == 1)
+					return generic(lookup.unreflectConstructor(owner.getConstructor(arg1)));
+				return lookup.unreflectConstructor(owner.getConstructor(Double.TYPE, Double.TYPE, Double.TYPE, Double.TYPE))
+						.asType(CONSTRUCTOR_4_DOUBLES);
+			}
+			final Method method;
+			if (nbArgs == 0)
+				method = owner.getMethod(name);
+			else if (arg1 == null)
+				method = getMethodByCount(owner, name, nbArgs);
+			else if (nbArgs == 1)
+				method = owner.getMethod(name, arg1);
+			else
+				method = owner.getMethod(name, arg1, arg2);
+			return generic(lookup.unreflect(method));
+		}
+
+		private static MethodHandle generic(MethodHandle handle) {
+			return handle.asType(MethodType.genericMethodType(handle.type().parameterCount()));
+		}
+
+	}
+
+	private static MethodHandle handle(Class<?> owner, String name, int nbArgs, Class<?> arg1, Class<?> arg2)
+			throws ReflectiveOperationException {
+		final Member member = new Member(owner, name, nbArgs, arg1, arg2);
+		MethodHandle result = handles.get(member);
+		if (result == null) {
+			result = member.resolve();
+			handles.put(member, result);
+		}
+		return result;
+	}
+
+	private static Class<?> forName(String className) throws ClassNotFoundException {
+		Class<?> result = classes.get(className);
+		if (result == null) {
+			result = Class.forName(className);
+			classes.put(className, result);
+		}
+		return result;
+	}
+
 	public static Class clazz(String className) {
 		try {
-			return Class.forName(className);
+			return forName(className);
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -71,20 +167,13 @@ public class Reflect {
 	}
 
 	public static Object opt(String className, String fieldname) {
-		try {
-			final Class<?> cl = Class.forName(className);
-			final Field field = cl.getField(fieldname);
-			return field.get(null);
-		} catch (Throwable t) {
-			Logme.error(t);
-			throw new IllegalArgumentException(t);
-		}
+		return field(className, fieldname);
 	}
 
 	public static Object newInstance(String className) {
 		try {
-			final Class<?> cl = Class.forName(className);
-			return cl.newInstance();
+			final MethodHandle m = handle(forName(className), "<init>", 0, null, null);
+			return (Object) m.invokeExact();
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -93,9 +182,8 @@ public class Reflect {
 
 	public static Object newInstance(String className, Object arg1) {
 		try {
-			final Class<?> cl = Class.forName(className);
-			final Constructor<?> m = cl.getConstructor(arg1.getClass());
-			return m.newInstance(arg1);
+			final MethodHandle m = handle(forName(className), "<init>", 1, arg1.getClass(), null);
+			return (Object) m.invokeExact(arg1);
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -104,9 +192,8 @@ public class Reflect {
 
 	public static Object newInstance(String className, double arg1, double arg2, double arg3, double arg4) {
 		try {
-			final Class<?> cl = Class.forName(className);
-			final Constructor<?> m = cl.getConstructor(Double.TYPE, Double.TYPE, Double.TYPE, Double.TYPE);
-			return m.newInstance(arg1, arg2, arg3, arg4);
+			final MethodHandle m = handle(forName(className), "<init>", 4, Double.TYPE, Double.TYPE);
+			return (Object) m.invokeExact(arg1, arg2, arg3, arg4);
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -115,7 +202,7 @@ public class Reflect {
 
 	public static Object field(String className, String fieldName) {
 		try {
-			final Class<?> cl = Class.forName(className);
+			final Class<?> cl = forName(className);
 			final Field f = cl.getField(fieldName);
 			return f.get(null);
 		} catch (Throwable t) {
@@ -126,9 +213,8 @@ public class Reflect {
 
 	public static Object callStatic(String className, String method) {
 		try {
-			final Class<?> cl = Class.forName(className);
-			final Method m = cl.getMethod(method);
-			return m.invoke(null);
+			final MethodHandle m = handle(forName(className), method, 0, null, null);
+			return (Object) m.invokeExact();
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -137,9 +223,8 @@ public class Reflect {
 
 	public static Object callStatic(String className, String method, Object arg1) {
 		try {
-			final Class<?> cl = Class.forName(className);
-			final Method m = cl.getMethod(method, arg1.getClass());
-			return m.invoke(null, arg1);
+			final MethodHandle m = handle(forName(className), method, 1, arg1.getClass(), null);
+			return (Object) m.invokeExact(arg1);
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -148,9 +233,8 @@ public class Reflect {
 
 	public static Object callStatic(String className, String method, Object arg1, Object arg2) {
 		try {
-			final Class<?> cl = Class.forName(className);
-			final Method m = cl.getMethod(method, arg1.getClass(), arg2.getClass());
-			return m.invoke(null, arg1, arg2);
+			final MethodHandle m = handle(forName(className), method, 2, arg1.getClass(), arg2.getClass());
+			return (Object) m.invokeExact(arg1, arg2);
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -159,9 +243,8 @@ public class Reflect {
 
 	public static Object callStatic2(String className, String method, Object arg1) {
 		try {
-			final Class<?> cl = Class.forName(className);
-			final Method m = getStaticMethod(cl, method, 1);
-			return m.invoke(null, arg1);
+			final MethodHandle m = handle(forName(className), method, 1, null, null);
+			return (Object) m.invokeExact(arg1);
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -170,9 +253,8 @@ public class Reflect {
 
 	public static Object callStatic2(String className, String method, Object arg1, Object arg2) {
 		try {
-			final Class<?> cl = Class.forName(className);
-			final Method m = getStaticMethod(cl, method, 2);
-			return m.invoke(null, arg1, arg2);
+			final MethodHandle m = handle(forName(className), method, 2, null, null);
+			return (Object) m.invokeExact(arg1, arg2);
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -180,18 +262,13 @@ public class Reflect {
 	}
 
 	public static Method getStaticMethod(Class<?> cl, String method, int nbArgs) {
-		for (Method m : cl.getMethods()) {
-			if (m.getName().equals(method) && m.getParameters().length == nbArgs) {
-				return m;
-			}
-		}
-		throw new IllegalArgumentException();
+		return getMethodByCount(cl, method, nbArgs);
 	}
 
 	public static Object call(Object instance, String method) {
 		try {
-			final Method m = instance.getClass().getMethod(method);
-			return m.invoke(instance);
+			final MethodHandle m = handle(instance.getClass(), method, 0, null, null);
+			return (Object) m.invokeExact(instance);
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -200,8 +277,8 @@ public class Reflect {
 
 	public static Object call(Object instance, String method, Object arg1) {
 		try {
-			final Method m = instance.getClass().getMethod(method, arg1.getClass());
-			return m.invoke(instance, arg1);
+			final MethodHandle m = handle(instance.getClass(), method, 1, arg1.getClass(), null);
+			return (Object) m.invokeExact(instance, arg1);
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -210,8 +287,8 @@ public class Reflect {
 
 	public static Object call(Object instance, String method, Object arg1, Object arg2) {
 		try {
-			final Method m = instance.getClass().getMethod(method, arg1.getClass(), arg2.getClass());
-			return m.invoke(instance, arg1, arg2);
+			final MethodHandle m = handle(instance.getClass(), method, 2, arg1.getClass(), arg2.getClass());
+			return (Object) m.invokeExact(instance, arg1, arg2);
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -220,8 +297,8 @@ public class Reflect {
 
 	public static Object call2(Object instance, String method, Object arg1, Object arg2) {
 		try {
-			final Method m = getMethod(instance, method, 2);
-			return m.invoke(instance, arg1, arg2);
+			final MethodHandle m = handle(instance.getClass(), method, 2, null, null);
+			return (Object) m.invokeExact(instance, arg1, arg2);
 		} catch (Throwable t) {
 			Logme.error(t);
 			throw new IllegalArgumentException(t);
@@ -229,7 +306,11 @@ public class Reflect {
 	}
 
 	public static Method getMethod(Object instance, String method, int nbArgs) {
-		for (Method m : instance.getClass().getMethods()) {
+		return getMethodByCount(instance.getClass(), method, nbArgs);
+	}
+
+	private static Method getMethodByCount(Class<?> cl, String method, int nbArgs) {
+		for (Method m : cl.getMethods()) {
 			if (m.getName().equals(method) && m.getParameters().length == nbArgs) {
 				return m;
 			}
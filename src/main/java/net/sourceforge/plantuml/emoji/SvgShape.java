@@ -0,0 +1,379 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.emoji;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.sourceforge.plantuml.klimt.UTranslate;
+import net.sourceforge.plantuml.openiconic.SvgPath;
+
+/**
+ * One SVG element of an emoji or sprite, with all its attributes already
+ * parsed.
+ * <p>
+ * Nothing here depends on the scale or on the colors used for drawing, so
+ * instances are immutable and shared by every drawing of the same SVG.
+ */
+final class SvgShape {
+
+	enum Kind {
+		PATH, GROUP, GROUP_END, CIRCLE, ELLIPSE, TEXT, UNKNOWN
+	}
+
+	enum TransformKind {
+		NONE, ROTATE, MATRIX, TRANSLATE_SCALE
+	}
+
+	private static final Pattern P_TEXT_OR_DRAW = Pattern
+			.compile("(\\<text .*?\\</text\\>)|(\\<(svg|path|g|circle|ellipse)[^<>]*\\>)|(\\</[^<>]*\\>)");
+
+	private static final Pattern P_TEXT = Pattern.compile("\\<text[^<>]*\\>(.*?)\\</text\\>");
+	private static final Pattern P_FONT_SIZE = Pattern.compile("^(\\d+)p[tx]$");
+
+	private static final Pattern P_MATRIX = Pattern.compile(
+			"matrix\\(([-.0-9]+)[ ,]+([-.0-9]+)[ ,]+([-.0-9]+)[ ,]+([-.0-9]+)[ ,]+([-.0-9]+)[ ,]+([-.0-9]+)\\)");
+
+	private static final Pattern P_ROTATE = Pattern.compile("rotate\\(([-.0-9]+)[ ,]+([-.0-9]+)[ ,]+([-.0-9]+)\\)");
+
+	private static final Pattern P_TRANSLATE1 = Pattern.compile("translate\\(([-.0-9]+)[ ,]+([-.0-9]+)\\)");
+	private static final Pattern P_TRANSLATE2 = Pattern.compile("translate\\(([-.0-9]+)\\)");
+
+	private static final Pattern P_SCALE1 = Pattern.compile("scale\\(([-.0-9]+)\\)");
+	private static final Pattern P_SCALE2 = Pattern.compile("scale\\(([-.0-9]+)[ ,]+([-.0-9]+)\\)");
+
+	private static final String equals_something = "=\"([^\"]+)\"";
+	private static final Pattern DATA_CX = Pattern.compile("cx" + equals_something);
+	private static final Pattern DATA_CY = Pattern.compile("cy" + equals_something);
+	private static final Pattern DATA_FILL = Pattern.compile("fill" + equals_something);
+	private static final Pattern DATA_FONT_FAMILY = Pattern.compile("font-family" + equals_something);
+	private static final Pattern DATA_FONT_SIZE = Pattern.compile("font-size" + equals_something);
+	private static final Pattern DATA_R = Pattern.compile("r" + equals_something);
+	private static final Pattern DATA_RX = Pattern.compile("rx" + equals_something);
+	private static final Pattern DATA_RY = Pattern.compile("ry" + equals_something);
+	private static final Pattern DATA_STROKE = Pattern.compile("stroke" + equals_something);
+	private static final Pattern DATA_STROKE_WIDTH = Pattern.compile("stroke-width" + equals_something);
+	private static final Pattern DATA_STYLE = Pattern.compile("style" + equals_something);
+	private static final Pattern DATA_TRANSFORM = Pattern.compile("transform" + equals_something);
+	private static final Pattern DATA_X = Pattern.compile("x" + equals_something);
+	private static final Pattern DATA_Y = Pattern.compile("y" + equals_something);
+
+	private static final String colon_something = ":([^;\"]+)";
+	private static final Pattern STYLE_FILL = Pattern.compile(Pattern.quote("fill") + colon_something);
+	private static final Pattern STYLE_FONT_SIZE = Pattern.compile(Pattern.quote("font-size") + colon_something);
+	private static final Pattern STYLE_FONT_FAMILY = Pattern.compile(Pattern.quote("font-family") + colon_something);
+
+	private final Kind kind;
+	private final String source;
+	private final boolean grayLevelRelevant;
+
+	private final String fill;
+	private final String stroke;
+	private final Double strokeWidth;
+	private final String fontFamily;
+
+	private final TransformKind transformKind;
+	private final double[] transform;
+
+	private final double[] geometry;
+	private final SvgPath path;
+	private final String text;
+	private final int fontSize;
+
+	private SvgShape(String s) {
+		this.source = s;
+		this.kind = getKind(s);
+		this.grayLevelRelevant = s.contains("<path ") || s.contains("<g ") || s.contains("<circle ")
+				|| s.contains("<ellipse ");
+
+		this.fill = getOwnFill(s);
+		this.stroke = extract(DATA_STROKE, s);
+		final String strokeWidthString = extract(DATA_STROKE_WIDTH, s);
+		this.strokeWidth = strokeWidthString == null ? null : Double.parseDouble(strokeWidthString);
+		this.fontFamily = getOwnFontFamily(s);
+
+		final String transformString = extract(DATA_TRANSFORM, s);
+		if (transformString == null) {
+			this.transformKind = TransformKind.NONE;
+			this.transform = null;
+		} else if (transformString.contains("rotate(")) {
+			this.transformKind = TransformKind.ROTATE;
+			this.transform = parseNumbers(P_ROTATE, transformString, 3);
+		} else if (transformString.contains("matrix(")) {
+			this.transformKind = TransformKind.MATRIX;
+			this.transform = parseNumbers(P_MATRIX, transformString, 6);
+		} else {
+			this.transformKind = TransformKind.TRANSLATE_SCALE;
+			this.transform = getTranslateAndScale(transformString);
+		}
+
+		if (kind == Kind.CIRCLE)
+			this.geometry = new double[] { parse(DATA_CX, s), parse(DATA_CY, s), parse(DATA_R, s) };
+		else if (kind == Kind.ELLIPSE)
+			this.geometry = new double[] { parse(DATA_CX, s), parse(DATA_CY, s), parse(DATA_RX, s),
+					parse(DATA_RY, s) };
+		else if (kind == Kind.TEXT)
+			this.geometry = new double[] { parse(DATA_X, s), parse(DATA_Y, s) };
+		else
+			this.geometry = null;
+
+		if (kind == Kind.PATH) {
+			final String tmp = s.replace("id=\"", "ID=\"");
+			final int x1 = tmp.indexOf("d=\"");
+			final int x2 = tmp.indexOf('"', x1 + 3);
+			this.path = new SvgPath(tmp.substring(x1 + 3, x2), UTranslate.none());
+		} else {
+			this.path = null;
+		}
+
+		if (kind == Kind.TEXT) {
+			final Matcher m = P_TEXT.matcher(s);
+			this.text = m.find() ? m.group(1) : null;
+			this.fontSize = getTextFontSize(s);
+		} else {
+			this.text = null;
+			this.fontSize = 0;
+		}
+	}
+
+	public static List<SvgShape> parse(List<String> svg) {
+		final List<SvgShape> result = new ArrayList<>();
+		for (String singleLine : svg) {
+			final Matcher m = P_TEXT_OR_DRAW.matcher(singleLine);
+			while (m.find()) {
+				final String s = m.group(0);
+				if (s.startsWith("<path") || s.startsWith("<g ") || s.startsWith("<g>") || s.startsWith("</g>")
+						|| s.startsWith("<circle ") || s.startsWith("<ellipse ") || s.startsWith("<text "))
+					result.add(new SvgShape(s));
+				else if (s.startsWith("<svg") || s.startsWith("</svg")) {
+					// Ignore
+				} else
+					System.err.println("???=" + s);
+			}
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	private static Kind getKind(String s) {
+		if (s.startsWith("<path "))
+			return Kind.PATH;
+		if (s.startsWith("</g>"))
+			return Kind.GROUP_END;
+		if (s.startsWith("<g>") || s.startsWith("<g "))
+			return Kind.GROUP;
+		if (s.startsWith("<circle "))
+			return Kind.CIRCLE;
+		if (s.startsWith("<ellipse "))
+			return Kind.ELLIPSE;
+		if (s.startsWith("<text "))
+			return Kind.TEXT;
+		return Kind.UNKNOWN;
+	}
+
+	private static String extract(Pattern p, String s) {
+		final Matcher m = p.matcher(s);
+		if (m.find())
+			return m.group(1);
+
+		return null;
+	}
+
+	private static double parse(Pattern p, String s) {
+		return Double.parseDouble(extract(p, s));
+	}
+
+	private static double[] parseNumbers(Pattern p, String transform, int size) {
+		final Matcher m = p.matcher(transform);
+		if (m.find() == false) {
+			System.err.println("WARNING: " + transform);
+			return null;
+		}
+		final double[] result = new double[size];
+		for (int i = 0; i < size; i++)
+			result[i] = Double.parseDouble(m.group(i + 1));
+
+		return result;
+	}
+
+	private static double[] getTranslateAndScale(String transform) {
+		// translate x, translate y, scale x, scale y
+		final double[] result = new double[] { 0, 0, 1, 1 };
+
+		final Matcher m3 = P_TRANSLATE1.matcher(transform);
+		if (m3.find()) {
+			result[0] = Double.parseDouble(m3.group(1));
+			result[1] = Double.parseDouble(m3.group(2));
+		} else {
+			final Matcher m4 = P_TRANSLATE2.matcher(transform);
+			if (m4.find()) {
+				result[0] = Double.parseDouble(m4.group(1));
+				result[1] = Double.parseDouble(m4.group(1));
+			}
+		}
+
+		final Matcher m1 = P_SCALE1.matcher(transform);
+		if (m1.find()) {
+			result[2] = Double.parseDouble(m1.group(1));
+			result[3] = result[2];
+		} else {
+			final Matcher m2 = P_SCALE2.matcher(transform);
+			if (m2.find()) {
+				result[2] = Double.parseDouble(m2.group(1));
+				result[3] = Double.parseDouble(m2.group(2));
+			}
+		}
+		return result;
+	}
+
+	private static String getOwnFill(String s) {
+		String color = extract(DATA_FILL, s);
+		if (color == null) {
+			final String style = extract(DATA_STYLE, s);
+			if (style != null)
+				color = extract(STYLE_FILL, style);
+		}
+		return color;
+	}
+
+	private static String getOwnFontFamily(String s) {
+		String family = extract(DATA_FONT_FAMILY, s);
+		if (family == null) {
+			final String style = extract(DATA_STYLE, s);
+			if (style != null)
+				family = extract(STYLE_FONT_FAMILY, style);
+		}
+		return family;
+	}
+
+	private static int getTextFontSize(String s) {
+		String fontSize = extract(DATA_FONT_SIZE, s);
+		if (fontSize == null) {
+			final String style = extract(DATA_STYLE, s);
+			if (style != null)
+				fontSize = extract(STYLE_FONT_SIZE, style);
+
+		}
+		if (fontSize == null)
+			// Not perfect, by let's take a default value
+			return 14;
+
+		final Matcher matcher = P_FONT_SIZE.matcher(fontSize);
+
+		if (matcher.matches())
+			return Integer.parseInt(fontSize.replaceAll("[a-z]", ""));
+
+		return Integer.parseInt(fontSize);
+	}
+
+	public String getFill(Deque<SvgShape> groups) {
+		if (fill == null && groups != null)
+			for (SvgShape g : groups)
+				if (g.fill != null)
+					return g.fill;
+
+		return fill;
+	}
+
+	public String getFontFamily(Deque<SvgShape> groups) {
+		if (fontFamily == null && groups != null)
+			for (SvgShape g : groups)
+				if (g.fontFamily != null)
+					return g.fontFamily;
+
+		return fontFamily;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public boolean hasAttributes() {
+		return source.startsWith("<g>") == false;
+	}
+
+	public boolean isGrayLevelRelevant() {
+		return grayLevelRelevant;
+	}
+
+	public String getFill() {
+		return fill;
+	}
+
+	public String getStroke() {
+		return stroke;
+	}
+
+	public Double getStrokeWidth() {
+		return strokeWidth;
+	}
+
+	public TransformKind getTransformKind() {
+		return transformKind;
+	}
+
+	public double getTransform(int i) {
+		return transform[i];
+	}
+
+	public boolean isTransformValid() {
+		return transformKind == TransformKind.NONE || transform != null;
+	}
+
+	public double getGeometry(int i) {
+		return geometry[i];
+	}
+
+	public SvgPath getPath() {
+		return path;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public int getFontSize() {
+		return fontSize;
+	}
+
+}
@@ -0,0 +1,312 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.file;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.plantuml.GeneratedImage;
+import net.sourceforge.plantuml.Option;
+import net.sourceforge.plantuml.SourceFileReader;
+import net.sourceforge.plantuml.log.Logme;
+import net.sourceforge.plantuml.preproc.FileWithSuffix;
+import net.sourceforge.plantuml.utils.Log;
+
+/**
+ * Long-running <code>-watch</code> mode.
+ * <p>
+ * Directories are observed through {@link WatchService} instead of being
+ * polled. Every rendered diagram reports the files it has included, which are
+ * kept in a reverse dependency graph: when an included file changes, only the
+ * diagrams depending on it are rendered again. Bursts of events (editors
+ * saving through temporary files, <code>git checkout</code>...) are coalesced
+ * before anything is submitted to the worker pool.
+ */
+public class FileWatchLoop {
+	// ::remove file when __CORE__
+
+	private static final long DEBOUNCE_MS = 100;
+
+	private final Option option;
+	private final WatchService watchService;
+	private final ExecutorService executorService;
+
+	private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+	private final Set<Path> watched = new HashSet<>();
+	private final Set<Path> sourceDirs = new HashSet<>();
+
+	private final Set<Path> diagrams = Collections.newSetFromMap(new ConcurrentHashMap<Path, Boolean>());
+	private final Map<Path, Set<Path>> dependencies = new HashMap<>();
+	private final Map<Path, Set<Path>> dependents = new HashMap<>();
+
+	// A diagram with no entry is idle. All transitions go through the map so that
+	// a change arriving while the worker is finishing cannot be lost.
+	enum RenderState {
+		RUNNING, RUNNING_DIRTY
+	}
+
+	private final Map<Path, RenderState> states = new ConcurrentHashMap<>();
+
+	public FileWatchLoop(Option option) throws IOException {
+		this.option = option;
+		this.watchService = java.nio.file.FileSystems.getDefault().newWatchService();
+		final int nb = option.getNbThreads() > 0 ? option.getNbThreads() : Option.defaultNbThreads();
+		this.executorService = Executors.newFixedThreadPool(nb);
+	}
+
+	public void run() throws IOException, InterruptedException {
+		for (String s : option.getResult()) {
+			final File arg = new File(s);
+			if (arg.isDirectory())
+				registerSourceDir(normalize(arg.toPath()));
+
+			for (File f : new FileGroup(s, option.getExcludes(), option).getFiles()) {
+				final Path diagram = normalize(f.toPath());
+				diagrams.add(diagram);
+				registerSourceDir(diagram.getParent());
+			}
+		}
+		Log.info(() -> "Watching " + diagrams.size() + " files in " + keys.size() + " directories");
+		for (Path diagram : diagrams)
+			submit(diagram);
+
+		try {
+			while (true) {
+				final Set<Path> changed = new LinkedHashSet<>();
+				WatchKey key = watchService.take();
+				do {
+					collectChanges(key, changed);
+					key = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+				} while (key != null);
+
+				for (Path diagram : getAffected(changed))
+					submit(diagram);
+			}
+		} finally {
+			executorService.shutdownNow();
+			watchService.close();
+		}
+	}
+
+	private void collectChanges(WatchKey key, Set<Path> changed) {
+		final Path dir = keys.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (dir == null)
+				continue;
+
+			if (event.kind() == OVERFLOW) {
+				for (Path diagram : diagrams)
+					if (dir.equals(diagram.getParent()))
+						changed.add(diagram);
+
+				continue;
+			}
+			final Path child = dir.resolve((Path) event.context());
+			if (event.kind() == ENTRY_DELETE) {
+				diagrams.remove(child);
+			} else if (sourceDirs.contains(dir)) {
+				if (event.kind() == ENTRY_CREATE && Files.isDirectory(child))
+					registerNewSourceDir(child, changed);
+				else if (isNewDiagram(child))
+					diagrams.add(child);
+			}
+			changed.add(child);
+		}
+		if (key.reset() == false)
+			keys.remove(key);
+
+	}
+
+	private boolean isNewDiagram(Path child) {
+		if (diagrams.contains(child) || Files.isRegularFile(child) == false)
+			return false;
+
+		final String path = child.toString().replace('\\', '/');
+		for (String x : option.getExcludes())
+			if (path.matches(FileGroup.toRegexp(x)))
+				return false;
+
+		return child.getFileName().toString().matches(Option.getPattern());
+	}
+
+	private synchronized Set<Path> getAffected(Collection<Path> changed) {
+		final Set<Path> result = new LinkedHashSet<>();
+		for (Path p : changed) {
+			if (diagrams.contains(p))
+				result.add(p);
+
+			final Set<Path> users = dependents.get(p);
+			if (users != null)
+				for (Path diagram : users)
+					if (diagrams.contains(diagram))
+						result.add(diagram);
+
+		}
+		return result;
+	}
+
+	private synchronized void updateDependencies(Path diagram, Set<Path> included) {
+		final Set<Path> previous = dependencies.put(diagram, included);
+		if (previous != null)
+			for (Path p : previous) {
+				final Set<Path> users = dependents.get(p);
+				if (users != null && users.remove(diagram) && users.isEmpty())
+					dependents.remove(p);
+			}
+
+		for (Path p : included) {
+			Set<Path> users = dependents.get(p);
+			if (users == null) {
+				users = new HashSet<>();
+				dependents.put(p, users);
+			}
+			users.add(diagram);
+			register(p.getParent());
+		}
+	}
+
+	private void submit(final Path diagram) {
+		// Already being rendered: render it again once the current run is over
+		final RenderState state = states.merge(diagram, RenderState.RUNNING, (old, x) -> RenderState.RUNNING_DIRTY);
+		if (state != RenderState.RUNNING)
+			return;
+
+		executorService.submit(new Runnable() {
+			public void run() {
+				boolean again = true;
+				try {
+					while (again) {
+						render(diagram);
+						again = states.compute(diagram,
+								(p, s) -> s == RenderState.RUNNING_DIRTY ? RenderState.RUNNING : null) != null;
+					}
+				} finally {
+					if (again)
+						states.remove(diagram);
+				}
+			}
+		});
+	}
+
+	void render(Path diagram) {
+		if (diagrams.contains(diagram) == false)
+			return;
+
+		final long start = System.currentTimeMillis();
+		final File f = diagram.toFile();
+		try {
+			final SourceFileReader sourceFileReader = new SourceFileReader(option.getDefaultDefines(f), f,
+					option.getOutputDir(), option.getConfig(), option.getCharset(), option.getFileFormatOption());
+			sourceFileReader.setCheckMetadata(option.isCheckMetadata());
+			final List<GeneratedImage> images = sourceFileReader.getGeneratedImages();
+
+			final Set<Path> included = new HashSet<>();
+			for (File inc : FileWithSuffix.convert(sourceFileReader.getIncludedFiles()))
+				included.add(normalize(inc.toPath()));
+			updateDependencies(diagram, included);
+
+			for (GeneratedImage image : images) {
+				final int lineError = image.lineErrorRaw();
+				if (lineError != -1)
+					option.getStdrpt().errorLine(lineError, f);
+			}
+			Log.info(() -> "Rendered " + diagram + " (" + images.size() + " images) in "
+					+ (System.currentTimeMillis() - start) + " ms");
+		} catch (Exception e) {
+			Logme.error(e);
+		}
+	}
+
+	private void registerNewSourceDir(Path dir, Set<Path> changed) {
+		registerSourceDir(dir);
+		// Files may have been copied in before the directory was registered
+		final File[] files = dir.toFile().listFiles();
+		if (files != null)
+			for (File f : files) {
+				final Path child = normalize(f.toPath());
+				if (isNewDiagram(child)) {
+					diagrams.add(child);
+					changed.add(child);
+				}
+			}
+	}
+
+	private void registerSourceDir(Path dir) {
+		if (dir == null || sourceDirs.add(dir) == false)
+			return;
+
+		register(dir);
+	}
+
+	private synchronized void register(Path dir) {
+		if (dir == null || watched.add(dir) == false)
+			return;
+
+		try {
+			final WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+			keys.put(key, dir);
+		} catch (IOException e) {
+			Log.error("Cannot watch " + dir + " : " + e.getMessage());
+		}
+	}
+
+	private static Path normalize(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+}
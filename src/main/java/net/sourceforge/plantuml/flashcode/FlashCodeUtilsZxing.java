@@ -38,8 +38,8 @@ package net.sourceforge.plantuml.flashcode;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.util.Hashtable;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import zext.plantuml.com.google.zxing.BarcodeFormat;
 import zext.plantuml.com.google.zxing.EncodeHintType;
@@ -52,25 +52,47 @@ import net.sourceforge.plantuml.utils.Log;
 public class FlashCodeUtilsZxing implements FlashCodeUtils {
 	// ::remove file when __MIT__ or __EPL__ or __BSD__ or __ASL__ or __LGPL__
 
-	private static final Lock lock = new ReentrantLock();
+	private static final int CACHE_SIZE = 64;
+
+	// The same few URLs are encoded again and again. Only the matrices are kept:
+	// images are cheap to build from them, and callers are free to modify those.
+	private static final Map<String, BitMatrix> MATRIX_CACHE = new LinkedHashMap<String, BitMatrix>(CACHE_SIZE,
+			0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, BitMatrix> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
 
 	public BufferedImage exportFlashcode(String s, Color fore, Color back) {
-		if (lock.tryLock())
-			try {
-				final QRCodeWriter writer = new QRCodeWriter();
-				final Hashtable hints = new Hashtable();
-				hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.L);
-				hints.put(EncodeHintType.CHARACTER_SET, "UTF8");
-				final int multiple = 1;
-				final BitMatrix bit = writer.encode(s, BarcodeFormat.QR_CODE, multiple, hints);
-				return MatrixToImageWriter.toBufferedImage(bit, fore.getRGB() | 0xFF000000, back.getRGB() | 0xFF000000);
-			} catch (Exception e) {
-				Log.debug(() -> "Cannot create qrcode " + e);
-			} finally {
-				lock.unlock();
-			}
+		try {
+			final BitMatrix bit = getMatrix(s);
+			return MatrixToImageWriter.toBufferedImage(bit, fore.getRGB() | 0xFF000000, back.getRGB() | 0xFF000000);
+		} catch (Exception e) {
+			Log.debug(() -> "Cannot create qrcode " + e);
+		}
 
 		return null;
 	}
 
+	private static BitMatrix getMatrix(String s) throws Exception {
+		synchronized (MATRIX_CACHE) {
+			final BitMatrix cached = MATRIX_CACHE.get(s);
+			if (cached != null)
+				return cached;
+		}
+		// The encoder only works on local state, so concurrent calls do not need to
+		// wait for each other. Two threads may encode the same text once each.
+		final QRCodeWriter writer = new QRCodeWriter();
+		final Hashtable hints = new Hashtable();
+		hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.L);
+		hints.put(EncodeHintType.CHARACTER_SET, "UTF8");
+		final int multiple = 1;
+		final BitMatrix result = writer.encode(s, BarcodeFormat.QR_CODE, multiple, hints);
+		synchronized (MATRIX_CACHE) {
+			MATRIX_CACHE.put(s, result);
+		}
+		return result;
+	}
+
 }
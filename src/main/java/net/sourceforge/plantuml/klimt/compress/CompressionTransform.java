@@ -40,10 +40,21 @@ import java.util.List;
 public class CompressionTransform implements PiecewiseAffineTransform {
     // ::remove file when __HAXE__
 
-	private final List<Slot> all;
+	// Slots sorted by start, and total size of the slots before each one
+	private final double[] starts;
+	private final double[] ends;
+	private final double[] sizesBefore;
 
 	public CompressionTransform(SlotSet slotSet) {
-		this.all = slotSet.getSlots();
+		final List<Slot> all = slotSet.getSlots();
+		this.starts = new double[all.size()];
+		this.ends = new double[all.size()];
+		this.sizesBefore = new double[all.size() + 1];
+		for (int i = 0; i < all.size(); i++) {
+			starts[i] = all.get(i).getStart();
+			ends[i] = all.get(i).getEnd();
+			sizesBefore[i + 1] = sizesBefore[i] + all.get(i).size();
+		}
 	}
 
 	public double transform(double v) {
@@ -51,18 +62,23 @@ public class CompressionTransform implements PiecewiseAffineTransform {
 	}
 
 	private double getCompressDelta(double v) {
-		double result = 0;
-		for (Slot s : all) {
-			if (s.getStart() > v) {
-				continue;
-			}
-			if (v > s.getEnd()) {
-				result += s.size();
-			} else {
-				result += v - s.getStart();
-			}
+		// Last slot starting at or before v
+		int low = 0;
+		int high = starts.length - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			if (starts[mid] > v)
+				high = mid - 1;
+			else
+				low = mid + 1;
 		}
-		return result;
+		if (high < 0)
+			return 0;
+
+		if (v > ends[high])
+			return sizesBefore[high + 1];
+
+		return sizesBefore[high] + (v - starts[high]);
 	}
 
 }
@@ -36,6 +36,7 @@
 package net.sourceforge.plantuml.klimt.compress;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -47,57 +48,100 @@ import net.sourceforge.plantuml.klimt.shape.URectangle;
 public class SlotSet implements Iterable<Slot> {
     // ::remove file when __HAXE__
 
-	private final List<Slot> all = new ArrayList<>();
+	// Slots are only appended here, in any order and possibly overlapping: they
+	// are sorted and merged once, when the set is read. A drawing gives one slot
+	// per shape, so merging at each insertion was quadratic.
+	private double[] starts = new double[16];
+	private double[] ends = new double[16];
+	private int size;
+	private boolean normalized = true;
 
 	public SlotSet filter(double start, double end) {
 		final SlotSet result = new SlotSet();
-		for (Slot slot : all) {
-			final Slot intersec = slot.intersect(start, end);
-			if (intersec != null) 
-				result.all.add(intersec);
-			
-		}
+		normalize();
+		for (int i = 0; i < size; i++)
+			if (start < ends[i] && end > starts[i])
+				result.append(Math.max(starts[i], start), Math.min(ends[i], end));
+
 		return result;
 	}
 
 	public void addAll(SlotSet other) {
-		this.all.addAll(other.all);
+		for (int i = 0; i < other.size; i++)
+			append(other.starts[i], other.ends[i]);
+		normalized = false;
 	}
 
 	public void addSlot(double start, double end) {
-		final List<Slot> collisions = new ArrayList<>();
-		Slot newSlot = new Slot(start, end);
-		for (final Iterator<Slot> it = all.iterator(); it.hasNext();) {
-			final Slot s = it.next();
-			if (s.intersect(newSlot)) {
-				it.remove();
-				collisions.add(s);
-			}
+		if (start >= end)
+			throw new IllegalArgumentException("start=" + start + " end=" + end);
+
+		append(start, end);
+		normalized = false;
+	}
+
+	private void append(double start, double end) {
+		if (size == starts.length) {
+			starts = Arrays.copyOf(starts, size * 2);
+			ends = Arrays.copyOf(ends, size * 2);
 		}
-		for (Slot s : collisions) 
-			newSlot = newSlot.merge(s);
-		
-		all.add(newSlot);
+		starts[size] = start;
+		ends[size] = end;
+		size++;
+	}
+
+	// The union of the slots only depends on the sorted starts and the sorted
+	// ends, not on which start goes with which end: a slot closes where the next
+	// start comes after the ends seen so far. Slots that touch are merged.
+	private void normalize() {
+		if (normalized)
+			return;
+
+		Arrays.sort(starts, 0, size);
+		Arrays.sort(ends, 0, size);
+		int merged = 0;
+		double currentStart = starts[0];
+		for (int i = 0; i < size; i++)
+			if (i == size - 1 || starts[i + 1] > ends[i]) {
+				final double currentEnd = ends[i];
+				starts[merged] = currentStart;
+				ends[merged] = currentEnd;
+				merged++;
+				if (i < size - 1)
+					currentStart = starts[i + 1];
+			}
+
+		size = merged;
+		normalized = true;
 	}
 
 	public SlotSet smaller(double margin) {
 		final SlotSet result = new SlotSet();
-		for (Slot sl : all) {
-			if (sl.size() <= 2 * margin) 
+		normalize();
+		for (int i = 0; i < size; i++) {
+			if (ends[i] - starts[i] <= 2 * margin)
 				continue;
-			
-			result.addSlot(sl.getStart() + margin, sl.getEnd() - margin);
+
+			result.append(starts[i] + margin, ends[i] - margin);
 		}
 		return result;
 	}
 
 	@Override
 	public String toString() {
-		return all.toString();
+		return getSlots().toString();
 	}
 
+	/**
+	 * The slots, sorted and without overlap.
+	 */
 	public List<Slot> getSlots() {
-		return Collections.unmodifiableList(all);
+		normalize();
+		final List<Slot> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+			result.add(new Slot(starts[i], ends[i]));
+
+		return Collections.unmodifiableList(result);
 	}
 
 	public Iterator<Slot> iterator() {
@@ -106,19 +150,15 @@ public class SlotSet implements Iterable<Slot> {
 
 	public SlotSet reverse() {
 		final SlotSet result = new SlotSet();
-		Collections.sort(all);
-		Slot last = null;
-		for (Slot slot : all) {
-			if (last != null) 
-				result.addSlot(last.getEnd(), slot.getStart());
-			
-			last = slot;
-		}
+		normalize();
+		for (int i = 1; i < size; i++)
+			result.append(ends[i - 1], starts[i]);
+
 		return result;
 	}
 
 	public void drawDebugX(UGraphic ug, double size) {
-		for (Slot slot : all) {
+		for (Slot slot : this) {
 			final URectangle rect = URectangle.build(slot.getEnd() - slot.getStart(), size);
 			ug.apply(UTranslate.dx(slot.getStart())).draw(rect);
 		}
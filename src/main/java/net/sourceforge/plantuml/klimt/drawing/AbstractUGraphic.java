@@ -56,6 +56,7 @@ import net.sourceforge.plantuml.klimt.shape.TextBlock;
 import net.sourceforge.plantuml.klimt.shape.UCenteredCharacter;
 import net.sourceforge.plantuml.klimt.shape.UComment;
 import net.sourceforge.plantuml.klimt.shape.UEllipse;
+import net.sourceforge.plantuml.klimt.shape.UEmbedded;
 import net.sourceforge.plantuml.klimt.shape.UEmpty;
 import net.sourceforge.plantuml.klimt.shape.UImage;
 import net.sourceforge.plantuml.klimt.shape.UImageSvg;
@@ -121,6 +122,10 @@ public abstract class AbstractUGraphic<O> extends AbstractCommonUGraphic {
 			((SpecialText) shape).getTitle().drawU(this);
 			return;
 		}
+		if (shape instanceof UEmbedded) {
+			((UEmbedded) shape).getBlock().drawU(this);
+			return;
+		}
 		if (shape instanceof UEmpty)
 			return;
 
@@ -59,6 +59,7 @@ import net.sourceforge.plantuml.klimt.shape.TextBlock;
 import net.sourceforge.plantuml.klimt.shape.UCenteredCharacter;
 import net.sourceforge.plantuml.klimt.shape.UComment;
 import net.sourceforge.plantuml.klimt.shape.UEllipse;
+import net.sourceforge.plantuml.klimt.shape.UEmbedded;
 import net.sourceforge.plantuml.klimt.shape.UEmpty;
 import net.sourceforge.plantuml.klimt.shape.UHidden;
 import net.sourceforge.plantuml.klimt.shape.UImage;
@@ -120,6 +121,8 @@ public final class LimitFinder extends UGraphicNo {
 			drawImage(x, y, (UImage) shape);
 		} else if (shape instanceof UImageSvg) {
 			drawImageSvg(x, y, (UImageSvg) shape);
+		} else if (shape instanceof UEmbedded) {
+			drawEmbedded(x, y, (UEmbedded) shape);
 		} else if (shape instanceof UComment) {
 		} else if (shape instanceof UEmpty) {
 			drawEmpty(x, y, (UEmpty) shape);
@@ -194,6 +197,11 @@ public final class LimitFinder extends UGraphicNo {
 		addPoint(x + shape.getWidth() - 1, y + shape.getHeight() - 1);
 	}
 
+	private void drawEmbedded(double x, double y, UEmbedded shape) {
+		addPoint(x, y);
+		addPoint(x + shape.getWidth() - 1, y + shape.getHeight() - 1);
+	}
+
 	private void drawEllipse(double x, double y, UEllipse shape) {
 		addPoint(x, y);
 		addPoint(x + shape.getWidth() - 1 + shape.getDeltaShadow() * 2,
@@ -62,6 +62,7 @@ import net.sourceforge.plantuml.klimt.shape.DotPath;
 import net.sourceforge.plantuml.klimt.shape.UCenteredCharacter;
 import net.sourceforge.plantuml.klimt.shape.UComment;
 import net.sourceforge.plantuml.klimt.shape.UEllipse;
+import net.sourceforge.plantuml.klimt.shape.UEmbedded;
 import net.sourceforge.plantuml.klimt.shape.UEmpty;
 import net.sourceforge.plantuml.klimt.shape.ULine;
 import net.sourceforge.plantuml.klimt.shape.UPolygon;
@@ -132,6 +133,8 @@ public class UGraphicDebug extends AbstractCommonUGraphic implements ClipContain
 			outPath(((DotPath) shape).toUPath());
 		} else if (shape instanceof UCenteredCharacter) {
 			outCenteredCharacter(((UCenteredCharacter) shape));
+		} else if (shape instanceof UEmbedded) {
+			((UEmbedded) shape).getBlock().drawU(this);
 		} else {
 			System.err.println("UGraphicDebug " + shape.getClass().getSimpleName());
 			output.add("UGraphicDebug " + shape.getClass().getSimpleName() + " " + new Date());
@@ -0,0 +1,64 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.klimt.drawing.pdf;
+
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+
+import net.sourceforge.plantuml.klimt.UParam;
+import net.sourceforge.plantuml.klimt.color.ColorMapper;
+import net.sourceforge.plantuml.klimt.drawing.UDriver;
+import net.sourceforge.plantuml.klimt.font.UFont;
+import net.sourceforge.plantuml.klimt.font.UFontContext;
+import net.sourceforge.plantuml.klimt.font.UnusedSpace;
+import net.sourceforge.plantuml.klimt.shape.UCenteredCharacter;
+
+public class DriverCenteredCharacterPdf implements UDriver<UCenteredCharacter, PdfGraphics> {
+
+	public void draw(UCenteredCharacter centeredCharacter, double x, double y, ColorMapper mapper, UParam param,
+			PdfGraphics pdf) {
+		final char c = centeredCharacter.getChar();
+		final UFont font = centeredCharacter.getFont();
+		final UnusedSpace unusedSpace = UnusedSpace.getUnusedSpace(font, c);
+
+		final double xpos = x - unusedSpace.getCenterX() - 0.5;
+		final double ypos = y - unusedSpace.getCenterY() - 0.5;
+
+		final TextLayout t = UFontContext.PDF.createTextLayout(font, "" + c);
+		pdf.fill(t.getOutline(AffineTransform.getTranslateInstance(xpos, ypos)), param.getColor().toColor(mapper));
+	}
+
+}
@@ -0,0 +1,59 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.klimt.drawing.pdf;
+
+import java.awt.Shape;
+import java.awt.geom.Line2D;
+
+import net.sourceforge.plantuml.klimt.UParam;
+import net.sourceforge.plantuml.klimt.color.ColorMapper;
+import net.sourceforge.plantuml.klimt.color.HColor;
+import net.sourceforge.plantuml.klimt.drawing.UDriver;
+import net.sourceforge.plantuml.klimt.shape.ULine;
+
+public class DriverLinePdf implements UDriver<ULine, PdfGraphics> {
+
+	public void draw(ULine shape, double x, double y, ColorMapper mapper, UParam param, PdfGraphics pdf) {
+		final Shape line = new Line2D.Double(x, y, x + shape.getDX(), y + shape.getDY());
+		if (shape.getDeltaShadow() != 0)
+			DriverRectanglePdf.drawShadow(pdf, line, shape.getDeltaShadow(), true);
+
+		final HColor color = param.getColor();
+		if (color.isTransparent() == false)
+			pdf.draw(line, color.toColor(mapper), param.getStroke());
+	}
+
+}
@@ -0,0 +1,71 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.klimt.drawing.pdf;
+
+import net.sourceforge.plantuml.klimt.UParam;
+import net.sourceforge.plantuml.klimt.UPath;
+import net.sourceforge.plantuml.klimt.color.ColorMapper;
+import net.sourceforge.plantuml.klimt.drawing.UDriver;
+import net.sourceforge.plantuml.klimt.drawing.g2d.ExtendedGeneralPath;
+import net.sourceforge.plantuml.klimt.geom.USegment;
+import net.sourceforge.plantuml.klimt.geom.USegmentType;
+
+public class DriverPathPdf implements UDriver<UPath, PdfGraphics> {
+
+	public void draw(UPath shape, double x, double y, ColorMapper mapper, UParam param, PdfGraphics pdf) {
+		DriverRectanglePdf.drawShape(pdf, toShape(shape, x, y), shape.getDeltaShadow(), mapper, param);
+	}
+
+	static ExtendedGeneralPath toShape(UPath shape, double x, double y) {
+		final ExtendedGeneralPath p = new ExtendedGeneralPath();
+		for (USegment seg : shape) {
+			final USegmentType type = seg.getSegmentType();
+			final double coord[] = seg.getCoord();
+			if (type == USegmentType.SEG_MOVETO)
+				p.moveTo(x + coord[0], y + coord[1]);
+			else if (type == USegmentType.SEG_LINETO)
+				p.lineTo(x + coord[0], y + coord[1]);
+			else if (type == USegmentType.SEG_CUBICTO)
+				p.curveTo(x + coord[0], y + coord[1], x + coord[2], y + coord[3], x + coord[4], y + coord[5]);
+			else if (type == USegmentType.SEG_ARCTO)
+				p.arcTo(coord[0], coord[1], coord[2], coord[3] != 0, coord[4] != 0, x + coord[5], y + coord[6]);
+			else
+				throw new UnsupportedOperationException();
+		}
+		return p;
+	}
+
+}
@@ -0,0 +1,67 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.klimt.drawing.pdf;
+
+import java.awt.geom.Path2D;
+
+import net.sourceforge.plantuml.klimt.UParam;
+import net.sourceforge.plantuml.klimt.color.ColorMapper;
+import net.sourceforge.plantuml.klimt.drawing.UDriver;
+import net.sourceforge.plantuml.klimt.geom.XPoint2D;
+import net.sourceforge.plantuml.klimt.shape.UPolygon;
+
+public class DriverPolygonPdf implements UDriver<UPolygon, PdfGraphics> {
+
+	public void draw(UPolygon shape, double x, double y, ColorMapper mapper, UParam param, PdfGraphics pdf) {
+		if (shape.getPoints().size() == 0)
+			return;
+
+		final Path2D.Double path = new Path2D.Double();
+		boolean first = true;
+		for (XPoint2D pt : shape.getPoints()) {
+			if (first)
+				path.moveTo(pt.getX() + x, pt.getY() + y);
+			else
+				path.lineTo(pt.getX() + x, pt.getY() + y);
+
+			first = false;
+		}
+		path.closePath();
+
+		DriverRectanglePdf.drawShape(pdf, path, shape.getDeltaShadow(), mapper, param);
+	}
+
+}
@@ -0,0 +1,98 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.klimt.drawing.pdf;
+
+import java.awt.Color;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+
+import net.sourceforge.plantuml.klimt.UParam;
+import net.sourceforge.plantuml.klimt.UStroke;
+import net.sourceforge.plantuml.klimt.color.ColorMapper;
+import net.sourceforge.plantuml.klimt.color.HColor;
+import net.sourceforge.plantuml.klimt.color.HColorGradient;
+import net.sourceforge.plantuml.klimt.drawing.UDriver;
+import net.sourceforge.plantuml.klimt.drawing.g2d.DriverRectangleG2d;
+import net.sourceforge.plantuml.klimt.shape.URectangle;
+
+public class DriverRectanglePdf implements UDriver<URectangle, PdfGraphics> {
+
+	private static final Color SHADOW = new Color(170, 170, 170, 160);
+
+	public void draw(URectangle rect, double x, double y, ColorMapper mapper, UParam param, PdfGraphics pdf) {
+		final double rx = rect.getRx();
+		final double ry = rect.getRy();
+		final Shape shape;
+		if (rx == 0 && ry == 0)
+			shape = new Rectangle2D.Double(x, y, rect.getWidth(), rect.getHeight());
+		else
+			shape = new RoundRectangle2D.Double(x, y, rect.getWidth(), rect.getHeight(), rx, ry);
+
+		drawShape(pdf, shape, rect.getDeltaShadow(), mapper, param);
+	}
+
+	static void drawShape(PdfGraphics pdf, Shape shape, double deltaShadow, ColorMapper mapper, UParam param) {
+		final HColor back = param.getBackcolor();
+		final HColor color = param.getColor();
+		final boolean noBack = back == null || back.isTransparent();
+
+		if (deltaShadow != 0)
+			drawShadow(pdf, shape, deltaShadow, noBack);
+
+		if (back instanceof HColorGradient) {
+			final Rectangle2D bounds = shape.getBounds2D();
+			pdf.fillGradient(shape, DriverRectangleG2d.getPaintGradient(bounds.getX(), bounds.getY(), mapper,
+					bounds.getWidth(), bounds.getHeight(), back));
+		} else if (noBack == false) {
+			pdf.fill(shape, back.toColor(mapper));
+		}
+
+		if (color != null && color.isTransparent() == false && color.equals(back) == false)
+			pdf.draw(shape, color.toColor(mapper), param.getStroke());
+	}
+
+	static void drawShadow(PdfGraphics pdf, Shape shape, double deltaShadow, boolean onlyLine) {
+		final Shape shadow = AffineTransform.getTranslateInstance(deltaShadow, deltaShadow)
+				.createTransformedShape(shape);
+		if (onlyLine)
+			pdf.draw(shadow, SHADOW, UStroke.withThickness(1.5));
+		else
+			pdf.fill(shadow, SHADOW);
+	}
+
+}
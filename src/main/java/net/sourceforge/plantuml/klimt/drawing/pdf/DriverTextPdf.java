@@ -0,0 +1,121 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.klimt.drawing.pdf;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.klimt.UParam;
+import net.sourceforge.plantuml.klimt.UStroke;
+import net.sourceforge.plantuml.klimt.color.ColorMapper;
+import net.sourceforge.plantuml.klimt.color.HColor;
+import net.sourceforge.plantuml.klimt.drawing.UDriver;
+import net.sourceforge.plantuml.klimt.font.FontConfiguration;
+import net.sourceforge.plantuml.klimt.font.FontStyle;
+import net.sourceforge.plantuml.klimt.font.UFont;
+import net.sourceforge.plantuml.klimt.font.UFontContext;
+import net.sourceforge.plantuml.klimt.shape.UText;
+
+public class DriverTextPdf implements UDriver<UText, PdfGraphics> {
+
+	public void draw(UText shape, double x, double y, ColorMapper mapper, UParam param, PdfGraphics pdf) {
+		final FontConfiguration fontConfiguration = shape.getFontConfiguration();
+		if (fontConfiguration.getColor().isTransparent())
+			return;
+
+		final UFont font = fontConfiguration.getFont();
+		final String text = shape.getText();
+		final TextLayout textLayout = UFontContext.PDF.createTextLayout(shape);
+		final Shape outline = textLayout.getOutline(AffineTransform.getTranslateInstance(x, y));
+		final Rectangle2D bounds = outline.getBounds2D();
+		final double width = textLayout.getAdvance();
+		final HColor extended = fontConfiguration.getExtendedColor();
+		final Color color = fontConfiguration.getColor().toColor(mapper);
+		final Color decoration = extended == null ? color : extended.toColor(mapper);
+
+		if (fontConfiguration.containsStyle(FontStyle.BACKCOLOR) && extended != null)
+			pdf.fill(new Rectangle2D.Double(bounds.getX() - 1, bounds.getY() - 1, bounds.getWidth() + 2,
+					bounds.getHeight() + 2), decoration);
+
+		// Glyphs are drawn as outlines so that the document looks the same
+		// everywhere, whatever fonts the reader has
+		pdf.fill(outline, color);
+		drawHiddenText(pdf, font, text, x, y, width);
+
+		if (fontConfiguration.containsStyle(FontStyle.UNDERLINE))
+			pdf.draw(new Line2D.Double(x, y + 1.5, x + width, y + 1.5), decoration, UStroke.withThickness(1.1));
+
+		if (fontConfiguration.containsStyle(FontStyle.WAVE)) {
+			final int ypos = (int) (y + 2.5) - 1;
+			for (int i = (int) x; i < x + width - 5; i += 6) {
+				pdf.draw(new Line2D.Double(i, ypos, i + 3, ypos + 1), decoration, UStroke.withThickness(1.1));
+				pdf.draw(new Line2D.Double(i + 3, ypos + 1, i + 6, ypos), decoration, UStroke.withThickness(1.1));
+			}
+		}
+		if (fontConfiguration.containsStyle(FontStyle.STRIKE)) {
+			final double ypos = (bounds.getMinY() + bounds.getMaxY() * 2) / 3;
+			pdf.draw(new Line2D.Double(x, ypos, x + width, ypos), decoration, UStroke.withThickness(1.3));
+		}
+	}
+
+	private void drawHiddenText(PdfGraphics pdf, UFont font, String text, double x, double y, double width) {
+		if (text.trim().isEmpty())
+			return;
+
+		final String baseFont = font.getFamily(text, UFontContext.PDF);
+		// The widths of the standard fonts are close to the Java logical ones
+		final String logical;
+		if (baseFont.startsWith("Courier"))
+			logical = Font.MONOSPACED;
+		else if (baseFont.startsWith("Times"))
+			logical = Font.SERIF;
+		else
+			logical = Font.SANS_SERIF;
+
+		final Font reference = new Font(logical, font.getStyle(), font.getSize());
+		final double referenceWidth = reference.getStringBounds(text, FileFormat.gg.getFontRenderContext())
+				.getWidth();
+		if (referenceWidth > 0)
+			pdf.drawHiddenText(text, baseFont, font.getSize2D(), x, y, width / referenceWidth);
+	}
+
+}
@@ -0,0 +1,113 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.klimt.drawing.pdf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Low level writer of the PDF file structure: numbered objects, the
+ * cross-reference table and the trailer.
+ */
+class PdfDocument {
+
+	private final OutputStream os;
+	private final List<Long> offsets = new ArrayList<>();
+	private long position;
+
+	PdfDocument(OutputStream os) throws IOException {
+		this.os = os;
+		write("%PDF-1.4\n");
+		// A comment with high bytes tells transfer tools that the file is binary
+		write(new byte[] { '%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n' });
+	}
+
+	int newObjectId() {
+		offsets.add(-1L);
+		return offsets.size();
+	}
+
+	void writeObject(int id, String dictionary) throws IOException {
+		startObject(id);
+		write(dictionary);
+		write("\nendobj\n");
+	}
+
+	void writeStream(int id, String dictionary, byte[] data) throws IOException {
+		startObject(id);
+		write("<< " + dictionary + " /Length " + data.length + " >>\nstream\n");
+		write(data);
+		write("\nendstream\nendobj\n");
+	}
+
+	void close(int root, int info) throws IOException {
+		final long xref = position;
+		final StringBuilder sb = new StringBuilder();
+		sb.append("xref\n0 ").append(offsets.size() + 1).append('\n');
+		sb.append("0000000000 65535 f \n");
+		for (long offset : offsets) {
+			if (offset < 0)
+				throw new IllegalStateException("Object reserved but never written");
+			final String s = Long.toString(offset);
+			for (int i = s.length(); i < 10; i++)
+				sb.append('0');
+			sb.append(s).append(" 00000 n \n");
+		}
+		sb.append("trailer\n<< /Size ").append(offsets.size() + 1);
+		sb.append(" /Root ").append(root).append(" 0 R /Info ").append(info).append(" 0 R >>\n");
+		sb.append("startxref\n").append(xref).append("\n%%EOF\n");
+		write(sb.toString());
+		os.flush();
+	}
+
+	private void startObject(int id) throws IOException {
+		offsets.set(id - 1, position);
+		write(id + " 0 obj\n");
+	}
+
+	private void write(String s) throws IOException {
+		write(s.getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	private void write(byte[] data) throws IOException {
+		os.write(data);
+		position += data.length;
+	}
+
+}
@@ -0,0 +1,484 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.klimt.drawing.pdf;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import net.sourceforge.plantuml.klimt.UStroke;
+import net.sourceforge.plantuml.klimt.geom.MinMaxMutable;
+import net.sourceforge.plantuml.version.Version;
+
+/**
+ * Builds the content stream of a single page PDF document.
+ * <p>
+ * Coordinates are given in diagram units with the origin at the top left
+ * corner, as for the other drivers: the page transformation flips the y axis
+ * and applies the scale factor once for all.
+ */
+public class PdfGraphics {
+	// ::remove folder when __CORE__
+
+	private final double width;
+	private final double height;
+	private final double scale;
+
+	private final StringBuilder content = new StringBuilder();
+	private final Map<String, String> extGStates = new LinkedHashMap<>();
+	private final Map<String, String> fonts = new LinkedHashMap<>();
+	private final List<String> shadings = new ArrayList<>();
+	private final List<PdfImage> images = new ArrayList<>();
+	private final List<PdfLink> links = new ArrayList<>();
+	private final Deque<PdfLink> openLinks = new ArrayDeque<>();
+
+	public PdfGraphics(double width, double height, double scale) {
+		this.width = width;
+		this.height = height;
+		this.scale = scale;
+		append(scale).append(" 0 0 ");
+		append(-scale).append(" 0 ");
+		append(height * scale).append(" cm\n");
+	}
+
+	public void fill(Shape shape, Color color) {
+		if (color.getAlpha() == 0)
+			return;
+
+		track(shape);
+		final boolean alpha = color.getAlpha() < 255;
+		if (alpha)
+			content.append("q /").append(getExtGState(color.getAlpha(), 255)).append(" gs\n");
+
+		appendColor(color).append(" rg\n");
+		appendPath(shape);
+		content.append(isEvenOdd(shape) ? "f*\n" : "f\n");
+		if (alpha)
+			content.append("Q\n");
+	}
+
+	public void draw(Shape shape, Color color, UStroke stroke) {
+		if (color.getAlpha() == 0)
+			return;
+
+		track(shape);
+		final boolean alpha = color.getAlpha() < 255;
+		if (alpha)
+			content.append("q /").append(getExtGState(255, color.getAlpha())).append(" gs\n");
+
+		appendColor(color).append(" RG ");
+		append(stroke.getThickness()).append(" w ");
+		if (stroke.getDashVisible() == 0) {
+			content.append("[] 0 d\n");
+		} else {
+			content.append('[');
+			append(stroke.getDashVisible()).append(' ');
+			append(stroke.getDashSpace()).append("] 0 d\n");
+		}
+		appendPath(shape);
+		content.append("S\n");
+		if (alpha)
+			content.append("Q\n");
+	}
+
+	public void fillGradient(Shape shape, GradientPaint paint) {
+		track(shape);
+		final StringBuilder sb = new StringBuilder();
+		sb.append("<< /ShadingType 2 /ColorSpace /DeviceRGB /Coords [");
+		sb.append(format(paint.getPoint1().getX())).append(' ').append(format(paint.getPoint1().getY())).append(' ');
+		sb.append(format(paint.getPoint2().getX())).append(' ').append(format(paint.getPoint2().getY()));
+		sb.append("] /Function << /FunctionType 2 /Domain [0 1] /C0 [").append(components(paint.getColor1()));
+		sb.append("] /C1 [").append(components(paint.getColor2())).append("] /N 1 >> /Extend [true true] >>");
+		shadings.add(sb.toString());
+
+		content.append("q\n");
+		appendPath(shape);
+		content.append(isEvenOdd(shape) ? "W* n\n" : "W n\n");
+		content.append("/Sh").append(shadings.size() - 1).append(" sh\nQ\n");
+	}
+
+	public void drawImage(BufferedImage image, double x, double y, double w, double h) {
+		track(new Rectangle2D.Double(x, y, w, h));
+		images.add(new PdfImage(image));
+		// The unit square of the image is painted upside down because of the page flip
+		content.append("q ");
+		append(w).append(" 0 0 ");
+		append(-h).append(' ');
+		append(x).append(' ');
+		append(y + h).append(" cm /Im").append(images.size() - 1).append(" Do Q\n");
+	}
+
+	/**
+	 * Writes an invisible text run above the glyph outlines so that the document
+	 * can be searched and copied from. The text is stretched horizontally to match
+	 * the width of the drawn outlines.
+	 */
+	public void drawHiddenText(String text, String baseFont, double fontSize, double x, double y,
+			double horizontalScale) {
+		String font = fonts.get(baseFont);
+		if (font == null) {
+			font = "F" + fonts.size();
+			fonts.put(baseFont, font);
+		}
+		content.append("BT /").append(font).append(' ');
+		append(fontSize).append(" Tf 3 Tr ");
+		append(horizontalScale * 100).append(" Tz 1 0 0 -1 ");
+		append(x).append(' ');
+		append(y).append(" Tm (");
+		appendText(text);
+		content.append(") Tj ET\n");
+	}
+
+	public void clip(double x, double y, double w, double h) {
+		content.append("q ");
+		append(x).append(' ');
+		append(y).append(' ');
+		append(w).append(' ');
+		append(h).append(" re W n\n");
+	}
+
+	public void unclip() {
+		content.append("Q\n");
+	}
+
+	public void openLink(String url) {
+		openLinks.push(new PdfLink(url));
+	}
+
+	public void closeLink() {
+		final PdfLink link = openLinks.pop();
+		if (link.area.isInfinity() == false)
+			links.add(link);
+	}
+
+	private void track(Shape shape) {
+		if (openLinks.isEmpty())
+			return;
+
+		final Rectangle2D bounds = shape.getBounds2D();
+		for (PdfLink link : openLinks) {
+			link.area.addPoint(bounds.getMinX(), bounds.getMinY());
+			link.area.addPoint(bounds.getMaxX(), bounds.getMaxY());
+		}
+	}
+
+	public void writeTo(OutputStream os, String metadata) throws IOException {
+		final PdfDocument doc = new PdfDocument(os);
+		final int catalog = doc.newObjectId();
+		final int pages = doc.newObjectId();
+		final int page = doc.newObjectId();
+		final int contents = doc.newObjectId();
+		final int info = doc.newObjectId();
+
+		final StringBuilder resources = new StringBuilder("<< /ProcSet [/PDF /Text /ImageC]");
+		if (extGStates.size() > 0) {
+			resources.append(" /ExtGState <<");
+			for (Map.Entry<String, String> ent : extGStates.entrySet())
+				resources.append(" /").append(ent.getValue()).append(' ').append(ent.getKey());
+			resources.append(" >>");
+		}
+		if (fonts.size() > 0) {
+			resources.append(" /Font <<");
+			for (Map.Entry<String, String> ent : fonts.entrySet())
+				resources.append(" /").append(ent.getValue()).append(" << /Type /Font /Subtype /Type1 /BaseFont /")
+						.append(ent.getKey()).append(" /Encoding /WinAnsiEncoding >>");
+			resources.append(" >>");
+		}
+		if (shadings.size() > 0) {
+			resources.append(" /Shading <<");
+			for (int i = 0; i < shadings.size(); i++)
+				resources.append(" /Sh").append(i).append(' ').append(shadings.get(i));
+			resources.append(" >>");
+		}
+		if (images.size() > 0) {
+			resources.append(" /XObject <<");
+			for (int i = 0; i < images.size(); i++) {
+				final PdfImage image = images.get(i);
+				image.id = doc.newObjectId();
+				if (image.alpha != null)
+					image.maskId = doc.newObjectId();
+				resources.append(" /Im").append(i).append(' ').append(image.id).append(" 0 R");
+			}
+			resources.append(" >>");
+		}
+		resources.append(" >>");
+
+		final StringBuilder annots = new StringBuilder();
+		for (PdfLink link : links) {
+			link.id = doc.newObjectId();
+			annots.append(annots.length() == 0 ? "[" : " ").append(link.id).append(" 0 R");
+		}
+		if (annots.length() > 0)
+			annots.append(']');
+
+		doc.writeObject(catalog, "<< /Type /Catalog /Pages " + pages + " 0 R >>");
+		doc.writeObject(pages, "<< /Type /Pages /Kids [" + page + " 0 R] /Count 1 >>");
+		doc.writeObject(page,
+				"<< /Type /Page /Parent " + pages + " 0 R /MediaBox [0 0 " + format(width * scale) + " "
+						+ format(height * scale) + "] /Resources " + resources + " /Contents " + contents + " 0 R"
+						+ (annots.length() > 0 ? " /Annots " + annots : "") + " >>");
+		doc.writeStream(contents, "/Filter /FlateDecode",
+				deflate(content.toString().getBytes(StandardCharsets.ISO_8859_1)));
+
+		final StringBuilder infoDictionary = new StringBuilder("<< /Producer ");
+		appendUnicodeString(infoDictionary, "PlantUML " + Version.versionString());
+		if (metadata != null) {
+			infoDictionary.append(" /Subject ");
+			appendUnicodeString(infoDictionary, metadata);
+		}
+		infoDictionary.append(" >>");
+		doc.writeObject(info, infoDictionary.toString());
+
+		for (PdfImage image : images) {
+			String dictionary = "/Type /XObject /Subtype /Image /Width " + image.width + " /Height " + image.height
+					+ " /ColorSpace /DeviceRGB /BitsPerComponent 8 /Filter /FlateDecode";
+			if (image.alpha != null) {
+				dictionary += " /SMask " + image.maskId + " 0 R";
+				doc.writeStream(image.maskId, "/Type /XObject /Subtype /Image /Width " + image.width + " /Height "
+						+ image.height + " /ColorSpace /DeviceGray /BitsPerComponent 8 /Filter /FlateDecode",
+						image.alpha);
+			}
+			doc.writeStream(image.id, dictionary, image.rgb);
+		}
+
+		for (PdfLink link : links) {
+			final StringBuilder sb = new StringBuilder("<< /Type /Annot /Subtype /Link /Border [0 0 0] /Rect [");
+			sb.append(format(link.area.getMinX() * scale)).append(' ');
+			sb.append(format((height - link.area.getMaxY()) * scale)).append(' ');
+			sb.append(format(link.area.getMaxX() * scale)).append(' ');
+			sb.append(format((height - link.area.getMinY()) * scale));
+			sb.append("] /A << /S /URI /URI (");
+			for (byte b : link.url.getBytes(StandardCharsets.UTF_8))
+				appendStringByte(sb, b & 0xFF);
+			sb.append(") >> >>");
+			doc.writeObject(link.id, sb.toString());
+		}
+
+		doc.close(catalog, info);
+	}
+
+	private String getExtGState(int fillAlpha, int strokeAlpha) {
+		final String key = "<< /Type /ExtGState /ca " + format(fillAlpha / 255.0) + " /CA "
+				+ format(strokeAlpha / 255.0) + " >>";
+		String result = extGStates.get(key);
+		if (result == null) {
+			result = "GS" + extGStates.size();
+			extGStates.put(key, result);
+		}
+		return result;
+	}
+
+	private static boolean isEvenOdd(Shape shape) {
+		return shape.getPathIterator(null).getWindingRule() == PathIterator.WIND_EVEN_ODD;
+	}
+
+	private void appendPath(Shape shape) {
+		final double coord[] = new double[6];
+		double lastX = 0;
+		double lastY = 0;
+		for (PathIterator path = shape.getPathIterator(null); path.isDone() == false; path.next()) {
+			final int code = path.currentSegment(coord);
+			if (code == PathIterator.SEG_MOVETO) {
+				appendPoint(coord[0], coord[1]).append("m\n");
+				lastX = coord[0];
+				lastY = coord[1];
+			} else if (code == PathIterator.SEG_LINETO) {
+				appendPoint(coord[0], coord[1]).append("l\n");
+				lastX = coord[0];
+				lastY = coord[1];
+			} else if (code == PathIterator.SEG_QUADTO) {
+				// PDF has no quadratic curve: raise it to a cubic one
+				appendPoint(lastX + 2 * (coord[0] - lastX) / 3, lastY + 2 * (coord[1] - lastY) / 3);
+				appendPoint(coord[2] + 2 * (coord[0] - coord[2]) / 3, coord[3] + 2 * (coord[1] - coord[3]) / 3);
+				appendPoint(coord[2], coord[3]).append("c\n");
+				lastX = coord[2];
+				lastY = coord[3];
+			} else if (code == PathIterator.SEG_CUBICTO) {
+				appendPoint(coord[0], coord[1]);
+				appendPoint(coord[2], coord[3]);
+				appendPoint(coord[4], coord[5]).append("c\n");
+				lastX = coord[4];
+				lastY = coord[5];
+			} else if (code == PathIterator.SEG_CLOSE) {
+				content.append("h\n");
+			}
+		}
+	}
+
+	private StringBuilder appendPoint(double x, double y) {
+		append(x).append(' ');
+		return append(y).append(' ');
+	}
+
+	private StringBuilder appendColor(Color color) {
+		return content.append(components(color));
+	}
+
+	private static String components(Color color) {
+		return format(color.getRed() / 255.0) + " " + format(color.getGreen() / 255.0) + " "
+				+ format(color.getBlue() / 255.0);
+	}
+
+	private StringBuilder append(double value) {
+		return appendNumber(content, value);
+	}
+
+	static String format(double value) {
+		return appendNumber(new StringBuilder(), value).toString();
+	}
+
+	/**
+	 * Appends a number with at most three decimals and no exponent, which is what
+	 * PDF readers expect.
+	 */
+	static StringBuilder appendNumber(StringBuilder sb, double value) {
+		long scaled = Math.round(value * 1000);
+		if (scaled < 0) {
+			sb.append('-');
+			scaled = -scaled;
+		}
+		sb.append(scaled / 1000);
+		int decimals = (int) (scaled % 1000);
+		if (decimals != 0) {
+			sb.append('.');
+			for (int div = 100; decimals != 0; div /= 10) {
+				sb.append((char) ('0' + decimals / div));
+				decimals %= div;
+			}
+		}
+		return sb;
+	}
+
+	private void appendText(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			// WinAnsiEncoding matches Latin-1 outside of the 0x80-0x9F range
+			if (c < 32 || c > 255 || (c >= 127 && c < 160))
+				appendStringByte(content, '?');
+			else
+				appendStringByte(content, c);
+		}
+	}
+
+	private static void appendStringByte(StringBuilder sb, int b) {
+		if (b == '(' || b == ')' || b == '\\')
+			sb.append('\\').append((char) b);
+		else if (b < 32 || b > 126)
+			sb.append('\\').append((char) ('0' + (b >> 6))).append((char) ('0' + ((b >> 3) & 7)))
+					.append((char) ('0' + (b & 7)));
+		else
+			sb.append((char) b);
+	}
+
+	private static void appendUnicodeString(StringBuilder sb, String s) {
+		sb.append("<FEFF");
+		for (int i = 0; i < s.length(); i++) {
+			final String hex = Integer.toHexString(0x10000 | s.charAt(i));
+			sb.append(hex.substring(1).toUpperCase());
+		}
+		sb.append('>');
+	}
+
+	private static byte[] deflate(byte[] data) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream(data.length / 4 + 64);
+		try (DeflaterOutputStream dos = new DeflaterOutputStream(baos, new Deflater(Deflater.BEST_COMPRESSION))) {
+			dos.write(data);
+		}
+		return baos.toByteArray();
+	}
+
+	static class PdfImage {
+
+		private final int width;
+		private final int height;
+		private final byte[] rgb;
+		private final byte[] alpha;
+		private int id;
+		private int maskId;
+
+		PdfImage(BufferedImage image) {
+			this.width = image.getWidth();
+			this.height = image.getHeight();
+			final int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+			final byte[] rgbBytes = new byte[pixels.length * 3];
+			final byte[] alphaBytes = new byte[pixels.length];
+			boolean opaque = true;
+			for (int i = 0; i < pixels.length; i++) {
+				final int argb = pixels[i];
+				rgbBytes[3 * i] = (byte) (argb >> 16);
+				rgbBytes[3 * i + 1] = (byte) (argb >> 8);
+				rgbBytes[3 * i + 2] = (byte) argb;
+				alphaBytes[i] = (byte) (argb >>> 24);
+				if ((argb >>> 24) != 0xFF)
+					opaque = false;
+			}
+			try {
+				this.rgb = deflate(rgbBytes);
+				this.alpha = opaque ? null : deflate(alphaBytes);
+			} catch (IOException e) {
+				// Cannot happen with an in-memory stream
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	static class PdfLink {
+
+		private final String url;
+		private final MinMaxMutable area = MinMaxMutable.getEmpty(false);
+		private int id;
+
+		PdfLink(String url) {
+			this.url = url;
+		}
+	}
+
+}
@@ -0,0 +1,125 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.klimt.drawing.pdf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import net.sourceforge.plantuml.klimt.ClipContainer;
+import net.sourceforge.plantuml.klimt.UClip;
+import net.sourceforge.plantuml.klimt.UPath;
+import net.sourceforge.plantuml.klimt.color.ColorMapper;
+import net.sourceforge.plantuml.klimt.color.HColor;
+import net.sourceforge.plantuml.klimt.drawing.AbstractCommonUGraphic;
+import net.sourceforge.plantuml.klimt.drawing.AbstractUGraphic;
+import net.sourceforge.plantuml.klimt.font.StringBounder;
+import net.sourceforge.plantuml.klimt.shape.DotPath;
+import net.sourceforge.plantuml.klimt.shape.UCenteredCharacter;
+import net.sourceforge.plantuml.klimt.shape.UEllipse;
+import net.sourceforge.plantuml.klimt.shape.UImage;
+import net.sourceforge.plantuml.klimt.shape.UImageSvg;
+import net.sourceforge.plantuml.klimt.shape.ULine;
+import net.sourceforge.plantuml.klimt.shape.UPixel;
+import net.sourceforge.plantuml.klimt.shape.UPolygon;
+import net.sourceforge.plantuml.klimt.shape.URectangle;
+import net.sourceforge.plantuml.klimt.shape.UText;
+import net.sourceforge.plantuml.url.Url;
+
+public class UGraphicPdf extends AbstractUGraphic<PdfGraphics> implements ClipContainer {
+
+	@Override
+	protected AbstractCommonUGraphic copyUGraphic() {
+		return new UGraphicPdf(this);
+	}
+
+	protected UGraphicPdf(UGraphicPdf other) {
+		super(other.getStringBounder());
+		copy(other);
+		register();
+	}
+
+	public UGraphicPdf(HColor defaultBackground, ColorMapper colorMapper, StringBounder stringBounder, double width,
+			double height, double scale) {
+		super(stringBounder);
+		copy(defaultBackground, colorMapper, new PdfGraphics(width, height, scale));
+		register();
+	}
+
+	private void register() {
+		registerDriver(URectangle.class, new DriverRectanglePdf());
+		registerDriver(UText.class, new DriverTextPdf());
+		registerDriver(ULine.class, new DriverLinePdf());
+		registerDriver(UPolygon.class, new DriverPolygonPdf());
+		registerDriver(UEllipse.class, new DriverEllipsePdf());
+		registerDriver(UImage.class, new DriverImagePdf());
+		registerDriver(UPath.class, new DriverPathPdf());
+		registerDriver(DotPath.class, new DriverDotPathPdf());
+		registerDriver(UCenteredCharacter.class, new DriverCenteredCharacterPdf());
+		registerDriver(UPixel.class, new DriverPixelPdf());
+		ignoreShape(UImageSvg.class);
+	}
+
+	@Override
+	protected void beforeDraw() {
+		super.beforeDraw();
+		final UClip clip = getClip();
+		if (clip != null)
+			getGraphicObject().clip(clip.getX(), clip.getY(), clip.getWidth(), clip.getHeight());
+	}
+
+	@Override
+	protected void afterDraw() {
+		if (getClip() != null)
+			getGraphicObject().unclip();
+		super.afterDraw();
+	}
+
+	@Override
+	public void startUrl(Url url) {
+		getGraphicObject().openLink(url.getUrl());
+	}
+
+	@Override
+	public void closeUrl() {
+		getGraphicObject().closeLink();
+	}
+
+	@Override
+	public void writeToStream(OutputStream os, String metadata, int dpi) throws IOException {
+		getGraphicObject().writeTo(os, metadata);
+	}
+
+}
@@ -51,6 +51,7 @@ import net.sourceforge.plantuml.klimt.drawing.AbstractCommonUGraphic;
 import net.sourceforge.plantuml.klimt.drawing.debug.StringBounderDebug;
 import net.sourceforge.plantuml.klimt.font.FontStyle;
 import net.sourceforge.plantuml.klimt.geom.XDimension2D;
+import net.sourceforge.plantuml.klimt.shape.UEmbedded;
 import net.sourceforge.plantuml.klimt.shape.UImage;
 import net.sourceforge.plantuml.klimt.shape.UText;
 import net.sourceforge.plantuml.security.SecurityUtils;
@@ -91,7 +92,7 @@ public class UGraphicTxt extends AbstractCommonUGraphic implements ClipContainer
 				charArea.drawStringLR(txt.getText(), getDx(), y);
 			}
 			return;
-		} else if (shape instanceof UImage) {
+		} else if (shape instanceof UImage || shape instanceof UEmbedded) {
 			return;
 		}
 		return;
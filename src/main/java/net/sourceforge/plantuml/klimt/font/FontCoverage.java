@@ -0,0 +1,103 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.klimt.font;
+
+import java.awt.Font;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers which code points a font can display, so that choosing a fallback
+ * font for a text is a table lookup once the characters have been seen.
+ */
+final class FontCoverage {
+
+	private static final long DISPLAYABLE = 3L;
+	private static final long NOT_DISPLAYABLE = 1L;
+
+	private final Font font;
+
+	// Two bits per BMP char: 00 not asked yet, 01 not displayable, 11 displayable.
+	// Both bits are set by a single atomic OR, so a reader never sees half of it.
+	private final AtomicLongArray bmp = new AtomicLongArray(0x10000 / 32);
+	private final ConcurrentMap<Integer, Boolean> supplementary = new ConcurrentHashMap<>();
+
+	FontCoverage(Font font) {
+		this.font = font;
+	}
+
+	Font getFont() {
+		return font;
+	}
+
+	boolean canDisplay(int codePoint) {
+		if (codePoint >= 0x10000) {
+			Boolean result = supplementary.get(codePoint);
+			if (result == null) {
+				result = font.canDisplay(codePoint);
+				supplementary.put(codePoint, result);
+			}
+			return result;
+		}
+		final int index = codePoint >>> 5;
+		final int shift = (codePoint & 31) << 1;
+		final long state = (bmp.get(index) >>> shift) & 3L;
+		if (state != 0)
+			return state == DISPLAYABLE;
+
+		final boolean result = font.canDisplay(codePoint);
+		final long bits = (result ? DISPLAYABLE : NOT_DISPLAYABLE) << shift;
+		bmp.accumulateAndGet(index, bits, (a, b) -> a | b);
+		return result;
+	}
+
+	/**
+	 * Same contract as {@link Font#canDisplayUpTo(String)}.
+	 */
+	int canDisplayUpTo(String text) {
+		final int len = text.length();
+		int i = 0;
+		while (i < len) {
+			final int codePoint = text.codePointAt(i);
+			if (canDisplay(codePoint) == false)
+				return i;
+			i += Character.charCount(codePoint);
+		}
+		return -1;
+	}
+
+}
@@ -37,12 +37,25 @@ package net.sourceforge.plantuml.klimt.font;
 
 import java.awt.Font;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class FontStack {
 
-	private final List<Font> fonts = new ArrayList<>();
+	// A diagram only uses a handful of font definitions, but builds UFont for
+	// every text it measures: sharing the stacks shares their caches below.
+	// Definitions and sizes come from the diagram source, so both caches are
+	// cleared when they get too big for long-running servers.
+	static final int MAX_STACKS = 256;
+	static final int MAX_DERIVED = 128;
+
+	private static final ConcurrentMap<String, FontStack> stacks = new ConcurrentHashMap<>();
+
+	private volatile List<FontCoverage> fonts;
+	private final ConcurrentMap<Long, Font> derived = new ConcurrentHashMap<>();
 	private final String fullDefinition;
 
 //	private static final Set<String> availableFontFamilyNames = new TreeSet<>();
@@ -55,18 +68,28 @@ public class FontStack {
 	public FontStack(String fullDefinition) {
 		this.fullDefinition = fullDefinition;
 	}
-	
 
-	private List<Font> getFonts() {
-		if (fonts.size() == 0)
+	public static FontStack of(String fullDefinition) {
+		if (stacks.size() >= MAX_STACKS)
+			stacks.clear();
+
+		return stacks.computeIfAbsent(fullDefinition, FontStack::new);
+	}
+
+	private List<FontCoverage> getFonts() {
+		List<FontCoverage> result = fonts;
+		if (result == null) {
+			result = new ArrayList<>();
 			for (String name : fullDefinition.split(",")) {
 				name = trimWhitespaceOrDoubleQuote(name);
 				// final Font font = new Font(name, Font.PLAIN, 12);
 				final Font font = Font.decode(name);
-				fonts.add(font);
+				result.add(new FontCoverage(font));
 			}
-
-		return fonts;
+			result = Collections.unmodifiableList(result);
+			fonts = result;
+		}
+		return result;
 	}
 
 	public int canDisplayUpTo(int index, String text) {
@@ -74,12 +97,21 @@ public class FontStack {
 	}
 
 	public Font getFont(String text, int style, int size) {
-		if (getFonts().size() > 1 && text != null)
-			for (Font font : getFonts())
-				if (font.canDisplayUpTo(text) == -1)
-					return font.deriveFont(style, (float) size);
+		final List<FontCoverage> all = getFonts();
+		if (all.size() > 1 && text != null)
+			for (int i = 0; i < all.size(); i++)
+				if (all.get(i).canDisplayUpTo(text) == -1)
+					return getDerivedFont(i, style, size);
+
+		return getDerivedFont(0, style, size);
+	}
+
+	private Font getDerivedFont(int index, int style, int size) {
+		final Long key = ((long) index << 48) | ((long) (style & 0xFFFF) << 32) | (size & 0xFFFFFFFFL);
+		if (derived.size() >= MAX_DERIVED)
+			derived.clear();
 
-		return getFonts().get(0).deriveFont(style, (float) size);
+		return derived.computeIfAbsent(key, k -> getFonts().get(index).getFont().deriveFont(style, (float) size));
 	}
 
 	private static boolean isWhitespaceOrDoubleQuote(char c) {
@@ -45,7 +45,7 @@ public class UFont {
 	private final int size;
 
 	public static UFont build(String fullDefinition, int fontStyle, int fontSize) {
-		final FontStack fontStack = new FontStack(fullDefinition);
+		final FontStack fontStack = FontStack.of(fullDefinition);
 		return new UFont(fontStack, fontStyle, fontSize);
 	}
 
@@ -127,9 +127,35 @@ public class UFont {
 
 			return result;
 		}
+		if (context == UFontContext.PDF)
+			return getPdfStandardFont(getUnderlayingFont(text));
+
 		throw new IllegalArgumentException();
 	}
 
+	// Closest of the standard Type1 fonts every PDF reader provides
+	private static String getPdfStandardFont(Font font) {
+		final String family = font.getFamily().toLowerCase();
+		if (family.contains("mono") || family.contains("courier"))
+			return "Courier" + getPdfStyleSuffix(font, "", "-Oblique");
+
+		if (family.contains("times") || (family.contains("serif") && family.contains("sans") == false))
+			return "Times" + getPdfStyleSuffix(font, "-Roman", "-Italic");
+
+		return "Helvetica" + getPdfStyleSuffix(font, "", "-Oblique");
+	}
+
+	private static String getPdfStyleSuffix(Font font, String plain, String italic) {
+		if (font.isBold() && font.isItalic())
+			return "-Bold" + italic.substring(1);
+		else if (font.isBold())
+			return "-Bold";
+		else if (font.isItalic())
+			return italic;
+		else
+			return plain;
+	}
+
 	// Kludge for testing because font names on some machines (only macOS?) do not
 	// end with <DOT><STYLE>
 	// See https://github.com/plantuml/plantuml/issues/720
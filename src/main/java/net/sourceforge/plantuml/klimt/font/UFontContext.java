@@ -42,7 +42,7 @@ import net.sourceforge.plantuml.klimt.shape.UText;
 
 public enum UFontContext {
 
-	EPS, SVG, G2D, TIKZ;
+	EPS, SVG, G2D, TIKZ, PDF;
 
 	// ::comment when __HAXE__
 	public TextLayout createTextLayout(UText shape) {
@@ -0,0 +1,81 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ */
+package net.sourceforge.plantuml.klimt.shape;
+
+import net.sourceforge.plantuml.klimt.compress.CompressionMode;
+import net.sourceforge.plantuml.klimt.compress.UShapeIgnorableForCompression;
+import net.sourceforge.plantuml.klimt.drawing.UGraphic;
+import net.sourceforge.plantuml.klimt.geom.XDimension2D;
+
+/**
+ * A TextBlock drawn as a single shape.
+ * <p>
+ * The UGraphic layers in between (compression, snakes, interceptors) see only
+ * this shape, like an image. The final UGraphic draws the block itself, so that
+ * its content stays vector and is not reworked by the layout of the enclosing
+ * diagram.
+ */
+public class UEmbedded implements UShapeIgnorableForCompression {
+	// ::remove file when __HAXE__
+
+	private final TextBlock block;
+	private final XDimension2D dimension;
+
+	public UEmbedded(TextBlock block, XDimension2D dimension) {
+		this.block = block;
+		this.dimension = dimension;
+	}
+
+	public boolean isIgnoreForCompressionOn(CompressionMode mode) {
+		return true;
+	}
+
+	public void drawWhenCompressed(UGraphic ug, CompressionMode mode) {
+		ug.draw(UEmpty.create(dimension));
+	}
+
+	public final TextBlock getBlock() {
+		return block;
+	}
+
+	public double getWidth() {
+		return dimension.getWidth();
+	}
+
+	public double getHeight() {
+		return dimension.getHeight();
+	}
+
+}
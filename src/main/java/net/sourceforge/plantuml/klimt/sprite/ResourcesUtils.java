@@ -38,9 +38,16 @@ package net.sourceforge.plantuml.klimt.sprite;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Set;
@@ -78,9 +85,35 @@ public class ResourcesUtils {
 				return listFiles(new JarFile(URLDecoder.decode(jarPath, UTF_8.name())), path + "/");
 
 		}
+		if ("resource".equals(protocol))
+			return listNativeImage(path, folder);
+
 		return Collections.<String>emptySet();
 	}
 
+	// Inside a GraalVM native image, resources are only reachable through the
+	// "resource:" file system
+	private static Set<String> listNativeImage(String path, boolean folder) throws IOException {
+		final URI root = URI.create("resource:/");
+		FileSystem fileSystem;
+		try {
+			fileSystem = FileSystems.newFileSystem(root, Collections.<String, Object>emptyMap());
+		} catch (FileSystemAlreadyExistsException e) {
+			fileSystem = FileSystems.getFileSystem(root);
+		}
+		final Set<String> result = new TreeSet<>();
+		final Path dir = fileSystem.getPath(path);
+		if (Files.isDirectory(dir) == false)
+			return result;
+
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+			for (Path entry : entries)
+				if (Files.isDirectory(entry) == folder)
+					result.add(entry.getFileName().toString());
+		}
+		return result;
+	}
+
 	private static String getProtocol() {
 		final URL resource = Version.class.getClassLoader().getResource("net/sourceforge/plantuml/version/logo.png");
 		return resource.getProtocol();
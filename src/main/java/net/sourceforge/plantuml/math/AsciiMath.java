@@ -38,6 +38,8 @@ package net.sourceforge.plantuml.math;
 import java.awt.Color;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.script.ScriptException;
 
@@ -48,14 +50,37 @@ import net.sourceforge.plantuml.klimt.shape.UImageSvg;
 public class AsciiMath implements ScientificEquation {
 	// ::remove folder when __CORE__
 
+	private static final int CACHE_SIZE = 256;
+
+	private static final Map<String, String> TEX_CACHE = new LinkedHashMap<String, String>(CACHE_SIZE, 0.75f,
+			true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
 	private final LatexBuilder builder;
 	private final String tex;
 
 	public AsciiMath(String form) throws ScriptException, NoSuchMethodException {
-		this.tex = new ASCIIMathTeXImg().getTeX(form);
+		this.tex = toTeX(form);
 		this.builder = new LatexBuilder(tex);
 	}
 
+	private static String toTeX(String form) {
+		synchronized (TEX_CACHE) {
+			final String cached = TEX_CACHE.get(form);
+			if (cached != null)
+				return cached;
+		}
+		final String result = new ASCIIMathTeXImg().getTeX(form);
+		synchronized (TEX_CACHE) {
+			TEX_CACHE.put(form, result);
+		}
+		return result;
+	}
+
 	public XDimension2D getDimension() {
 		return builder.getDimension();
 	}
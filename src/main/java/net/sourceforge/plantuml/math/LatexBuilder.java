@@ -40,6 +40,9 @@ import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 import javax.swing.Icon;
 
@@ -49,6 +52,26 @@ import net.sourceforge.plantuml.klimt.shape.UImageSvg;
 
 public class LatexBuilder implements ScientificEquation {
 
+	private static final int CACHE_SIZE = 256;
+
+	// Rendered formulas, shared by every diagram of the process. Documents tend to
+	// repeat the same few formulas, and each jlatexmath run is expensive.
+	private static final Map<RenderKey, RenderedSvg> SVG_CACHE = new LinkedHashMap<RenderKey, RenderedSvg>(
+			CACHE_SIZE, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<RenderKey, RenderedSvg> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private static final Map<RenderKey, LatexImage> IMAGE_CACHE = new LinkedHashMap<RenderKey, LatexImage>(
+			CACHE_SIZE, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<RenderKey, LatexImage> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
 	private final String tex;
 
 	public LatexBuilder(String tex) {
@@ -70,18 +93,76 @@ public class LatexBuilder implements ScientificEquation {
 	public UImageSvg getSvg(double scale, Color foregroundColor, Color backgroundColor)
 			throws ClassNotFoundException, IllegalAccessException, IllegalArgumentException, InvocationTargetException,
 			NoSuchMethodException, SecurityException, InstantiationException, IOException {
-		final Icon icon = buildIcon(foregroundColor);
-		final ConverterSvg converterSvg = new ConverterSvg(icon);
-		final String svg = converterSvg.getSvg(scale, true, backgroundColor);
-		dimension = converterSvg.getDimension();
-		return new UImageSvg(svg, scale);
+		final RenderKey key = new RenderKey(tex, scale, foregroundColor, backgroundColor);
+		RenderedSvg rendered;
+		synchronized (SVG_CACHE) {
+			rendered = SVG_CACHE.get(key);
+		}
+		if (rendered == null) {
+			final Icon icon = buildIcon(foregroundColor);
+			final ConverterSvg converterSvg = new ConverterSvg(icon);
+			final String svg = converterSvg.getSvg(scale, true, backgroundColor);
+			rendered = new RenderedSvg(svg, converterSvg.getDimension());
+			synchronized (SVG_CACHE) {
+				SVG_CACHE.put(key, rendered);
+			}
+		}
+		dimension = rendered.dimension;
+		return new UImageSvg(rendered.svg, scale);
 	}
 
 	public MutableImage getImage(Color foregroundColor, Color backgroundColor)
 			throws ClassNotFoundException, NoSuchMethodException, SecurityException, InstantiationException,
 			IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+		// The image is shared: it is only rendered once, and callers never draw on it
+		final RenderKey key = new RenderKey(tex, 1, foregroundColor, backgroundColor);
+		synchronized (IMAGE_CACHE) {
+			final LatexImage cached = IMAGE_CACHE.get(key);
+			if (cached != null)
+				return cached;
+		}
 		final Icon icon = buildIcon(foregroundColor);
-		return new LatexImage(icon, 1, foregroundColor, backgroundColor);
+		final LatexImage result = new LatexImage(icon, 1, foregroundColor, backgroundColor);
+		synchronized (IMAGE_CACHE) {
+			IMAGE_CACHE.put(key, result);
+		}
+		return result;
+	}
+
+	private static final class RenderKey {
+		private final String tex;
+		private final double scale;
+		private final Color foregroundColor;
+		private final Color backgroundColor;
+
+		RenderKey(String tex, double scale, Color foregroundColor, Color backgroundColor) {
+			this.tex = tex;
+			this.scale = scale;
+			this.foregroundColor = foregroundColor;
+			this.backgroundColor = backgroundColor;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			final RenderKey other = (RenderKey) obj;
+			return tex.equals(other.tex) && scale == other.scale && foregroundColor.equals(other.foregroundColor)
+					&& Objects.equals(backgroundColor, other.backgroundColor);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(tex, scale, foregroundColor, backgroundColor);
+		}
+	}
+
+	private static final class RenderedSvg {
+		private final String svg;
+		private final XDimension2D dimension;
+
+		RenderedSvg(String svg, XDimension2D dimension) {
+			this.svg = svg;
+			this.dimension = dimension;
+		}
 	}
 
 	class LatexImage implements MutableImage {
@@ -90,7 +171,7 @@ public class LatexBuilder implements ScientificEquation {
 		private final Icon icon;
 		private final Color foregroundColor;
 		private final Color backgroundColor;
-		private BufferedImage cache = null;
+		private volatile BufferedImage cache = null;
 
 		public LatexImage(Icon icon, double scale, Color foregroundColor, Color backgroundColor) {
 			this.scale = scale;
@@ -101,21 +182,32 @@ public class LatexBuilder implements ScientificEquation {
 
 		@Override
 		public BufferedImage getImage() {
-			if (cache == null) {
-				cache = new BufferedImage((int) (icon.getIconWidth() * scale), (int) (icon.getIconHeight() * scale),
-						BufferedImage.TYPE_INT_ARGB);
-				final Graphics2D g2 = cache.createGraphics();
-				g2.scale(scale, scale);
-				if (backgroundColor != null) {
-					g2.setColor(backgroundColor);
-					g2.fillRect(0, 0, icon.getIconWidth(), icon.getIconHeight());
+			BufferedImage result = cache;
+			if (result == null)
+				// Scaled copies share the same icon, hence the lock on it
+				synchronized (icon) {
+					result = cache;
+					if (result == null) {
+						result = new BufferedImage((int) (icon.getIconWidth() * scale),
+								(int) (icon.getIconHeight() * scale), BufferedImage.TYPE_INT_ARGB);
+						final Graphics2D g2 = result.createGraphics();
+						g2.scale(scale, scale);
+						if (backgroundColor != null) {
+							g2.setColor(backgroundColor);
+							g2.fillRect(0, 0, icon.getIconWidth(), icon.getIconHeight());
+						}
+						icon.paintIcon(null, g2, 0, 0);
+						g2.dispose();
+						cache = result;
+					}
 				}
-				icon.paintIcon(null, g2, 0, 0);
-			}
-			return cache;
+			return result;
 		}
 
 		public MutableImage withScale(double scale) {
+			if (scale == 1)
+				return this;
+
 			return new LatexImage(icon, this.scale * scale, foregroundColor, backgroundColor);
 		}
 
@@ -0,0 +1,257 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.metrics;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.atmp.CucaDiagram;
+import net.sourceforge.plantuml.TitledDiagram;
+import net.sourceforge.plantuml.core.DiagramType;
+import net.sourceforge.plantuml.skin.UmlDiagramType;
+import net.sourceforge.plantuml.utils.Log;
+
+/**
+ * Custom JDK Flight Recorder events for the rendering pipeline.
+ * <p>
+ * PlantUML still targets Java 8, where <code>jdk.jfr</code> cannot be compiled
+ * against. Event types are therefore declared at runtime through
+ * <code>jdk.jfr.EventFactory</code>, and every member is resolved once into a
+ * {@link MethodHandle}. All event types are disabled by default: they have to
+ * be enabled in the recording settings, for example
+ * <code>jfr configure +net.sourceforge.plantuml.Parse#enabled=true</code>.
+ * <p>
+ * Declaring the event types loads a good part of <code>jdk.jfr</code>, so it is
+ * delayed until the flight recorder itself has been initialized, either by
+ * <code>-XX:StartFlightRecording</code> or later by <code>jcmd JFR.start</code>.
+ * A plain command line run never pays for it.
+ * <p>
+ * Typical usage:
+ *
+ * <pre>
+ * final JfrEvent event = Jfr.begin(JfrStage.PARSE);
+ * ...
+ * event.commit(diagramType, lineCount, entityCount, null);
+ * </pre>
+ */
+public final class Jfr {
+
+	private static final MethodHandle recorderInitialized = recorderInitialized();
+
+	private static volatile Bridge bridge;
+	private static volatile boolean bridgeFailed;
+
+	private Jfr() {
+	}
+
+	public static boolean isAvailable() {
+		return bridge() != null;
+	}
+
+	public static JfrEvent begin(JfrStage stage) {
+		final Bridge bridge = bridge();
+		if (bridge == null)
+			return JfrEvent.NONE;
+
+		try {
+			final int ordinal = stage.ordinal();
+			if ((boolean) bridge.isEnabled[ordinal].invokeExact() == false)
+				return JfrEvent.NONE;
+
+			final Object event = (Object) bridge.newEvent[ordinal].invokeExact();
+			bridge.begin.invokeExact(event);
+			return new JfrEvent(bridge, event);
+		} catch (Throwable t) {
+			return JfrEvent.NONE;
+		}
+	}
+
+	/**
+	 * Number of entities of a diagram, or -1 when this is not an entity based
+	 * diagram. Only meant to be called when the event is recording.
+	 */
+	public static int countEntities(Object diagram) {
+		if (diagram instanceof CucaDiagram)
+			return ((CucaDiagram) diagram).leafs().size();
+
+		return -1;
+	}
+
+	/**
+	 * Diagram type reported by every event: the {@link UmlDiagramType} of the
+	 * diagram when it is known, otherwise the {@link DiagramType} of its source.
+	 * Only meant to be called when the event is recording.
+	 */
+	public static String diagramType(Object diagram, DiagramType type) {
+		if (diagram instanceof TitledDiagram) {
+			final UmlDiagramType umlDiagramType = ((TitledDiagram) diagram).getUmlDiagramType();
+			if (umlDiagramType != null)
+				return umlDiagramType.name();
+		}
+		return type == null ? null : type.name();
+	}
+
+	private static Bridge bridge() {
+		final Bridge result = bridge;
+		if (result != null || bridgeFailed || recorderInitialized == null)
+			return result;
+
+		try {
+			if ((boolean) recorderInitialized.invokeExact() == false)
+				return null;
+		} catch (Throwable t) {
+			return null;
+		}
+
+		synchronized (Jfr.class) {
+			if (bridge == null && bridgeFailed == false) {
+				bridge = Bridge.create();
+				bridgeFailed = bridge == null;
+			}
+			return bridge;
+		}
+	}
+
+	private static MethodHandle recorderInitialized() {
+		try {
+			final Class<?> recorderClass = Class.forName("jdk.jfr.FlightRecorder");
+			return MethodHandles.publicLookup().findStatic(recorderClass, "isInitialized", methodType(boolean.class));
+		} catch (Throwable t) {
+			Log.info(() -> "JDK Flight Recorder events not available: " + t);
+			return null;
+		}
+	}
+
+	static final class Bridge {
+
+		final MethodHandle[] isEnabled;
+		final MethodHandle[] newEvent;
+		final MethodHandle begin;
+		final MethodHandle end;
+		final MethodHandle shouldCommit;
+		final MethodHandle commit;
+		final MethodHandle set;
+
+		private Bridge(MethodHandle[] isEnabled, MethodHandle[] newEvent, MethodHandle begin, MethodHandle end,
+				MethodHandle shouldCommit, MethodHandle commit, MethodHandle set) {
+			this.isEnabled = isEnabled;
+			this.newEvent = newEvent;
+			this.begin = begin;
+			this.end = end;
+			this.shouldCommit = shouldCommit;
+			this.commit = commit;
+			this.set = set;
+		}
+
+		static Bridge create() {
+			try {
+				final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+				final Class<?> eventClass = Class.forName("jdk.jfr.Event");
+				final Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+				final Class<?> typeClass = Class.forName("jdk.jfr.EventType");
+				final Class<?> annotationClass = Class.forName("jdk.jfr.AnnotationElement");
+				final Class<?> descriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+
+				final MethodHandle newAnnotation = lookup.findConstructor(annotationClass,
+						methodType(void.class, Class.class, Object.class));
+				final MethodHandle newDescriptor = lookup.findConstructor(descriptorClass,
+						methodType(void.class, Class.class, String.class, List.class));
+				final MethodHandle createFactory = lookup.findStatic(factoryClass, "create",
+						methodType(factoryClass, List.class, List.class));
+				final MethodHandle getEventType = lookup.findVirtual(factoryClass, "getEventType",
+						methodType(typeClass));
+				final MethodHandle typeEnabled = lookup.findVirtual(typeClass, "isEnabled", methodType(boolean.class));
+				final MethodHandle factoryNewEvent = lookup.findVirtual(factoryClass, "newEvent",
+						methodType(eventClass));
+
+				final Class<?> name = Class.forName("jdk.jfr.Name");
+				final Class<?> label = Class.forName("jdk.jfr.Label");
+				final Class<?> description = Class.forName("jdk.jfr.Description");
+				final Class<?> category = Class.forName("jdk.jfr.Category");
+				final Class<?> enabled = Class.forName("jdk.jfr.Enabled");
+				final Class<?> stackTrace = Class.forName("jdk.jfr.StackTrace");
+
+				final List<Object> fields = new ArrayList<>();
+				fields.add(newDescriptor.invoke(String.class, "diagramType",
+						Collections.singletonList(newAnnotation.invoke(label, "Diagram Type"))));
+				fields.add(newDescriptor.invoke(int.class, "lines",
+						Collections.singletonList(newAnnotation.invoke(label, "Line Count"))));
+				fields.add(newDescriptor.invoke(int.class, "entities",
+						Collections.singletonList(newAnnotation.invoke(label, "Entity Count"))));
+				fields.add(newDescriptor.invoke(String.class, "detail",
+						Collections.singletonList(newAnnotation.invoke(label, "Detail"))));
+
+				final JfrStage[] stages = JfrStage.values();
+				final MethodHandle[] isEnabled = new MethodHandle[stages.length];
+				final MethodHandle[] newEvent = new MethodHandle[stages.length];
+				for (JfrStage stage : stages) {
+					final List<Object> annotations = Arrays.asList( //
+							newAnnotation.invoke(name, stage.getEventName()), //
+							newAnnotation.invoke(label, stage.getLabel()), //
+							newAnnotation.invoke(description, stage.getDescription()), //
+							newAnnotation.invoke(category, new String[] { "PlantUML" }), //
+							newAnnotation.invoke(enabled, false), //
+							newAnnotation.invoke(stackTrace, false));
+					final Object factory = createFactory.invoke(annotations, fields);
+					final Object eventType = getEventType.invoke(factory);
+					isEnabled[stage.ordinal()] = typeEnabled.bindTo(eventType).asType(methodType(boolean.class));
+					newEvent[stage.ordinal()] = factoryNewEvent.bindTo(factory).asType(methodType(Object.class));
+				}
+
+				final MethodType objectToVoid = methodType(void.class, Object.class);
+				return new Bridge(isEnabled, newEvent, //
+						lookup.findVirtual(eventClass, "begin", methodType(void.class)).asType(objectToVoid), //
+						lookup.findVirtual(eventClass, "end", methodType(void.class)).asType(objectToVoid), //
+						lookup.findVirtual(eventClass, "shouldCommit", methodType(boolean.class))
+								.asType(methodType(boolean.class, Object.class)), //
+						lookup.findVirtual(eventClass, "commit", methodType(void.class)).asType(objectToVoid), //
+						lookup.findVirtual(eventClass, "set", methodType(void.class, int.class, Object.class))
+								.asType(methodType(void.class, Object.class, int.class, Object.class)));
+			} catch (Throwable t) {
+				Log.info(() -> "JDK Flight Recorder events not available: " + t);
+				return null;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,86 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.metrics;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * One JDK Flight Recorder event in progress.
+ * <p>
+ * When the event type is disabled (which is the default) or when no Flight
+ * Recorder is available, {@link #NONE} is used and every call does nothing.
+ */
+public class JfrEvent {
+
+	public static final JfrEvent NONE = new JfrEvent(null, null);
+
+	private final Jfr.Bridge bridge;
+	private final Object event;
+
+	JfrEvent(Jfr.Bridge bridge, Object event) {
+		this.bridge = bridge;
+		this.event = event;
+	}
+
+	/**
+	 * Tells if the event is actually recorded, so that computing expensive
+	 * attributes (like the entity count) can be skipped otherwise.
+	 */
+	public boolean isRecording() {
+		return event != null;
+	}
+
+	public void commit(String diagramType, int lines, int entities, String detail) {
+		if (event == null)
+			return;
+
+		try {
+			bridge.end.invokeExact(event);
+			if ((boolean) bridge.shouldCommit.invokeExact(event) == false)
+				return;
+
+			final MethodHandle set = bridge.set;
+			set.invokeExact(event, 0, (Object) diagramType);
+			set.invokeExact(event, 1, (Object) Integer.valueOf(lines));
+			set.invokeExact(event, 2, (Object) Integer.valueOf(entities));
+			set.invokeExact(event, 3, (Object) detail);
+			bridge.commit.invokeExact(event);
+		} catch (Throwable t) {
+			// Tracing must never break the rendering
+		}
+	}
+
+}
@@ -0,0 +1,77 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative latency histogram with fixed buckets, as expected by Prometheus.
+ */
+public class LatencyHistogram {
+
+	static final double[] BOUNDS = { 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+
+	private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+	private final LongAdder sumNanos = new LongAdder();
+
+	public LatencyHistogram() {
+		for (int i = 0; i < buckets.length; i++)
+			buckets[i] = new LongAdder();
+	}
+
+	public void record(long nanos) {
+		final double seconds = nanos / 1e9;
+		int i = 0;
+		while (i < BOUNDS.length && seconds > BOUNDS[i])
+			i++;
+
+		buckets[i].increment();
+		sumNanos.add(nanos);
+	}
+
+	public void appendPrometheus(StringBuilder sb, String name, String labels) {
+		long cumulated = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			cumulated += buckets[i].sum();
+			final String le = i < BOUNDS.length ? Double.toString(BOUNDS[i]) : "+Inf";
+			sb.append(name).append("_bucket{").append(labels).append(",le=\"").append(le).append("\"} ")
+					.append(cumulated).append('\n');
+		}
+		sb.append(name).append("_sum{").append(labels).append("} ").append(sumNanos.sum() / 1e9).append('\n');
+		sb.append(name).append("_count{").append(labels).append("} ").append(cumulated).append('\n');
+	}
+
+}
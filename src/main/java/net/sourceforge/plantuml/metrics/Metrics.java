@@ -0,0 +1,192 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide registry of rendering metrics.
+ * <p>
+ * Recording is disabled until {@link #enable()} is called, so that probes left
+ * in the pipeline only cost a volatile read for the CLI. Typical usage:
+ *
+ * <pre>
+ * final long start = Metrics.start();
+ * ...
+ * Metrics.stop(Phase.PARSE, start);
+ * </pre>
+ */
+public final class Metrics {
+
+	private static volatile boolean enabled;
+
+	private static final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+	private static final ConcurrentMap<String, LongAdder> diagrams = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, LongAdder> cacheHits = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, LongAdder> cacheMisses = new ConcurrentHashMap<>();
+	private static final ThreadLocal<RequestTimings> current = new ThreadLocal<>();
+
+	static {
+		for (Phase phase : Phase.values())
+			phases.put(phase, new LatencyHistogram());
+	}
+
+	private Metrics() {
+	}
+
+	public static void enable() {
+		enabled = true;
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static long start() {
+		if (enabled)
+			return System.nanoTime();
+
+		return 0;
+	}
+
+	public static void stop(Phase phase, long start) {
+		if (enabled == false || start == 0)
+			return;
+
+		final long duration = System.nanoTime() - start;
+		phases.get(phase).record(duration);
+		final RequestTimings timings = current.get();
+		if (timings != null)
+			timings.add(phase, duration);
+	}
+
+	public static void beginRequest() {
+		if (enabled)
+			current.set(new RequestTimings());
+	}
+
+	public static RequestTimings getRequestTimings() {
+		return current.get();
+	}
+
+	public static void endRequest() {
+		current.remove();
+	}
+
+	public static void countDiagram(String type, String format, boolean error) {
+		if (enabled == false)
+			return;
+
+		increment(diagrams, "type=\"" + escape(type) + "\",format=\"" + escape(format) + "\"");
+		if (error)
+			increment(errors, "type=\"" + escape(type) + "\"");
+	}
+
+	public static void cache(String name, boolean hit) {
+		if (enabled)
+			increment(hit ? cacheHits : cacheMisses, name);
+	}
+
+	private static void increment(ConcurrentMap<String, LongAdder> counters, String key) {
+		LongAdder counter = counters.get(key);
+		if (counter == null) {
+			counters.putIfAbsent(key, new LongAdder());
+			counter = counters.get(key);
+		}
+		counter.increment();
+	}
+
+	public static String toPrometheus() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("# HELP plantuml_phase_duration_seconds Time spent in each rendering phase.\n");
+		sb.append("# TYPE plantuml_phase_duration_seconds histogram\n");
+		for (Map.Entry<Phase, LatencyHistogram> ent : phases.entrySet())
+			ent.getValue().appendPrometheus(sb, "plantuml_phase_duration_seconds",
+					"phase=\"" + ent.getKey().getLabel() + "\"");
+
+		sb.append("# HELP plantuml_diagrams_total Diagrams rendered, by diagram type and output format.\n");
+		sb.append("# TYPE plantuml_diagrams_total counter\n");
+		appendCounters(sb, "plantuml_diagrams_total", diagrams);
+
+		sb.append("# HELP plantuml_errors_total Diagrams rendered as an error, by diagram type.\n");
+		sb.append("# TYPE plantuml_errors_total counter\n");
+		appendCounters(sb, "plantuml_errors_total", errors);
+
+		sb.append("# HELP plantuml_cache_requests_total Cache lookups, by cache and result.\n");
+		sb.append("# TYPE plantuml_cache_requests_total counter\n");
+		final Set<String> caches = new TreeSet<>(cacheHits.keySet());
+		caches.addAll(cacheMisses.keySet());
+		for (String name : caches) {
+			sb.append("plantuml_cache_requests_total{cache=\"").append(escape(name)).append("\",result=\"hit\"} ")
+					.append(sum(cacheHits, name)).append('\n');
+			sb.append("plantuml_cache_requests_total{cache=\"").append(escape(name)).append("\",result=\"miss\"} ")
+					.append(sum(cacheMisses, name)).append('\n');
+		}
+
+		sb.append("# HELP plantuml_cache_hit_ratio Ratio of cache lookups that were hits.\n");
+		sb.append("# TYPE plantuml_cache_hit_ratio gauge\n");
+		for (String name : caches) {
+			final long hits = sum(cacheHits, name);
+			final long total = hits + sum(cacheMisses, name);
+			sb.append("plantuml_cache_hit_ratio{cache=\"").append(escape(name)).append("\"} ")
+					.append(total == 0 ? 0 : (double) hits / total).append('\n');
+		}
+		return sb.toString();
+	}
+
+	private static void appendCounters(StringBuilder sb, String name, Map<String, LongAdder> counters) {
+		for (Map.Entry<String, LongAdder> ent : new TreeMap<>(counters).entrySet())
+			sb.append(name).append('{').append(ent.getKey()).append("} ").append(ent.getValue().sum()).append('\n');
+	}
+
+	private static long sum(Map<String, LongAdder> counters, String name) {
+		final LongAdder counter = counters.get(name);
+		return counter == null ? 0 : counter.sum();
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+}
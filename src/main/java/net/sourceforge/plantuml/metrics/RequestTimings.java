@@ -0,0 +1,71 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.metrics;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Time spent in each phase while serving one request, reported in the
+ * <code>Server-Timing</code> response header.
+ */
+public class RequestTimings {
+
+	private final long start = System.nanoTime();
+	private final Map<Phase, Long> durations = new EnumMap<>(Phase.class);
+
+	void add(Phase phase, long nanos) {
+		final Long previous = durations.get(phase);
+		durations.put(phase, previous == null ? nanos : previous + nanos);
+	}
+
+	public String toServerTiming() {
+		final StringBuilder sb = new StringBuilder();
+		for (Map.Entry<Phase, Long> ent : durations.entrySet())
+			appendMetric(sb, ent.getKey().getLabel(), ent.getValue());
+
+		appendMetric(sb, "total", System.nanoTime() - start);
+		return sb.toString();
+	}
+
+	private static void appendMetric(StringBuilder sb, String name, long nanos) {
+		if (sb.length() > 0)
+			sb.append(", ");
+		sb.append(name).append(";dur=").append(String.format(Locale.US, "%.3f", nanos / 1e6));
+	}
+
+}
@@ -0,0 +1,8 @@
+/**
+ * Provides lightweight latency histograms and counters for the rendering
+ * pipeline, exported by the
+ * <a href="https://plantuml.com/picoweb" target="_top">
+ * PlantUML PicoWeb Server</a>.
+ *
+ */
+package net.sourceforge.plantuml.metrics;
@@ -42,6 +42,8 @@ import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -61,11 +63,18 @@ public class OpenIcon {
 
 	private final static Pattern patternTranslate = Pattern.compile("translate\\((\\d+)\\s*(\\d*)\\)");
 
+	// Icons are immutable once parsed, so they are shared by all diagrams
+	private final static ConcurrentMap<String, OpenIcon> ALL = new ConcurrentHashMap<>();
+
 	private SvgPath svgPath;
 	private List<String> rawData = new ArrayList<>();
 	private final String id;
 
 	public static OpenIcon retrieve(String name) {
+		return ALL.computeIfAbsent(name, OpenIcon::load);
+	}
+
+	private static OpenIcon load(String name) {
 		final InputStream is = getResource(name);
 		if (is == null)
 			return null;
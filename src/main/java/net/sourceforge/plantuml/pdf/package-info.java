@@ -1,7 +0,0 @@
-/**
- * Provides classes used to manage 
- * <a href="https://plantuml.com/pdf" target="_top">
- * PDF output format</a>.
- *
- */
-package net.sourceforge.plantuml.pdf;
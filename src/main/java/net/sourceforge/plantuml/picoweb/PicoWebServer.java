@@ -50,9 +50,17 @@ import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import net.sourceforge.plantuml.BlockUml;
 import net.sourceforge.plantuml.ErrorUml;
@@ -72,8 +80,11 @@ import net.sourceforge.plantuml.json.Json;
 import net.sourceforge.plantuml.json.JsonArray;
 import net.sourceforge.plantuml.json.JsonObject;
 import net.sourceforge.plantuml.log.Logme;
+import net.sourceforge.plantuml.metrics.Metrics;
+import net.sourceforge.plantuml.metrics.RequestTimings;
 import net.sourceforge.plantuml.preproc.PreprocessingArtifact;
 import net.sourceforge.plantuml.security.SFile;
+import net.sourceforge.plantuml.security.SecurityUtils;
 import net.sourceforge.plantuml.syntax.LanguageDescriptor;
 import net.sourceforge.plantuml.text.StringLocated;
 import net.sourceforge.plantuml.utils.LineLocationImpl;
@@ -103,6 +114,7 @@ public class PicoWebServer implements Runnable {
 	}
 
 	public static void serverLoop(final ServerSocket serverConnect) throws IOException {
+		Metrics.enable();
 		while (true) {
 			final PicoWebServer myServer = new PicoWebServer(serverConnect.accept());
 			final Thread thread = new Thread(myServer);
@@ -119,6 +131,7 @@ public class PicoWebServer implements Runnable {
 			out = new BufferedOutputStream(connect.getOutputStream());
 
 			final ReceivedHTTPRequest request = ReceivedHTTPRequest.fromStream(in);
+			Metrics.beginRequest();
 			if (request.getMethod().equals("GET")) {
 				if (request.getPath().startsWith("/png/") && handleGET(request, out, FileFormat.PNG))
 					return;
@@ -142,6 +155,8 @@ public class PicoWebServer implements Runnable {
 					return;
 				if (request.getPath().startsWith("/language") && handleLanguage(out))
 					return;
+				if (request.getPath().equals("/metrics") && handleMetrics(out))
+					return;
 				if (enableStop && (request.getPath().startsWith("/stopserver")
 						|| request.getPath().startsWith("/plantuml/stopserver")) && handleStop(out))
 					return;
@@ -149,6 +164,9 @@ public class PicoWebServer implements Runnable {
 			} else if (request.getMethod().equals("POST") && request.getPath().equals("/render")) {
 				handleRenderRequest(request, out);
 				return;
+			} else if (request.getMethod().equals("POST") && request.getPath().equals("/render/batch")) {
+				handleBatchRenderRequest(request, out);
+				return;
 			}
 			write(out, "HTTP/1.1 302 Found");
 			write(out, "Location: /plantuml/png/oqbDJyrBuGh8ISmh2VNrKGZ8JCuFJqqAJYqgIotY0aefG5G00000");
@@ -162,6 +180,7 @@ public class PicoWebServer implements Runnable {
 				Logme.error(e);
 			}
 		} finally {
+			Metrics.endRequest();
 			try {
 				in.close();
 				out.close();
@@ -237,6 +256,21 @@ public class PicoWebServer implements Runnable {
 		return true;
 	}
 
+	private boolean handleMetrics(BufferedOutputStream out) throws IOException {
+		final byte[] data = Metrics.toPrometheus().getBytes(UTF_8);
+		write(out, "HTTP/1.1 " + "200");
+		write(out, "Cache-Control: no-cache");
+		write(out, "Server: PlantUML PicoWebServer " + Version.versionString());
+		write(out, "Date: " + new Date());
+		write(out, "Content-Type: text/plain; version=0.0.4; charset=utf-8");
+		write(out, "Content-length: " + data.length);
+		write(out, "");
+		out.write(data);
+		out.flush();
+
+		return true;
+	}
+
 	private boolean handleGET(ReceivedHTTPRequest request, BufferedOutputStream out, final FileFormat format)
 			throws IOException {
 		final int x = request.getPath().lastIndexOf('/');
@@ -275,7 +309,25 @@ public class PicoWebServer implements Runnable {
 	}
 
 	public void handleRenderRequest(RenderRequest renderRequest, BufferedOutputStream out) throws Exception {
+		final RenderResult result = render(renderRequest);
+		sendDiagram(out, result.system, result.fileFormatOption, "200", result.imageData, result.data);
+	}
 
+	private static class RenderResult {
+		private final Diagram system;
+		private final FileFormatOption fileFormatOption;
+		private final ImageData imageData;
+		private final byte[] data;
+
+		RenderResult(Diagram system, FileFormatOption fileFormatOption, ImageData imageData, byte[] data) {
+			this.system = system;
+			this.fileFormatOption = fileFormatOption;
+			this.imageData = imageData;
+			this.data = data;
+		}
+	}
+
+	private RenderResult render(RenderRequest renderRequest) throws Exception {
 		final Option option = new Option(renderRequest.getOptions());
 
 		final String source = renderRequest.getSource().startsWith("@start") ? renderRequest.getSource()
@@ -299,7 +351,117 @@ public class PicoWebServer implements Runnable {
 			imageData = system.exportDiagram(os, 0, option.getFileFormatOption());
 		}
 
-		sendDiagram(out, system, option.getFileFormatOption(), "200", imageData, os.toByteArray());
+		return new RenderResult(system, option.getFileFormatOption(), imageData, os.toByteArray());
+	}
+
+	private static final int DEFAULT_BATCH_LIMIT = 100;
+
+	// All clients share the same batch executor, so a single request must not be
+	// able to queue an unbounded amount of work on it
+	static int getBatchLimit() {
+		final String env = SecurityUtils.getenv("PLANTUML_BATCH_LIMIT");
+		if (StringUtils.isNotEmpty(env) && env.matches("\\d+"))
+			return Integer.parseInt(env);
+
+		return DEFAULT_BATCH_LIMIT;
+	}
+
+	private static ExecutorService batchExecutor;
+
+	private static synchronized ExecutorService getBatchExecutor() {
+		if (batchExecutor == null)
+			batchExecutor = Executors.newFixedThreadPool(Option.defaultNbThreads(), runnable -> {
+				final Thread thread = new Thread(runnable, "PicoWebServer batch");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+		return batchExecutor;
+	}
+
+	// Each diagram is sent as one json line as soon as it is rendered, so the
+	// lines do not follow the request order: "index" gives the position in the
+	// request.
+	private void handleBatchRenderRequest(ReceivedHTTPRequest request, BufferedOutputStream out) throws Exception {
+		if (request.getBody().length == 0)
+			throw new BadRequest400("No request body");
+
+		final List<RenderRequest> renderRequests;
+		try {
+			renderRequests = RenderRequest.fromJsonBatch(new String(request.getBody(), UTF_8));
+		} catch (Exception e) {
+			throw new BadRequest400("Error parsing request json: " + e.getMessage(), e);
+		}
+		final int limit = getBatchLimit();
+		if (renderRequests.size() > limit)
+			throw new BadRequest400("Too many diagrams in batch, the limit is " + limit);
+
+		final CompletionService<JsonObject> completionService = new ExecutorCompletionService<>(getBatchExecutor());
+		final List<Future<JsonObject>> futures = new ArrayList<>();
+		for (int i = 0; i < renderRequests.size(); i++) {
+			final int index = i;
+			futures.add(completionService.submit(() -> renderBatchItem(index, renderRequests.get(index))));
+		}
+		try {
+			sendBatch(out, completionService, renderRequests.size());
+		} finally {
+			// Nothing left to do once everything was sent, otherwise the client is gone
+			// or writing failed: stop rendering for nobody
+			for (Future<JsonObject> future : futures)
+				future.cancel(true);
+		}
+	}
+
+	private void sendBatch(BufferedOutputStream out, CompletionService<JsonObject> completionService, int size)
+			throws IOException, InterruptedException, ExecutionException {
+
+		write(out, "HTTP/1.1 200");
+		write(out, "Cache-Control: no-cache");
+		write(out, "Server: PlantUML PicoWebServer " + Version.versionString());
+		write(out, "Date: " + new Date());
+		write(out, "Access-Control-Allow-Origin: *");
+		write(out, "Content-type: application/x-ndjson");
+		write(out, "Connection: close");
+		write(out, "X-PlantUML-Batch-Size: " + size);
+		write(out, "");
+		out.flush();
+
+		for (int i = 0; i < size; i++) {
+			final JsonObject item = completionService.take().get();
+			out.write((item.toString() + "\n").getBytes(UTF_8));
+			out.flush();
+		}
+	}
+
+	private JsonObject renderBatchItem(int index, RenderRequest renderRequest) {
+		final JsonObject json = Json.object().add("index", index);
+		try {
+			final RenderResult result = render(renderRequest);
+			final FileFormat fileFormat = result.fileFormatOption.getFileFormat();
+			json.add("status", result.system instanceof PSystemError ? "error" : "ok");
+			json.add("format", fileFormat.name().toLowerCase());
+			json.add("contentType", fileFormat.getMimeType());
+			json.add("width", result.imageData.getWidth());
+			json.add("height", result.imageData.getHeight());
+			json.add("description", result.system.getDescription().getDescription());
+			if (result.system instanceof PSystemError) {
+				final JsonArray errors = new JsonArray();
+				for (ErrorUml err : ((PSystemError) result.system).getErrorsUml())
+					errors.add(Json.object() //
+							.add("message", err.getError()) //
+							.add("line", 1 + err.getLineLocation().getPosition()));
+				json.add("errors", errors);
+			}
+			json.add("data", Base64.getEncoder().encodeToString(result.data));
+
+			Metrics.countDiagram(result.system.getClass().getSimpleName(), fileFormat.name(),
+					result.system instanceof PSystemError);
+		} catch (Throwable e) {
+			Logme.error(e);
+			json.add("status", "failed");
+			json.add("message", String.valueOf(e));
+		}
+		return json;
 	}
 
 	private void sendDiagram(final BufferedOutputStream out, final Diagram system,
@@ -329,6 +491,13 @@ public class PicoWebServer implements Runnable {
 				write(out, "X-PlantUML-Diagram-Title: " + encode);
 		}
 
+		final RequestTimings timings = Metrics.getRequestTimings();
+		if (timings != null)
+			write(out, "Server-Timing: " + timings.toServerTiming());
+
+		Metrics.countDiagram(system.getClass().getSimpleName(), fileFormatOption.getFileFormat().name(),
+				system instanceof PSystemError);
+
 		write(out, "X-Patreon: Support us on https://plantuml.com/patreon");
 		write(out, "X-Donate: https://plantuml.com/paypal");
 		write(out, "X-Quote: " + StringUtils.rot(QuoteUtils.getSomeQuote()));
@@ -1,11 +1,15 @@
 package net.sourceforge.plantuml.picoweb;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import net.sourceforge.plantuml.json.Json;
 import net.sourceforge.plantuml.json.JsonArray;
 import net.sourceforge.plantuml.json.JsonObject;
+import net.sourceforge.plantuml.json.JsonValue;
 
 /**
- * POJO of the json sent to "POST /render"
+ * POJO of the json sent to "POST /render" and "POST /render/batch"
  */
 public class RenderRequest {
 
@@ -27,7 +31,28 @@ public class RenderRequest {
 	}
 
 	public static RenderRequest fromJson(String json) {
-		final JsonObject parsed = Json.parse(json).asObject();
+		return fromJson(Json.parse(json).asObject());
+	}
+
+	/**
+	 * Parses the body of a batch request: either a JSON array of requests or
+	 * newline delimited JSON, one request per line.
+	 */
+	public static List<RenderRequest> fromJsonBatch(String json) {
+		final List<RenderRequest> result = new ArrayList<>();
+		final String trimmed = json.trim();
+		if (trimmed.startsWith("[")) {
+			for (JsonValue value : Json.parse(trimmed).asArray())
+				result.add(fromJson(value.asObject()));
+		} else {
+			for (String line : trimmed.split("\\r?\\n"))
+				if (line.trim().length() > 0)
+					result.add(fromJson(line));
+		}
+		return result;
+	}
+
+	private static RenderRequest fromJson(JsonObject parsed) {
 		final String[] options;
 
 		if (parsed.contains("options")) {
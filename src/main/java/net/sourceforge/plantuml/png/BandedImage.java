@@ -0,0 +1,262 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.png;
+
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.Vector;
+
+import net.sourceforge.plantuml.StringUtils;
+import net.sourceforge.plantuml.png.quant.QuantUtils;
+import net.sourceforge.plantuml.security.SecurityUtils;
+import net.sourceforge.plantuml.utils.Log;
+
+/**
+ * Image painted band after band, for PNG outputs too large to be held in
+ * memory at once.
+ * <p>
+ * The image is exposed as a {@link RenderedImage} made of full-width tiles.
+ * A tile is only painted when one of its pixels is requested, into a single
+ * band buffer reused from one tile to the next. An encoder reading the image
+ * from top to bottom, such as the ImageIO PNG writer, therefore paints each
+ * band once and never needs more than one band in memory.
+ */
+public final class BandedImage implements RenderedImage {
+	// ::remove file when __CORE__
+
+	// Each band replays the whole drawing: bands must stay large enough to
+	// keep the number of replays low
+	private static final int BAND_PIXELS = 16 * 1024 * 1024;
+	private static final long DEFAULT_TILED_LIMIT = 64L * 1024 * 1024;
+
+	public interface BandPainter {
+		/**
+		 * Paints the whole image into a band.
+		 *
+		 * @param band the band buffer, already cleared
+		 * @param top  the row of the image drawn on the first row of the band
+		 */
+		void paint(BufferedImage band, int top);
+	}
+
+	private final int width;
+	private final int height;
+	private final int bandHeight;
+	private final BandPainter painter;
+	private BufferedImage band;
+	private int currentBand = -1;
+
+	public BandedImage(int width, int height, int type, BandPainter painter) {
+		this(width, height, type, (int) Math.max(1, Math.min(height, Math.min(BAND_PIXELS, getTiledLimit()) / width)),
+				painter);
+	}
+
+	BandedImage(int width, int height, int type, int bandHeight, BandPainter painter) {
+		this.width = width;
+		this.height = height;
+		this.bandHeight = bandHeight;
+		this.painter = painter;
+		this.band = RasterPool.createImage(width, bandHeight, type);
+		Log.info(() -> "Tiled image " + width + "x" + height + " painted in " + getNumYTiles() + " bands");
+	}
+
+	/**
+	 * Tells if an image of this size should be painted by bands. The limit, in
+	 * pixels, can be changed with the <code>PLANTUML_TILED_PNG_PIXELS</code>
+	 * environment variable. Bands never hold more pixels than this limit.
+	 */
+	public static boolean isRequired(int width, int height) {
+		return (long) width * height > getTiledLimit();
+	}
+
+	private static long getTiledLimit() {
+		final String env = SecurityUtils.getenv("PLANTUML_TILED_PNG_PIXELS");
+		if (StringUtils.isNotEmpty(env) && env.matches("\\d+"))
+			return Long.parseLong(env);
+
+		return DEFAULT_TILED_LIMIT;
+	}
+
+	/**
+	 * Gives the band buffer back to the {@link RasterPool}. The image must not be
+	 * used afterwards.
+	 */
+	public void release() {
+		RasterPool.release(band);
+		band = null;
+	}
+
+	private void paintBand(int index) {
+		if (index == currentBand)
+			return;
+
+		if (currentBand != -1)
+			Arrays.fill(QuantUtils.getPackedPixels(band), 0, width * bandHeight, 0);
+
+		painter.paint(band, index * bandHeight);
+		currentBand = index;
+	}
+
+	@Override
+	public WritableRaster copyData(WritableRaster raster) {
+		if (raster == null)
+			raster = band.getRaster().createCompatibleWritableRaster(width, height);
+
+		final Rectangle bounds = raster.getBounds().intersection(new Rectangle(0, 0, width, height));
+		if (bounds.isEmpty())
+			return raster;
+
+		final int first = bounds.y / bandHeight;
+		final int last = (bounds.y + bounds.height - 1) / bandHeight;
+		for (int i = first; i <= last; i++) {
+			paintBand(i);
+			final int top = i * bandHeight;
+			final Rectangle part = bounds.intersection(new Rectangle(0, top, width, bandHeight));
+			final Raster source = band.getRaster().createChild(part.x, part.y - top, part.width, part.height, part.x,
+					part.y, null);
+			raster.setRect(source);
+		}
+		return raster;
+	}
+
+	@Override
+	public Raster getData(Rectangle rect) {
+		return copyData(band.getRaster().createCompatibleWritableRaster(rect));
+	}
+
+	@Override
+	public Raster getData() {
+		return getData(new Rectangle(0, 0, width, height));
+	}
+
+	@Override
+	public Raster getTile(int tileX, int tileY) {
+		return getData(new Rectangle(0, tileY * bandHeight, width, bandHeight));
+	}
+
+	@Override
+	public Vector<RenderedImage> getSources() {
+		return null;
+	}
+
+	@Override
+	public Object getProperty(String name) {
+		return Image.UndefinedProperty;
+	}
+
+	@Override
+	public String[] getPropertyNames() {
+		return null;
+	}
+
+	@Override
+	public ColorModel getColorModel() {
+		return band.getColorModel();
+	}
+
+	@Override
+	public SampleModel getSampleModel() {
+		return band.getSampleModel();
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public int getMinX() {
+		return 0;
+	}
+
+	@Override
+	public int getMinY() {
+		return 0;
+	}
+
+	@Override
+	public int getNumXTiles() {
+		return 1;
+	}
+
+	@Override
+	public int getNumYTiles() {
+		return (height + bandHeight - 1) / bandHeight;
+	}
+
+	@Override
+	public int getMinTileX() {
+		return 0;
+	}
+
+	@Override
+	public int getMinTileY() {
+		return 0;
+	}
+
+	@Override
+	public int getTileWidth() {
+		return width;
+	}
+
+	@Override
+	public int getTileHeight() {
+		return bandHeight;
+	}
+
+	@Override
+	public int getTileGridXOffset() {
+		return 0;
+	}
+
+	@Override
+	public int getTileGridYOffset() {
+		return 0;
+	}
+
+}
@@ -68,8 +68,13 @@ public class PngIO {
 	}
 	// ::done
 
+	/**
+	 * Writes the image as PNG. The pixels of the image may be modified in the
+	 * process, so the image should not be used afterwards.
+	 */
 	public static void write(RenderedImage image, ColorMapper mapper, OutputStream os, String metadata, int dpi)
 			throws IOException {
+		BufferedImage indexed = null;
 		final BufferedImage bufferedImage = QuantUtils.toBufferedARGBorRGB(image);
 		if (bufferedImage != null) {
 			final int type = bufferedImage.getType();
@@ -79,7 +84,7 @@ public class PngIO {
 			final boolean hasAlpha = type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_4BYTE_ABGR;
 			Log.info(() -> "Trying to pack image. hasAlpha=" + hasAlpha);
 
-			BufferedImage tmp = Quantify555.packMeIfPossible(bufferedImage);
+			BufferedImage tmp = indexed = Quantify555.packMeIfPossible(bufferedImage);
 			if (tmp == null)
 				tmp = QuantifyPacked28.packMeIfPossible(bufferedImage);
 
@@ -88,6 +93,7 @@ public class PngIO {
 		}
 
 		PngIOMetadata.writeWithMetadata(image, os, metadata, dpi, null, 7);
+		RasterPool.release(indexed);
 	}
 
 //	/** writes a BufferedImage of type TYPE_INT_ARGB to PNG using PNGJ */
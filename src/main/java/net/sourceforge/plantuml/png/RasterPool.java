@@ -0,0 +1,194 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.png;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sourceforge.plantuml.metrics.Metrics;
+
+/**
+ * Pool of raster backing arrays reused from one PNG export to the next.
+ * <p>
+ * Arrays are rounded up to size classes spaced by a quarter of a power of two
+ * (so at most 25% of an array is wasted), and the total amount of idle memory
+ * kept by the pool is capped. Images created here must be given back with
+ * {@link #release(BufferedImage)} once they are fully encoded, and must not be
+ * used afterwards.
+ */
+public final class RasterPool {
+	// ::remove folder when __HAXE__
+
+	// Below this number of pixels, allocation is cheaper than pooling
+	private static final int MIN_POOLED_PIXELS = 1 << 14;
+	private static final int MAX_POOLED_PIXELS = 1 << 28;
+	private static final long MAX_IDLE_BYTES = 64L * 1024 * 1024;
+
+	private static final Map<Integer, Deque<int[]>> INTS = new HashMap<>();
+	private static final Map<Integer, Deque<byte[]>> BYTES = new HashMap<>();
+	private static long idleBytes;
+
+	private RasterPool() {
+	}
+
+	/**
+	 * Creates a blank image of type {@link BufferedImage#TYPE_INT_ARGB} or
+	 * {@link BufferedImage#TYPE_INT_RGB}.
+	 */
+	public static BufferedImage createImage(int width, int height, int type) {
+		final DirectColorModel cm;
+		if (type == BufferedImage.TYPE_INT_ARGB)
+			cm = (DirectColorModel) ColorModel.getRGBdefault();
+		else if (type == BufferedImage.TYPE_INT_RGB)
+			cm = new DirectColorModel(24, 0x00ff0000, 0x0000ff00, 0x000000ff, 0);
+		else
+			throw new IllegalArgumentException("type=" + type);
+
+		final int size = Math.multiplyExact(width, height);
+		final DataBufferInt buffer = new DataBufferInt(acquireInts(size), size);
+		final WritableRaster raster = Raster.createPackedRaster(buffer, width, height, width, cm.getMasks(), null);
+		return new BufferedImage(cm, raster, false, null);
+	}
+
+	/**
+	 * Creates a blank image of type {@link BufferedImage#TYPE_BYTE_INDEXED}.
+	 */
+	public static BufferedImage createIndexedImage(int width, int height, IndexColorModel icm) {
+		final int size = Math.multiplyExact(width, height);
+		final DataBufferByte buffer = new DataBufferByte(acquireBytes(size), size);
+		final WritableRaster raster = Raster.createInterleavedRaster(buffer, width, height, width, 1, new int[] { 0 },
+				null);
+		return new BufferedImage(icm, raster, false, null);
+	}
+
+	/**
+	 * Gives back the backing array of an image created by this class.
+	 */
+	public static void release(BufferedImage image) {
+		if (image == null)
+			return;
+
+		final DataBuffer buffer = image.getRaster().getDataBuffer();
+		if (buffer instanceof DataBufferInt)
+			releaseInts(((DataBufferInt) buffer).getData());
+		else if (buffer instanceof DataBufferByte)
+			releaseBytes(((DataBufferByte) buffer).getData());
+	}
+
+	static int sizeClass(int size) {
+		if (size <= MIN_POOLED_PIXELS)
+			return MIN_POOLED_PIXELS;
+
+		final int highestBit = 31 - Integer.numberOfLeadingZeros(size - 1);
+		final int step = 1 << (highestBit - 2);
+		return ((size - 1) / step + 1) * step;
+	}
+
+	private static boolean isPoolable(int length) {
+		return length >= MIN_POOLED_PIXELS && length <= MAX_POOLED_PIXELS && sizeClass(length) == length;
+	}
+
+	private static int[] acquireInts(int size) {
+		if (size < MIN_POOLED_PIXELS || size > MAX_POOLED_PIXELS)
+			return new int[size];
+
+		final int length = sizeClass(size);
+		int[] result = null;
+		synchronized (RasterPool.class) {
+			final Deque<int[]> free = INTS.get(length);
+			if (free != null)
+				result = free.poll();
+			if (result != null)
+				idleBytes -= 4L * length;
+		}
+		Metrics.cache("raster", result != null);
+		if (result == null)
+			return new int[length];
+
+		Arrays.fill(result, 0, size, 0);
+		return result;
+	}
+
+	private static byte[] acquireBytes(int size) {
+		if (size < MIN_POOLED_PIXELS || size > MAX_POOLED_PIXELS)
+			return new byte[size];
+
+		final int length = sizeClass(size);
+		byte[] result = null;
+		synchronized (RasterPool.class) {
+			final Deque<byte[]> free = BYTES.get(length);
+			if (free != null)
+				result = free.poll();
+			if (result != null)
+				idleBytes -= length;
+		}
+		Metrics.cache("raster", result != null);
+		if (result == null)
+			return new byte[length];
+
+		Arrays.fill(result, 0, size, (byte) 0);
+		return result;
+	}
+
+	private static synchronized void releaseInts(int[] data) {
+		if (isPoolable(data.length) == false || idleBytes + 4L * data.length > MAX_IDLE_BYTES)
+			return;
+
+		INTS.computeIfAbsent(data.length, key -> new ArrayDeque<>()).push(data);
+		idleBytes += 4L * data.length;
+	}
+
+	private static synchronized void releaseBytes(byte[] data) {
+		if (isPoolable(data.length) == false || idleBytes + data.length > MAX_IDLE_BYTES)
+			return;
+
+		BYTES.computeIfAbsent(data.length, key -> new ArrayDeque<>()).push(data);
+		idleBytes += data.length;
+	}
+
+}
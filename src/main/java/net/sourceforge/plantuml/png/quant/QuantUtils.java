@@ -36,7 +36,10 @@
 package net.sourceforge.plantuml.png.quant;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.awt.image.RenderedImage;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 
 /**
  * Utility functions for image handling in the quantization process.
@@ -79,7 +82,42 @@ public final class QuantUtils {
 		}
 		throw new IllegalArgumentException();
 	}
-	
+
+	/**
+	 * Returns the backing array of an image of type
+	 * {@link BufferedImage#TYPE_INT_ARGB} or {@link BufferedImage#TYPE_INT_RGB},
+	 * provided its pixels are stored row after row from the start of the array.
+	 * <p>
+	 * This gives direct access to the pixels without the full copy made by
+	 * {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}. Note that
+	 * for {@link BufferedImage#TYPE_INT_RGB} the alpha byte of each value is zero.
+	 * The array may be longer than <code>width * height</code>.
+	 * </p>
+	 *
+	 * @param image the image
+	 * @return the backing array, or {@code null} if the image has another layout
+	 */
+	public static int[] getPackedPixels(BufferedImage image) {
+		final int type = image.getType();
+		if (type != BufferedImage.TYPE_INT_ARGB && type != BufferedImage.TYPE_INT_RGB)
+			return null;
+
+		final WritableRaster raster = image.getRaster();
+		if (raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0)
+			return null;
+
+		if (raster.getSampleModel() instanceof SinglePixelPackedSampleModel == false
+				|| raster.getDataBuffer() instanceof DataBufferInt == false)
+			return null;
+
+		final SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+		final DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+		if (sampleModel.getScanlineStride() != image.getWidth() || buffer.getNumBanks() != 1 || buffer.getOffset() != 0)
+			return null;
+
+		return buffer.getData();
+	}
+
 
 	/**
 	 * Bitwise, branch-free LSB -> MSB "compression" for packed {@code 0xAARRGGBB} pixels.
@@ -36,10 +36,11 @@
 package net.sourceforge.plantuml.png.quant;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
 import java.awt.image.IndexColorModel;
-import java.awt.image.WritableRaster;
 import java.util.Arrays;
 
+import net.sourceforge.plantuml.png.RasterPool;
 import net.sourceforge.plantuml.utils.Log;
 
 /**
@@ -115,6 +116,11 @@ public final class Quantify555 {
 	/**
 	 * Attempts to quantize an image to <= 256 colors using the Cube555 structure.
 	 * 
+	 * <p>
+	 * The result comes from {@link RasterPool}, so that it can be released once
+	 * written.
+	 * </p>
+	 *
 	 * @param src any {@link BufferedImage}
 	 * @return a new {@link BufferedImage} with an indexed color model, or
 	 *         {@code null} if quantization is not possible (too many colors)
@@ -123,7 +129,17 @@ public final class Quantify555 {
 
 		final int w = src.getWidth();
 		final int h = src.getHeight();
-		final int[] pixels = src.getRGB(0, 0, w, h, null, 0, w);
+		final int size = w * h;
+
+		// Read the pixels in place when possible
+		int[] pixels = QuantUtils.getPackedPixels(src);
+		final int alphaMask;
+		if (pixels == null) {
+			pixels = src.getRGB(0, 0, w, h, null, 0, w);
+			alphaMask = 0;
+		} else {
+			alphaMask = src.getType() == BufferedImage.TYPE_INT_RGB ? 0xFF000000 : 0;
+		}
 
 		Log.info(() -> "Using Quantify555.");
 
@@ -131,7 +147,8 @@ public final class Quantify555 {
 
 		// Step 1: Fill Cube555 structures with frequency counts
 		final Cube555[] cubes = new Cube555[TOTAL_CUBE_SLOTS];
-		for (int argb : pixels) {
+		for (int i = 0; i < size; i++) {
+			final int argb = pixels[i] | alphaMask;
 			final int cubeIndex = getCubeIndex(argb);
 
 			Cube555 cube = cubes[cubeIndex];
@@ -153,7 +170,7 @@ public final class Quantify555 {
 		}
 
 		// Step 2: Build the final indexed image
-		return buildIndexedImageFromCubes(src, cubes);
+		return buildIndexedImageFromCubes(w, h, pixels, alphaMask, cubes);
 	}
 
 	public static boolean isTransparent(int argb) {
@@ -163,13 +180,15 @@ public final class Quantify555 {
 	/**
 	 * Builds an indexed image from the set of populated cubes.
 	 *
-	 * @param src   original ARGB image
-	 * @param cubes array of Cube555 (null for empty cubes)
+	 * @param w         image width
+	 * @param h         image height
+	 * @param pixels    original ARGB pixels, row after row
+	 * @param alphaMask bits to add to each pixel (for images without alpha)
+	 * @param cubes     array of Cube555 (null for empty cubes)
 	 * @return an indexed (8-bit) {@link BufferedImage}
 	 */
-	private static BufferedImage buildIndexedImageFromCubes(BufferedImage src, Cube555[] cubes) {
-		final int w = src.getWidth();
-		final int h = src.getHeight();
+	private static BufferedImage buildIndexedImageFromCubes(int w, int h, int[] pixels, int alphaMask,
+			Cube555[] cubes) {
 
 		// Step 1: Build the palette from all non-empty cubes
 		final int[] cubeToPal = new int[TOTAL_CUBE_SLOTS];
@@ -193,22 +212,18 @@ public final class Quantify555 {
 		final IndexColorModel icm = buildICM(palARGB, palSize);
 
 		// Step 2: Create output indexed image
-		final BufferedImage dst = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_INDEXED, icm);
-		final WritableRaster raster = dst.getRaster();
+		final BufferedImage dst = RasterPool.createIndexedImage(w, h, icm);
+		final byte[] indexes = ((DataBufferByte) dst.getRaster().getDataBuffer()).getData();
 
 		// Step 3: Replace each pixel in the source with its palette index
-		final int[] line = new int[w];
-		for (int y = 0; y < h; y++) {
-			src.getRGB(0, y, w, 1, line, 0, w);
-			for (int x = 0; x < w; x++) {
-				final int argb = line[x];
-				final int cubeIndex = getCubeIndex(argb);
-				final int p = cubeToPal[cubeIndex];
-				if (p < 0)
-					throw new IllegalStateException();
-
-				raster.setSample(x, y, 0, p);
-			}
+		final int size = w * h;
+		for (int i = 0; i < size; i++) {
+			final int cubeIndex = getCubeIndex(pixels[i] | alphaMask);
+			final int p = cubeToPal[cubeIndex];
+			if (p < 0)
+				throw new IllegalStateException();
+
+			indexes[i] = (byte) p;
 		}
 		return dst;
 	}
@@ -49,6 +49,17 @@ public final class QuantifyPacked28 {
 		final int w = src.getWidth();
 		final int h = src.getHeight();
 
+		// The source is not used once encoded: rewrite its pixels in place
+		final int[] packed = QuantUtils.getPackedPixels(src);
+		if (packed != null) {
+			final int alphaMask = type == BufferedImage.TYPE_INT_RGB ? 0xFF000000 : 0;
+			final int size = w * h;
+			for (int i = 0; i < size; i++)
+				packed[i] = QuantUtils.compressPackedARGB(packed[i] | alphaMask) & ~alphaMask;
+
+			return src;
+		}
+
 		final BufferedImage dst = new BufferedImage(w, h, type);
 
 		final int[] pixels = src.getRGB(0, 0, w, h, null, 0, w);
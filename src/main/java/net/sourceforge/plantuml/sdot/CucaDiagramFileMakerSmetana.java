@@ -92,6 +92,11 @@ import net.sourceforge.plantuml.klimt.shape.AbstractTextBlock;
 import net.sourceforge.plantuml.klimt.shape.TextBlock;
 import net.sourceforge.plantuml.klimt.shape.TextBlockUtils;
 import net.sourceforge.plantuml.log.Logme;
+import net.sourceforge.plantuml.metrics.Jfr;
+import net.sourceforge.plantuml.metrics.JfrEvent;
+import net.sourceforge.plantuml.metrics.JfrStage;
+import net.sourceforge.plantuml.metrics.Metrics;
+import net.sourceforge.plantuml.metrics.Phase;
 import net.sourceforge.plantuml.skin.AlignmentParam;
 import net.sourceforge.plantuml.skin.UmlDiagramType;
 import net.sourceforge.plantuml.skin.VisibilityModifier;
@@ -484,12 +489,18 @@ public class CucaDiagramFileMakerSmetana extends CucaDiagramFileMaker {
 		if (nodes.values().isEmpty() && clusters.values().isEmpty())
 			return TextBlockUtils.EMPTY_TEXT_BLOCK;
 
+		final long start = Metrics.start();
+		final JfrEvent event = Jfr.begin(JfrStage.LAYOUT);
 		final ST_GVC_s gvc = gvContext(zz);
 		SmetanaDebug.reset();
 		if (rankdir == Rankdir.LEFT_TO_RIGHT)
 			agsafeset(zz, g, new CString("rankdir"), new CString("LR"), new CString("LR"));
 		gvLayoutJobs(zz, gvc, g);
 		SmetanaDebug.printMe();
+		Metrics.stop(Phase.LAYOUT, start);
+		if (event.isRecording())
+			event.commit(Jfr.diagramType(diagram, diagram.getSource().getDiagramType()),
+					diagram.getSource().getTotalLineCount(), nodes.size(), "smetana");
 
 		final TextBlock drawable = new Drawing();
 		return drawable;
@@ -43,6 +43,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import net.sourceforge.plantuml.metrics.Metrics;
 import net.sourceforge.plantuml.utils.Log;
 
 public class StyleBuilder implements AutomaticCounter {
@@ -68,6 +69,11 @@ public class StyleBuilder implements AutomaticCounter {
 		final StyleBuilder result = new StyleBuilder();
 		result.storage.putAll(storage);
 		result.counter = this.counter;
+		// Same declarations, so the merged styles computed so far still apply.
+		// This lets every diagram using the same skin share a warm cache, which
+		// is cleared when it gets too big since diagrams add their own stereotypes.
+		result.mergedStyleCache = this.mergedStyleCache;
+		result.mergedStyleSpecialCache = this.mergedStyleSpecialCache;
 		return result;
 
 	}
@@ -116,16 +122,27 @@ public class StyleBuilder implements AutomaticCounter {
 			final Style tmp = orig.mergeWith(newStyle, MergeStrategy.OVERWRITE_EXISTING_VALUE);
 			this.storage.put(tmp);
 		}
+		this.mergedStyleCache = new ConcurrentHashMap<>();
+		this.mergedStyleSpecialCache = new ConcurrentHashMap<>();
 	}
 
 	public int getNextInt() {
 		return ++counter;
 	}
 
-	private final Map<StyleSignatureBasic, Style> mergedStyleCache = new ConcurrentHashMap<>();
+	static final int MAX_MERGED_STYLES = 4096;
+
+	private Map<StyleSignatureBasic, Style> mergedStyleCache = new ConcurrentHashMap<>();
+	private Map<Integer, Map<StyleSignatureBasic, Style>> mergedStyleSpecialCache = new ConcurrentHashMap<>();
 
 	public Style getMergedStyle(StyleSignatureBasic signature) {
 		// return computeMergedStyle(signature);
+		if (Metrics.isEnabled())
+			Metrics.cache("style", mergedStyleCache.containsKey(signature));
+
+		if (mergedStyleCache.size() >= MAX_MERGED_STYLES)
+			mergedStyleCache.clear();
+
 		return mergedStyleCache.computeIfAbsent(signature, sig -> computeMergedStyle(sig));
 	}
 
@@ -142,23 +159,15 @@ public class StyleBuilder implements AutomaticCounter {
 		if (added)
 			Log.info(() -> "Using style " + signature);
 
-		Style mergedStyle = null;
-		for (Style style : storage.getStyles()) {
-			final StyleSignatureBasic key = style.getSignature();
-			if (key.matchAll(signature) == false)
-				continue;
+		final Map<StyleSignatureBasic, Style> cache = mergedStyleSpecialCache.computeIfAbsent(deltaPriority,
+				delta -> new ConcurrentHashMap<>());
+		if (Metrics.isEnabled())
+			Metrics.cache("style", cache.containsKey(signature));
 
-			Style tmp = style;
-			if (key.isStarred())
-				tmp = tmp.deltaPriority(deltaPriority);
+		if (cache.size() >= MAX_MERGED_STYLES)
+			cache.clear();
 
-			if (mergedStyle == null)
-				mergedStyle = tmp;
-			else
-				mergedStyle = mergedStyle.mergeWith(tmp, MergeStrategy.OVERWRITE_EXISTING_VALUE);
-
-		}
-		return mergedStyle;
+		return cache.computeIfAbsent(signature, sig -> storage.computeMergedStyleSpecial(sig, deltaPriority));
 	}
 
 }
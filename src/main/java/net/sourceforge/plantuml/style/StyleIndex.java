@@ -0,0 +1,120 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.style;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Read-only index over the declarations of a {@link StyleStorage}.
+ * <p>
+ * A declaration can only match an element whose names contain all the names
+ * of the declaration. Each declaration is therefore filed under its least
+ * frequent {@link SName}: looking up the buckets of the element names gives a
+ * small superset of the matching declarations, still in declaration order.
+ */
+final class StyleIndex {
+	// ::remove file when __HAXE__
+
+	private static final int SNAME_COUNT = SName.values().length;
+
+	private final Style[] styles;
+	private final BitSet[] bySName = new BitSet[SNAME_COUNT];
+	private final BitSet withoutSName = new BitSet();
+
+	StyleIndex(Collection<Style> all) {
+		this.styles = all.toArray(new Style[all.size()]);
+
+		final int[] frequency = new int[SNAME_COUNT];
+		for (Style style : styles)
+			for (SName name : style.getSignature().getKey().snames)
+				frequency[name.ordinal()]++;
+
+		for (int i = 0; i < styles.length; i++) {
+			final SName rarest = rarest(styles[i].getSignature().getKey().snames, frequency);
+			if (rarest == null)
+				withoutSName.set(i);
+			else
+				bucket(rarest).set(i);
+		}
+	}
+
+	private static SName rarest(Collection<SName> names, int[] frequency) {
+		SName result = null;
+		for (SName name : names)
+			if (result == null || frequency[name.ordinal()] < frequency[result.ordinal()])
+				result = name;
+
+		return result;
+	}
+
+	private BitSet bucket(SName name) {
+		BitSet result = bySName[name.ordinal()];
+		if (result == null) {
+			result = new BitSet();
+			bySName[name.ordinal()] = result;
+		}
+		return result;
+	}
+
+	public Style computeMergedStyle(StyleSignatureBasic signature, boolean special, int deltaPriority) {
+		final BitSet candidates = (BitSet) withoutSName.clone();
+		for (SName name : signature.getKey().snames) {
+			final BitSet bucket = bySName[name.ordinal()];
+			if (bucket != null)
+				candidates.or(bucket);
+		}
+
+		Style mergedStyle = null;
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			final StyleSignatureBasic key = styles[i].getSignature();
+			if (key.matchAll(signature) == false)
+				continue;
+
+			Style tmp = styles[i];
+			if (special && key.isStarred())
+				tmp = tmp.deltaPriority(deltaPriority);
+
+			if (mergedStyle == null)
+				mergedStyle = tmp;
+			else
+				mergedStyle = mergedStyle.mergeWith(tmp, MergeStrategy.OVERWRITE_EXISTING_VALUE);
+
+		}
+		return mergedStyle;
+	}
+
+}
@@ -50,6 +50,8 @@ public class StyleStorage {
 
 	private final Map<StyleKey, Style> plain = new LinkedHashMap<StyleKey, Style>();
 
+	private volatile StyleIndex index;
+
 	public void printMe() {
 		for (Entry<StyleSignatureBasic, Style> ent : legacy.entrySet())
 			ent.getValue().printMe();
@@ -59,6 +61,7 @@ public class StyleStorage {
 	public void putAll(StyleStorage other) {
 		legacy.putAll(other.legacy);
 		plain.putAll(other.plain);
+		index = null;
 
 	}
 
@@ -83,6 +86,8 @@ public class StyleStorage {
 		else
 			legacy.put(signature, modifiedStyle);
 
+		index = null;
+
 	}
 
 	public Collection<Style> getStyles() {
@@ -100,23 +105,22 @@ public class StyleStorage {
 	}
 	
 	public Style computeMergedStyle(StyleSignatureBasic signature) {
-		Style mergedStyle = null;
-		for (Style style : getStyles()) {
-			final StyleSignatureBasic key = style.getSignature();
-			if (key.matchAll(signature) == false)
-				continue;
+		return getIndex().computeMergedStyle(signature, false, 0);
+	}
 
-			if (mergedStyle == null)
-				mergedStyle = style;
-			else
-				mergedStyle = mergedStyle.mergeWith(style, MergeStrategy.OVERWRITE_EXISTING_VALUE);
+	public Style computeMergedStyleSpecial(StyleSignatureBasic signature, int deltaPriority) {
+		return getIndex().computeMergedStyle(signature, true, deltaPriority);
+	}
 
+	private StyleIndex getIndex() {
+		StyleIndex result = index;
+		if (result == null) {
+			result = new StyleIndex(getStyles());
+			index = result;
 		}
-		return mergedStyle;
+		return result;
 	}
 
-
-
 }
 
 class ConcatIterator<T> implements Iterator<T> {
@@ -57,9 +57,19 @@ public class Bibliotekon {
 	private final List<SvekEdge> lines1 = new ArrayList<>();
 	private final List<SvekEdge> allLines = new ArrayList<>();
 
+	private final Map<Entity, Cluster> clusterByEntity = new HashMap<Entity, Cluster>();
+	private final Map<Entity, List<SvekEdge>> linesByEntity = new HashMap<Entity, List<SvekEdge>>();
+	private final Map<Link, SvekEdge> lineByLink = new HashMap<Link, SvekEdge>();
+	private final Map<SvekNode, Entity> leafByNode = new HashMap<SvekNode, Entity>();
+
 	private final Collection<Link> links;
 	private final ColorSequence colorSequence;
 
+	// The links collection may be a live view of the diagram links, so this index
+	// is rebuilt whenever its size no longer matches
+	private Map<Entity, Entity> otherByEntity;
+	private int otherByEntitySize;
+
 	public Bibliotekon(Collection<Link> links) {
 		this.links = links;
 		this.colorSequence = new ColorSequence();
@@ -71,21 +81,27 @@ public class Bibliotekon {
 
 	public SvekNode createNode(Entity ent, IEntityImage image, StringBounder stringBounder) {
 		final SvekNode node = new SvekNode(ent, image, colorSequence, stringBounder);
-		nodeMap.put(ent, node);
+		final SvekNode previous = nodeMap.put(ent, node);
+		if (previous != null)
+			leafByNode.remove(previous);
+		leafByNode.put(node, ent);
 		// System.err.println("createNode " + ent + " " + nodeMap.size());
 		return node;
 	}
 
 	public Cluster getCluster(Entity ent) {
-		for (Cluster cl : allCluster)
-			if (cl.getGroups().contains(ent))
-				return cl;
-
-		return null;
+		return clusterByEntity.get(ent);
 	}
 
 	public void addLine(SvekEdge line) {
 		allLines.add(line);
+		lineByLink.putIfAbsent(line.getLink(), line);
+		final Entity ent1 = line.getLink().getEntity1();
+		final Entity ent2 = line.getLink().getEntity2();
+		addLineConnectedTo(ent1, line);
+		if (ent2 != ent1)
+			addLineConnectedTo(ent2, line);
+
 		if (first(line)) {
 			if (line.hasNoteLabelText()) {
 				// lines0.add(0, line);
@@ -105,6 +121,15 @@ public class Bibliotekon {
 		}
 	}
 
+	private void addLineConnectedTo(Entity ent, SvekEdge line) {
+		List<SvekEdge> list = linesByEntity.get(ent);
+		if (list == null) {
+			list = new ArrayList<>();
+			linesByEntity.put(ent, list);
+		}
+		list.add(line);
+	}
+
 	private static boolean first(SvekEdge line) {
 		final int length = line.getLength();
 		if (length == 1)
@@ -115,6 +140,8 @@ public class Bibliotekon {
 
 	public void addCluster(Cluster current) {
 		allCluster.add(current);
+		for (Entity group : current.getGroups())
+			clusterByEntity.putIfAbsent(group, current);
 	}
 
 	public SvekNode getNode(Entity ent) {
@@ -184,38 +211,38 @@ public class Bibliotekon {
 	}
 
 	public List<SvekEdge> getAllLineConnectedTo(Entity leaf) {
-		final List<SvekEdge> result = new ArrayList<>();
-		for (SvekEdge line : allLines)
-			if (line.isLinkFromOrTo(leaf))
-				result.add(line);
+		final List<SvekEdge> result = linesByEntity.get(leaf);
+		if (result == null)
+			return Collections.emptyList();
 
-		return Collections.unmodifiableList(result);
+		return Collections.unmodifiableList(new ArrayList<>(result));
 	}
 
 	public SvekEdge getLine(Link link) {
-		for (SvekEdge line : allLines)
-			if (line.isLink(link))
-				return line;
+		final SvekEdge result = lineByLink.get(link);
+		if (result == null)
+			throw new IllegalArgumentException();
 
-		throw new IllegalArgumentException();
+		return result;
 	}
 
 	public Entity getOnlyOther(Entity entity) {
-		for (Link link : links)
-			if (link.contains(entity)) {
-				final Entity other = link.getOther(entity);
-				if (other != null)
-					return other;
-
+		if (otherByEntity == null || otherByEntitySize != links.size()) {
+			otherByEntity = new HashMap<Entity, Entity>();
+			for (Link link : links) {
+				otherByEntity.putIfAbsent(link.getEntity1(), link.getEntity2());
+				otherByEntity.putIfAbsent(link.getEntity2(), link.getEntity1());
 			}
-		return null;
+			otherByEntitySize = links.size();
+		}
+		return otherByEntity.get(entity);
 	}
 
 	public Entity getLeaf(SvekNode node) {
-		for (Map.Entry<Entity, SvekNode> ent : nodeMap.entrySet())
-			if (ent.getValue() == node)
-				return ent.getKey();
+		final Entity result = leafByNode.get(node);
+		if (result == null)
+			throw new IllegalArgumentException();
 
-		throw new IllegalArgumentException();
+		return result;
 	}
 }
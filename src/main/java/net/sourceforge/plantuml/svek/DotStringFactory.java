@@ -55,6 +55,9 @@ import net.sourceforge.plantuml.klimt.font.StringBounder;
 import net.sourceforge.plantuml.klimt.geom.Moveable;
 import net.sourceforge.plantuml.klimt.geom.Rankdir;
 import net.sourceforge.plantuml.klimt.geom.XPoint2D;
+import net.sourceforge.plantuml.metrics.Jfr;
+import net.sourceforge.plantuml.metrics.JfrEvent;
+import net.sourceforge.plantuml.metrics.JfrStage;
 import net.sourceforge.plantuml.security.SFile;
 import net.sourceforge.plantuml.skin.PragmaKey;
 import net.sourceforge.plantuml.skin.UmlDiagramType;
@@ -278,6 +281,7 @@ public final class DotStringFactory implements Moveable {
 
 	public String getSvg(StringBounder stringBounder, DotMode dotMode, BaseFile basefile, String[] dotOptions)
 			throws IOException {
+		final JfrEvent event = Jfr.begin(JfrStage.LAYOUT);
 		String dotString = createDotString(stringBounder, dotMode, dotOptions);
 
 		if (basefile != null) {
@@ -305,14 +309,16 @@ public final class DotStringFactory implements Moveable {
 				throw new IllegalStateException("Timeout4 " + state, state.getCause());
 
 		}
-		final byte[] result = baos.toByteArray();
-		final String s = new String(result, UTF_8);
+		final String s = baos.toString(UTF_8.name());
 
 		if (basefile != null) {
 			final SFile f = basefile.getTraceFile("svek.svg");
 			SvekUtils.traceString(f, s);
 		}
 
+		if (event.isRecording())
+			event.commit(umlDiagramType.name(), -1, bibliotekon.allNodes().size(), "graphviz");
+
 		return s;
 	}
 
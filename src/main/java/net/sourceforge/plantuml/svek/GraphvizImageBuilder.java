@@ -70,6 +70,8 @@ import net.sourceforge.plantuml.klimt.geom.XDimension2D;
 import net.sourceforge.plantuml.klimt.geom.XRectangle2D;
 import net.sourceforge.plantuml.klimt.shape.GraphicStrings;
 import net.sourceforge.plantuml.log.Logme;
+import net.sourceforge.plantuml.metrics.Metrics;
+import net.sourceforge.plantuml.metrics.Phase;
 import net.sourceforge.plantuml.security.SecurityProfile;
 import net.sourceforge.plantuml.security.SecurityUtils;
 import net.sourceforge.plantuml.skin.Pragma;
@@ -270,6 +272,21 @@ public final class GraphvizImageBuilder {
 						|| SecurityUtils.getSecurityProfile() == SecurityProfile.SANDBOX))
 			basefile = new BaseFile(null);
 
+		final long start = Metrics.start();
+		try {
+			return layout(stringBounder, basefile, dotStrings);
+		} finally {
+			Metrics.stop(Phase.LAYOUT, start);
+		}
+		// ::done
+		// ::uncomment when __CORE__
+		// return null;
+		// ::done
+
+	}
+
+	// ::comment when __CORE__
+	private IEntityImage layout(StringBounder stringBounder, BaseFile basefile, String dotStrings[]) {
 		final String svg;
 		try {
 			svg = dotStringFactory.getSvg(stringBounder, dotMode, basefile, dotStrings);
@@ -292,12 +309,8 @@ public final class GraphvizImageBuilder {
 			throw new UnparsableGraphvizException(e, graphvizVersion, svg,
 					source.getPlainString(BackSlash.lineSeparator()));
 		}
-		// ::done
-		// ::uncomment when __CORE__
-		// return null;
-		// ::done
-
 	}
+	// ::done
 
 	private boolean isSvekTrace() {
 		final String value = pragma.getValue(PragmaKey.SVEK_TRACE);
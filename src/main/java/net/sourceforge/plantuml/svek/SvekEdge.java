@@ -1189,6 +1189,10 @@ public class SvekEdge extends XAbstractEdge implements XEdge, UDrawable {
 		return this.link == link;
 	}
 
+	Link getLink() {
+		return link;
+	}
+
 	public XPoint2D getStartContactPoint() {
 		if (dotPath == null)
 			return null;
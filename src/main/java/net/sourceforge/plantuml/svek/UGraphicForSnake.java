@@ -36,7 +36,12 @@
 package net.sourceforge.plantuml.svek;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import net.sourceforge.plantuml.activitydiagram3.ftile.Snake;
 import net.sourceforge.plantuml.klimt.UChange;
@@ -44,12 +49,13 @@ import net.sourceforge.plantuml.klimt.UShape;
 import net.sourceforge.plantuml.klimt.UTranslate;
 import net.sourceforge.plantuml.klimt.drawing.UGraphic;
 import net.sourceforge.plantuml.klimt.drawing.UGraphicDelegator;
+import net.sourceforge.plantuml.klimt.geom.XPoint2D;
 
 public class UGraphicForSnake extends UGraphicDelegator {
 
 	private final double dx;
 	private final double dy;
-	private final List<PendingSnake> snakes;
+	private final PendingSnakes snakes;
 
 	@Override
 	public String toString() {
@@ -62,6 +68,7 @@ public class UGraphicForSnake extends UGraphicDelegator {
 
 	static class PendingSnake {
 		private Snake snake;
+		private Snake moved;
 		private final UGraphic ug;
 		private final double dx;
 		private final double dy;
@@ -77,30 +84,38 @@ public class UGraphicForSnake extends UGraphicDelegator {
 			snake.drawInternal(ug);
 		}
 
-		void removeEndDecorationIfTouches(List<PendingSnake> snakes) {
-			for (PendingSnake other : snakes) {
+		void removeEndDecorationIfTouches(EndPointIndex<PendingSnake> firstPoints) {
+			final List<PendingSnake> candidates = new ArrayList<>();
+			firstPoints.collect(moved().getLast(), candidates);
+			for (PendingSnake other : candidates) {
 				if (moved().touches(other.moved())) {
 					this.snake = this.snake.withoutEndDecoration();
+					this.moved = null;
 					return;
 				}
 			}
 		}
 
+		// Moving a snake copies its whole worm: keep the result as it is asked for
+		// again and again while merging
 		private Snake moved() {
-			return snake.move(dx, dy);
+			if (moved == null)
+				moved = snake.move(dx, dy);
+
+			return moved;
 		}
 
 		@Override
 		public String toString() {
-			return "dx=" + dx + " dy=" + dy + " " + snake.move(dx, dy).toString();
+			return "dx=" + dx + " dy=" + dy + " " + moved().toString();
 		}
 
 		public PendingSnake merge(PendingSnake newItem) {
 			// if (snake.isMergeable() == false || newItem.snake.isMergeable() == false) {
 			// return null;
 			// }
-			final Snake s1 = snake.move(dx, dy);
-			final Snake s2 = newItem.snake.move(newItem.dx, newItem.dy);
+			final Snake s1 = moved();
+			final Snake s2 = newItem.moved();
 			final Snake merge = s1.merge(s2, ug.getStringBounder());
 			if (merge == null) {
 				return null;
@@ -110,11 +125,112 @@ public class UGraphicForSnake extends UGraphicDelegator {
 
 	}
 
+	/**
+	 * Objects indexed by a point, found back from any point close enough to be
+	 * considered the same by {@link Snake}.
+	 */
+	static class EndPointIndex<O> {
+
+		private static final double CELL = 0.001;
+
+		private final Map<Long, List<O>> cells = new HashMap<>();
+
+		private static long key(long cx, long cy) {
+			return (cx << 32) ^ (cy & 0xFFFFFFFFL);
+		}
+
+		void add(XPoint2D pt, O value) {
+			final long key = key((long) Math.floor(pt.getX() / CELL), (long) Math.floor(pt.getY() / CELL));
+			List<O> list = cells.get(key);
+			if (list == null) {
+				list = new ArrayList<>(2);
+				cells.put(key, list);
+			}
+			list.add(value);
+		}
+
+		void remove(XPoint2D pt, O value) {
+			final long key = key((long) Math.floor(pt.getX() / CELL), (long) Math.floor(pt.getY() / CELL));
+			final List<O> list = cells.get(key);
+			if (list != null)
+				list.remove(value);
+		}
+
+		void collect(XPoint2D pt, Collection<O> result) {
+			final long cx = (long) Math.floor(pt.getX() / CELL);
+			final long cy = (long) Math.floor(pt.getY() / CELL);
+			for (long i = cx - 1; i <= cx + 1; i++)
+				for (long j = cy - 1; j <= cy + 1; j++) {
+					final List<O> list = cells.get(key(i, j));
+					if (list != null)
+						result.addAll(list);
+				}
+		}
+
+		void clear() {
+			cells.clear();
+		}
+
+	}
+
+	/**
+	 * Snakes waiting for the flush, with their end points indexed: only snakes
+	 * sharing an end point can be merged.
+	 */
+	static class PendingSnakes {
+
+		private final List<PendingSnake> list = new ArrayList<>();
+		private final EndPointIndex<Integer> firstPoints = new EndPointIndex<>();
+		private final EndPointIndex<Integer> lastPoints = new EndPointIndex<>();
+
+		void add(PendingSnake newItem) {
+			final int pos = list.size();
+			list.add(newItem);
+			firstPoints.add(newItem.moved().getFirst(), pos);
+			lastPoints.add(newItem.moved().getLast(), pos);
+		}
+
+		boolean tryMerge(PendingSnake newItem) {
+			// Same order as a scan of the whole list, restricted to possible merges
+			final Set<Integer> candidates = new TreeSet<>();
+			lastPoints.collect(newItem.moved().getFirst(), candidates);
+			firstPoints.collect(newItem.moved().getLast(), candidates);
+			for (int pos : candidates) {
+				final PendingSnake current = list.get(pos);
+				final PendingSnake merge = current.merge(newItem);
+				if (merge != null) {
+					firstPoints.remove(current.moved().getFirst(), pos);
+					lastPoints.remove(current.moved().getLast(), pos);
+					list.set(pos, merge);
+					firstPoints.add(merge.moved().getFirst(), pos);
+					lastPoints.add(merge.moved().getLast(), pos);
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void flush() {
+			final EndPointIndex<PendingSnake> touchable = new EndPointIndex<>();
+			for (PendingSnake snake : list)
+				touchable.add(snake.moved().getFirst(), snake);
+
+			for (PendingSnake snake : list) {
+				snake.removeEndDecorationIfTouches(touchable);
+				snake.drawInternal();
+			}
+			list.clear();
+			firstPoints.clear();
+			lastPoints.clear();
+		}
+
+	}
+
 	public UGraphicForSnake(UGraphic ug) {
-		this(ug, 0, 0, new ArrayList<PendingSnake>());
+		this(ug, 0, 0, new PendingSnakes());
 	}
 
-	private UGraphicForSnake(UGraphic ug, double dx, double dy, List<PendingSnake> snakes) {
+	private UGraphicForSnake(UGraphic ug, double dx, double dy, PendingSnakes snakes) {
 		super(ug);
 		this.dx = dx;
 		this.dy = dy;
@@ -132,23 +248,13 @@ public class UGraphicForSnake extends UGraphicDelegator {
 
 	private void addPendingSnake(final Snake snake) {
 		final PendingSnake newItem = new PendingSnake(snake, getUg(), dx, dy);
-		for (int pos = 0; pos < snakes.size(); pos++) {
-			final PendingSnake merge = snakes.get(pos).merge(newItem);
-			if (merge != null) {
-				snakes.set(pos, merge);
-				return;
-			}
-		}
-		snakes.add(newItem);
+		if (snakes.tryMerge(newItem) == false)
+			snakes.add(newItem);
 	}
 
 	@Override
 	public void flushUg() {
-		for (PendingSnake snake : snakes) {
-			snake.removeEndDecorationIfTouches(snakes);
-			snake.drawInternal();
-		}
-		snakes.clear();
+		snakes.flush();
 	}
 
 	public UGraphic apply(UChange change) {
@@ -161,4 +267,4 @@ public class UGraphicForSnake extends UGraphicDelegator {
 		return new UGraphicForSnake(getUg().apply(change), newdx, newdy, snakes);
 	}
 
-}
\ No newline at end of file
+}
@@ -55,6 +55,7 @@ import net.sourceforge.plantuml.klimt.geom.XDimension2D;
 import net.sourceforge.plantuml.klimt.geom.XPoint2D;
 import net.sourceforge.plantuml.klimt.shape.UDrawable;
 import net.sourceforge.plantuml.klimt.shape.UEllipse;
+import net.sourceforge.plantuml.klimt.shape.UEmbedded;
 import net.sourceforge.plantuml.klimt.shape.UEmpty;
 import net.sourceforge.plantuml.klimt.shape.UHorizontalLine;
 import net.sourceforge.plantuml.klimt.shape.UImage;
@@ -107,6 +108,8 @@ public class Footprint {
 				// Probably a Horizontal line
 			} else if (shape instanceof UImage) {
 				drawImage(x, y, (UImage) shape);
+			} else if (shape instanceof UEmbedded) {
+				drawEmbedded(x, y, (UEmbedded) shape);
 			} else if (shape instanceof UPath) {
 				drawPath(x, y, (UPath) shape);
 			} else if (shape instanceof URectangle) {
@@ -145,6 +148,13 @@ public class Footprint {
 			addPoint(x + image.getWidth(), y + image.getHeight());
 		}
 
+		private void drawEmbedded(double x, double y, UEmbedded embedded) {
+			addPoint(x, y);
+			addPoint(x, y + embedded.getHeight());
+			addPoint(x + embedded.getWidth(), y);
+			addPoint(x + embedded.getWidth(), y + embedded.getHeight());
+		}
+
 		private void drawPath(double x, double y, UPath path) {
 			addPoint(x + path.getMinX(), y + path.getMinY());
 			addPoint(x + path.getMaxX(), y + path.getMaxY());
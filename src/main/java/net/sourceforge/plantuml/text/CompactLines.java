@@ -0,0 +1,172 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ * 
+ */
+package net.sourceforge.plantuml.text;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import net.sourceforge.plantuml.utils.LineLocation;
+import net.sourceforge.plantuml.utils.LineLocationImpl;
+
+/**
+ * Read-only list of lines packed into a single buffer.
+ * <p>
+ * All characters are stored in one <code>byte[]</code> (or <code>char[]</code>
+ * when some line is not Latin-1) with an offset table, and line locations are
+ * kept as a position plus a reference to a shared (description, parent)
+ * prototype. {@link StringLocated} instances are only created when a line is
+ * read back, which makes this class suitable for sources that are retained but
+ * seldom read, such as the raw text of a diagram.
+ */
+public final class CompactLines extends AbstractList<StringLocated> implements RandomAccess {
+	// ::remove folder when __HAXE__
+
+	private final byte[] latin1;
+	private final char[] chars;
+	private final int[] offsets;
+	private final int[] positions;
+	private final int[] origins;
+	private final LineLocation[] prototypes;
+	private final Map<Integer, LineLocation> otherLocations;
+	private final Map<Integer, String> preprocessorErrors;
+
+	private CompactLines(List<StringLocated> lines) {
+		final int size = lines.size();
+		this.offsets = new int[size + 1];
+		this.positions = new int[size];
+		this.origins = new int[size];
+
+		boolean onlyLatin1 = true;
+		for (int i = 0; i < size; i++) {
+			final String s = lines.get(i).getString();
+			offsets[i + 1] = offsets[i] + s.length();
+			if (onlyLatin1)
+				onlyLatin1 = isLatin1(s);
+		}
+		this.latin1 = onlyLatin1 ? new byte[offsets[size]] : null;
+		this.chars = onlyLatin1 ? null : new char[offsets[size]];
+
+		final Map<List<Object>, Integer> interned = new HashMap<>();
+		final List<LineLocation> protos = new ArrayList<>();
+		final Map<Integer, LineLocation> others = new HashMap<>();
+		final Map<Integer, String> errors = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			final StringLocated line = lines.get(i);
+			final String s = line.getString();
+			if (onlyLatin1)
+				for (int j = 0; j < s.length(); j++)
+					latin1[offsets[i] + j] = (byte) s.charAt(j);
+			else
+				s.getChars(0, s.length(), chars, offsets[i]);
+
+			final LineLocation location = line.getLocation();
+			if (location instanceof LineLocationImpl) {
+				// The parent is compared by identity, as LineLocationImpl does not override
+				// equals()
+				final List<Object> key = Arrays.<Object>asList(location.getDescription(), location.getParent());
+				Integer origin = interned.get(key);
+				if (origin == null) {
+					origin = protos.size();
+					protos.add(location);
+					interned.put(key, origin);
+				}
+				origins[i] = origin;
+				positions[i] = location.getPosition();
+			} else {
+				origins[i] = -1;
+				if (location != null)
+					others.put(i, location);
+			}
+			if (line.getPreprocessorError() != null)
+				errors.put(i, line.getPreprocessorError());
+		}
+		this.prototypes = protos.toArray(new LineLocation[0]);
+		this.otherLocations = others.isEmpty() ? null : others;
+		this.preprocessorErrors = errors.isEmpty() ? null : errors;
+	}
+
+	public static CompactLines copyOf(List<StringLocated> lines) {
+		if (lines instanceof CompactLines)
+			return (CompactLines) lines;
+		return new CompactLines(lines);
+	}
+
+	private static boolean isLatin1(String s) {
+		for (int i = 0; i < s.length(); i++)
+			if (s.charAt(i) > 0xFF)
+				return false;
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return positions.length;
+	}
+
+	@Override
+	public StringLocated get(int index) {
+		if (index < 0 || index >= size())
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		return new StringLocated(getString(index), getLocation(index),
+				preprocessorErrors == null ? null : preprocessorErrors.get(index));
+	}
+
+	private String getString(int index) {
+		final int start = offsets[index];
+		final int len = offsets[index + 1] - start;
+		if (latin1 != null)
+			return new String(latin1, start, len, StandardCharsets.ISO_8859_1);
+		return new String(chars, start, len);
+	}
+
+	private LineLocation getLocation(int index) {
+		final int origin = origins[index];
+		if (origin == -1)
+			return otherLocations == null ? null : otherLocations.get(index);
+
+		final LineLocation prototype = prototypes[origin];
+		if (prototype.getPosition() == positions[index])
+			return prototype;
+		return ((LineLocationImpl) prototype).atPosition(positions[index]);
+	}
+
+}
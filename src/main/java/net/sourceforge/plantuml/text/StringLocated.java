@@ -37,6 +37,7 @@ package net.sourceforge.plantuml.text;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.regex.Matcher;
@@ -102,6 +103,9 @@ final public class StringLocated {
 	}
 
 	public List<StringLocated> expandsBreaklineButEmbedded() {
+		if (s.indexOf(Jaws.BLOCK_E1_BREAKLINE) == -1)
+			return Collections.singletonList(this);
+
 		final List<StringLocated> copy = new ArrayList<>();
 		int level = 0;
 		StringBuilder pending = new StringBuilder();
@@ -233,9 +237,14 @@ final public class StringLocated {
 
 	public StringLocated getTrimmed() {
 		if (trimmed == null) {
-			this.trimmed = new StringLocated(StringUtils.trin(this.getString()), location, preprocessorError);
-			trimmed.fox = this.fox;
-			trimmed.trimmed = trimmed;
+			final String trin = StringUtils.trin(this.getString());
+			if (trin.length() == s.length()) {
+				this.trimmed = this;
+			} else {
+				this.trimmed = new StringLocated(trin, location, preprocessorError);
+				trimmed.fox = this.fox;
+				trimmed.trimmed = trimmed;
+			}
 		}
 		return trimmed;
 	}
@@ -497,6 +497,10 @@ public class TContext {
 		if (result == null)
 			return null;
 
+		// Most lines have nothing to substitute: keep sharing the source line
+		if (located.getPreprocessorError() == null && result.equals(located.getString()))
+			return new StringLocated[] { located };
+
 		if (Pragma.legacyReplaceBackslashNByNewline()) {
 			final String[] splited = result.split("\n");
 			final StringLocated[] tab = new StringLocated[splited.length];
@@ -39,7 +39,11 @@ import java.util.List;
 import java.util.Set;
 
 import net.sourceforge.plantuml.DefinitionsContainer;
+import net.sourceforge.plantuml.core.DiagramType;
 import net.sourceforge.plantuml.log.Logme;
+import net.sourceforge.plantuml.metrics.Jfr;
+import net.sourceforge.plantuml.metrics.JfrEvent;
+import net.sourceforge.plantuml.metrics.JfrStage;
 import net.sourceforge.plantuml.preproc.PreprocessingArtifact;
 import net.sourceforge.plantuml.preproc.Defines;
 import net.sourceforge.plantuml.preproc.FileWithSuffix;
@@ -66,6 +70,7 @@ public class TimLoader {
 
 	public Set<FileWithSuffix> load(List<StringLocated> list) {
 //		CodeIteratorImpl.indentNow(list);
+		final JfrEvent event = Jfr.begin(JfrStage.PREPROCESS);
 		try {
 			context.executeLines(global, list, null, false);
 		} catch (EaterException e) {
@@ -75,6 +80,10 @@ public class TimLoader {
 		}
 		this.resultList = context.getResultList();
 		this.preprocessingArtifact = context.getPreprocessingArtifact();
+		if (event.isRecording())
+			event.commit(Jfr.diagramType(null, DiagramType.getTypeFromArobaseStart(list.get(0).getString())),
+					list.size(), -1, null);
+
 		return context.getFilesUsedCurrent();
 	}
 
@@ -63,6 +63,10 @@ public class LineLocationImpl implements LineLocation {
 		return new LineLocationImpl(desc, parent, position + 1);
 	}
 
+	public LineLocationImpl atPosition(int position) {
+		return new LineLocationImpl(desc, parent, position);
+	}
+
 	public int getPosition() {
 		return position;
 	}
@@ -20,9 +20,8 @@
 package org.stathissideris.ascii2image.text;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.NoSuchElementException;
 
 /**
  * 
@@ -39,44 +38,187 @@ public class CellSet implements Iterable<TextGrid.Cell> {
 	public static final int TYPE_HAS_CLOSED_AREA = 3;
 	public static final int TYPE_UNDETERMINED = 4;
 
-	Set<TextGrid.Cell> internalSet = new HashSet<TextGrid.Cell>();
+	// Only used as the enclosing instance of the cells handed out
+	private static final TextGrid CELLS = new TextGrid();
+
+	// The cells are bits of a rectangle of the plane, row by row, that grows
+	// as cells are added. Iteration is in row-major order.
+	private int originX;
+	private int originY;
+	private int width;
+	private int height;
+	private int wordsPerRow;
+	private long[] bits;
+	private int size;
 	
 	private int type = TYPE_UNDETERMINED;
 	private boolean typeIsValid = false;
 
-	private static final Object FAKE = new Object();
-	
 	public CellSet(){
 		
 	}
 	
+	/**
+	 * An empty set with room for the cells of the given rectangle
+	 */
+	CellSet(int x, int y, int width, int height){
+		originX = x;
+		originY = y;
+		wordsPerRow = Math.max(1, (width + 63) >>> 6);
+		this.width = wordsPerRow * 64;
+		this.height = Math.max(1, height);
+		bits = new long[wordsPerRow * this.height];
+	}
+	
 	public CellSet(CellSet other){
-		addAll(other);
+		originX = other.originX;
+		originY = other.originY;
+		width = other.width;
+		height = other.height;
+		wordsPerRow = other.wordsPerRow;
+		bits = other.bits == null ? null : other.bits.clone();
+		size = other.size;
 	}
 	
 	public Iterator<TextGrid.Cell> iterator(){
-		return internalSet.iterator();
+		return new Iterator<TextGrid.Cell>() {
+			private int next = nextIndex(0);
+			private int last = -1;
+
+			public boolean hasNext() {
+				return next != -1;
+			}
+
+			public TextGrid.Cell next() {
+				if(next == -1) throw new NoSuchElementException();
+				last = next;
+				next = nextIndex(next + 1);
+				return cellAt(last);
+			}
+
+			public void remove() {
+				if(last == -1) throw new IllegalStateException();
+				clearBit(last);
+				last = -1;
+			}
+		};
 	}
 
 	public Object add(TextGrid.Cell cell){
-		return internalSet.add(cell);
+		return add(cell.x, cell.y);
+	}
+
+	public boolean add(int x, int y){
+		ensureContains(x, y);
+		final int index = (y - originY) * wordsPerRow * 64 + (x - originX);
+		final long mask = 1L << index;
+		if((bits[index >>> 6] & mask) != 0) return false;
+		bits[index >>> 6] |= mask;
+		size++;
+		return true;
 	}
 
 	public void addAll(CellSet set){
-		internalSet.addAll(set.internalSet);
+		if(set.size == 0) return;
+		for(int i = set.nextIndex(0); i != -1; i = set.nextIndex(i + 1))
+			add(set.xAt(i), set.yAt(i));
 	}
 	
 	void clear(){
-		internalSet.clear();
+		bits = null;
+		width = 0;
+		height = 0;
+		wordsPerRow = 0;
+		size = 0;
 	}
 	
 	public int size() {
-		return internalSet.size();
+		return size;
 	}
 	
 	public TextGrid.Cell getFirst(){
-		//return internalSet.get(0);
-		return (TextGrid.Cell) internalSet.iterator().next();
+		final int index = nextIndex(0);
+		if(index == -1) throw new NoSuchElementException();
+		return cellAt(index);
+	}
+
+	private void ensureContains(int x, int y){
+		if(bits != null && x >= originX && y >= originY && x < originX + width && y < originY + height)
+			return;
+		if(bits == null) {
+			// Room for a few neighbours without growing right away
+			originX = x - 4;
+			originY = y - 4;
+			width = 64;
+			height = 16;
+			wordsPerRow = 1;
+			bits = new long[height];
+			return;
+		}
+		// Grow on the missing side only, with some slack as sets are
+		// usually filled in a direction
+		int newX = originX;
+		int newY = originY;
+		int right = originX + width;
+		int bottom = originY + height;
+		if(x < newX) newX = Math.min(x, originX - width / 2);
+		else if(x >= right) right = Math.max(x + 1, right + width / 2);
+		if(y < newY) newY = Math.min(y, originY - height / 2);
+		else if(y >= bottom) bottom = Math.max(y + 1, bottom + height / 2);
+		final int newHeight = bottom - newY;
+		final int newWordsPerRow = (right - newX + 63) >>> 6;
+		final long[] newBits = new long[newWordsPerRow * newHeight];
+		for(int i = nextIndex(0); i != -1; i = nextIndex(i + 1)) {
+			final int index = (yAt(i) - newY) * newWordsPerRow * 64 + (xAt(i) - newX);
+			newBits[index >>> 6] |= 1L << index;
+		}
+		originX = newX;
+		originY = newY;
+		width = newWordsPerRow * 64;
+		height = newHeight;
+		wordsPerRow = newWordsPerRow;
+		bits = newBits;
+	}
+
+	private int indexOf(int x, int y){
+		if(bits == null || x < originX || y < originY || x >= originX + width || y >= originY + height)
+			return -1;
+		return (y - originY) * wordsPerRow * 64 + (x - originX);
+	}
+
+	private boolean contains(int x, int y){
+		final int index = indexOf(x, y);
+		return index != -1 && (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private void clearBit(int index){
+		typeIsValid = false;
+		bits[index >>> 6] &= ~(1L << index);
+		size--;
+	}
+
+	private int nextIndex(int from){
+		if(bits == null) return -1;
+		int word = from >>> 6;
+		if(word >= bits.length) return -1;
+		long current = bits[word] & (-1L << from);
+		while(true) {
+			if(current != 0) return word * 64 + Long.numberOfTrailingZeros(current);
+			if(++word == bits.length) return -1;
+			current = bits[word];
+		}
+	}
+
+	private int xAt(int index){
+		return originX + index % (wordsPerRow * 64);
+	}
+
+	private int yAt(int index){
+		return originY + index / (wordsPerRow * 64);
+	}
+
+	private TextGrid.Cell cellAt(int index){
+		return CELLS.new Cell(xAt(index), yAt(index));
 	}
 	
 	public void printAsGrid(){
@@ -118,16 +260,7 @@ public class CellSet implements Iterable<TextGrid.Cell> {
 	 * @return
 	 */
 	public static CellSet copyCellSet(CellSet set) {
-		TextGrid grid = new TextGrid();
-		CellSet newSet = new CellSet();
-		
-		Iterator<TextGrid.Cell> it = set.iterator();
-		while (it.hasNext()) {
-			TextGrid.Cell cell = (TextGrid.Cell) it.next();
-			TextGrid.Cell newCell = grid.new Cell(cell);
-			newSet.add(newCell);
-		}
-		return newSet;
+		return new CellSet(set);
 	}
 
 	/*public BoundarySet(BoundarySet set) {
@@ -287,26 +420,18 @@ public class CellSet implements Iterable<TextGrid.Cell> {
 
 	public void translate(int dx, int dy){
 		typeIsValid = false;
-		Iterator<TextGrid.Cell> it = iterator();
-		while(it.hasNext()){
-			TextGrid.Cell cCell = it.next();
-			cCell.x += dx;
-			cCell.y += dy;
-		}	
+		originX += dx;
+		originY += dy;
 	}
 
 	public TextGrid.Cell find(TextGrid.Cell cell){
-		Iterator<TextGrid.Cell> it = iterator();
-		while(it.hasNext()){
-			TextGrid.Cell cCell = it.next();
-			if(cCell.equals(cell)) return cCell;
-		}
+		if(contains(cell.x, cell.y)) return CELLS.new Cell(cell);
 		return null;		
 	}
 
 	public boolean contains(TextGrid.Cell cell){
 		if(cell == null) return false;
-		return internalSet.contains(cell);
+		return contains(cell.x, cell.y);
 	}
 	
 //	public boolean contains(TextGrid.Cell cell){
@@ -333,11 +458,7 @@ public class CellSet implements Iterable<TextGrid.Cell> {
 	}
 
 	public TextGrid.Cell find(int x, int y){
-		Iterator<TextGrid.Cell> it = iterator();
-		while(it.hasNext()){
-			TextGrid.Cell cCell = it.next();
-			if(cCell.x == x && cCell.y == y) return cCell;
-		}
+		if(contains(x, y)) return CELLS.new Cell(x, y);
 		return null;		
 	}
 	
@@ -376,11 +497,11 @@ public class CellSet implements Iterable<TextGrid.Cell> {
 	 * @return
 	 */
 	public TextGrid.Cell findCellNextTo(TextGrid.Cell cell){
-		Iterator<TextGrid.Cell> it = iterator();
-		while(it.hasNext()){
-			TextGrid.Cell cCell = it.next();
-			if(cCell.isNextTo(cell)) return cCell;
-		}
+		// in iteration order
+		if(contains(cell.x, cell.y - 1)) return CELLS.new Cell(cell.x, cell.y - 1);
+		if(contains(cell.x - 1, cell.y)) return CELLS.new Cell(cell.x - 1, cell.y);
+		if(contains(cell.x + 1, cell.y)) return CELLS.new Cell(cell.x + 1, cell.y);
+		if(contains(cell.x, cell.y + 1)) return CELLS.new Cell(cell.x, cell.y + 1);
 		return null;
 	}
 
@@ -393,30 +514,23 @@ public class CellSet implements Iterable<TextGrid.Cell> {
 	public CellSet findCellsNextTo(TextGrid.Cell cell){
 		if(cell == null) throw new IllegalArgumentException("cell cannot be null");
 		CellSet set = new CellSet();
-		Iterator<TextGrid.Cell> it = iterator();
-		while(it.hasNext()){
-			TextGrid.Cell cCell = it.next();
-			if(cCell.isNextTo(cell)) set.add(cCell);
-		}
+		if(contains(cell.x, cell.y - 1)) set.add(cell.x, cell.y - 1);
+		if(contains(cell.x - 1, cell.y)) set.add(cell.x - 1, cell.y);
+		if(contains(cell.x + 1, cell.y)) set.add(cell.x + 1, cell.y);
+		if(contains(cell.x, cell.y + 1)) set.add(cell.x, cell.y + 1);
 		return set;
 	}
 	
 	public void appendSet(CellSet set){
 		typeIsValid = false;
-		Iterator<TextGrid.Cell> it = set.iterator();
-		while(it.hasNext()){
-			TextGrid.Cell cell = it.next();
-			if(find(cell) == null) add(cell);
-		}	
+		addAll(set);
 	}
 	
 	public void subtractSet(CellSet set){
 		typeIsValid = false;
-		Iterator<TextGrid.Cell> it = set.iterator();
-		while(it.hasNext()){
-			TextGrid.Cell cell = it.next();
-			TextGrid.Cell thisCell = find(cell);
-			if(thisCell != null) remove(thisCell);
+		for(int i = set.nextIndex(0); i != -1; i = set.nextIndex(i + 1)) {
+			final int index = indexOf(set.xAt(i), set.yAt(i));
+			if(index != -1 && (bits[index >>> 6] & (1L << index)) != 0) clearBit(index);
 		}
 	}
 
@@ -431,56 +545,47 @@ public class CellSet implements Iterable<TextGrid.Cell> {
 	
 	public int getMaxX(){
 		int result = 0;
-		Iterator<TextGrid.Cell> it = iterator();
-		while(it.hasNext()){
-			TextGrid.Cell cell = it.next();
-			if(cell.x > result) result = cell.x;
-		}
+		for(int i = nextIndex(0); i != -1; i = nextIndex(i + 1))
+			if(xAt(i) > result) result = xAt(i);
 		return result;
 	}
 
 	public int getMinX(){
 		int result = Integer.MAX_VALUE;
-		Iterator<TextGrid.Cell> it = iterator();
-		while(it.hasNext()){
-			TextGrid.Cell cell = it.next();
-			if(cell.x < result) result = cell.x;
-		}
+		for(int i = nextIndex(0); i != -1; i = nextIndex(i + 1))
+			if(xAt(i) < result) result = xAt(i);
 		return result;
 	}
 
 
 	public int getMaxY(){
 		int result = 0;
-		Iterator<TextGrid.Cell> it = iterator();
-		while(it.hasNext()){
-			TextGrid.Cell cell = it.next();
-			if(cell.y > result) result = cell.y;
-		}
+		for(int i = nextIndex(0); i != -1; i = nextIndex(i + 1))
+			if(yAt(i) > result) result = yAt(i);
 		return result;
 	}
 
 	public int getMinY(){
 		int result = Integer.MAX_VALUE;
-		Iterator<TextGrid.Cell> it = iterator();
-		while(it.hasNext()){
-			TextGrid.Cell cell = it.next();
-			if(cell.y < result) result = cell.y;
-		}
+		for(int i = nextIndex(0); i != -1; i = nextIndex(i + 1))
+			if(yAt(i) < result) result = yAt(i);
 		return result;
 	}
 
 
 	public Object remove(TextGrid.Cell cell){
 		typeIsValid = false;
-		cell = find(cell);
-		if(cell != null) return internalSet.remove(cell);
-		else return null;
+		if(contains(cell.x, cell.y) == false) return null;
+		clearBit(indexOf(cell.x, cell.y));
+		return Boolean.TRUE;
 	}
 
 	public boolean equals(Object o){
 		CellSet otherSet = (CellSet) o;
-		return internalSet.equals(otherSet.internalSet);
+		if(size != otherSet.size) return false;
+		for(int i = nextIndex(0); i != -1; i = nextIndex(i + 1))
+			if(otherSet.contains(xAt(i), yAt(i)) == false) return false;
+		return true;
 	}
 
 	
@@ -108,7 +108,7 @@ public class GridPattern extends TextGrid {
 		if(!regExpsAreValid) prepareRegExps(); 
 
 		for(int i = 0; i < grid.getHeight(); i++) {
-			String row = grid.getRow(i).toString();
+			String row = grid.getRowAsString(i);
 			Pattern regexp = regExps.get(i);
 			if(!regexp.matcher(row).matches()) {
 				if(DEBUG)
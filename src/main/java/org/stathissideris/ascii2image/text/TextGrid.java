@@ -22,6 +22,7 @@ package org.stathissideris.ascii2image.text;
 import java.awt.Color;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -41,7 +42,10 @@ public class TextGrid {
 
 	private static final boolean DEBUG = false;
 
-	private ArrayList<StringBuilder> rows;
+	// All the rows one after the other, each one getWidth() chars long
+	private char[] buffer;
+	private int width;
+	private int height;
 
 	private static char[] boundaries = {'/', '\\', '|', '-', '*', '=', ':'};
 	private static char[] undisputableBoundaries = {'|', '-', '*', '=', ':'};
@@ -93,14 +97,14 @@ public class TextGrid {
 	
 
 	public TextGrid(){
-		rows = new ArrayList<StringBuilder>();
+		buffer = new char[0];
 	}
 	
 	public TextGrid(int width, int height){
-		String space = StringUtils.repeatString(" ", width);
-		rows = new ArrayList<StringBuilder>();
-		for(int i = 0; i < height; i++)
-			rows.add(new StringBuilder(space));
+		this.width = width;
+		this.height = height;
+		buffer = new char[width * height];
+		Arrays.fill(buffer, ' ');
 	}
 
 	public static TextGrid makeSameSizeAs(TextGrid grid){
@@ -109,46 +113,50 @@ public class TextGrid {
 
 
 	public TextGrid(TextGrid otherGrid){
-		rows = new ArrayList<StringBuilder>();
-		for(StringBuilder row : otherGrid.getRows()) {
-			rows.add(new StringBuilder(row));
-		}		
+		width = otherGrid.width;
+		height = otherGrid.height;
+		buffer = otherGrid.buffer.clone();
 	}
 
 	public void clear(){
-		String blank = StringUtils.repeatString(" ", getWidth());
-		int height = getHeight();
-		rows.clear();
-		for(int i = 0; i < height; i++)
-			rows.add(new StringBuilder(blank)); 
+		Arrays.fill(buffer, ' ');
 	}
 
 //	duplicated code due to lots of hits to this function
 	public char get(int x, int y){
-		if(x > getWidth() - 1
-			|| y > getHeight() - 1
+		if(x > width - 1
+			|| y > height - 1
 			|| x < 0
 			|| y < 0) return 0;
-		return rows.get(y).charAt(x);
+		return buffer[y * width + x];
 	}
 
-	//duplicated code due to lots of hits to this function
 	public char get(Cell cell){
-		if(cell.x > getWidth() - 1
-			|| cell.y > getHeight() - 1
-			|| cell.x < 0
-			|| cell.y < 0) return 0;
-		return rows.get(cell.y).charAt(cell.x);
+		return get(cell.x, cell.y);
 	}
 	
+	/**
+	 * Returns a copy of the row: changing it does not change the grid,
+	 * use {@link #setRow(int, StringBuilder)} for that.
+	 */
 	public StringBuilder getRow(int y){
-		return rows.get(y);
+		return new StringBuilder(width).append(buffer, rowStart(y), width);
+	}
+
+	String getRowAsString(int y){
+		return new String(buffer, rowStart(y), width);
+	}
+
+	private int rowStart(int y){
+		if(y < 0 || y >= height) throw new IndexOutOfBoundsException("Row: " + y);
+		return y * width;
 	}
 
 	public TextGrid getSubGrid(int x, int y, int width, int height){
+		if(x < 0 || x + width > this.width) throw new IndexOutOfBoundsException("Column: " + x);
 		TextGrid grid = new TextGrid(width, height);
 		for(int i = 0; i < height; i++){
-			grid.setRow(i, new StringBuilder(getRow(y + i).subSequence(x, x + width)));
+			System.arraycopy(buffer, rowStart(y + i) + x, grid.buffer, i * width, width);
 		}
 		return grid;
 	}
@@ -169,7 +177,7 @@ public class TextGrid {
 			|| y > getHeight() - 1
 			|| x < 0
 			|| y < 0) return null;
-		return rows.get(y).substring(x, x + length);		
+		return getRowAsString(y).substring(x, x + length);		
 	}
 
 	public char getNorthOf(int x, int y){ return get(x, y - 1); }
@@ -188,7 +196,7 @@ public class TextGrid {
 
 	public void writeStringTo(Cell cell, String str){
 		if(isOutOfBounds(cell)) return;
-		rows.get(cell.y).replace(cell.x, cell.x + str.length(), str);
+		str.getChars(0, Math.min(str.length(), width - cell.x), buffer, cell.y * width + cell.x);
 	}
 
 	public void set(Cell cell, char c){
@@ -196,34 +204,33 @@ public class TextGrid {
 	}
 
 	public void set(int x, int y, char c){
-		if(x > getWidth() - 1 || y > getHeight() - 1) return;
-		StringBuilder row = rows.get(y);
-		row.setCharAt(x, c);
+		if(x > width - 1 || y > height - 1) return;
+		if(x < 0 || y < 0) throw new IndexOutOfBoundsException("Cell: " + x + ", " + y);
+		buffer[y * width + x] = c;
 	}
 	
 	public void setRow(int y, String row){
 		if(y > getHeight() || row.length() != getWidth())
 			throw new IllegalArgumentException("setRow out of bounds or string wrong size");
-		rows.set(y, new StringBuilder(row));
+		row.getChars(0, width, buffer, rowStart(y));
 	}
 
 	public void setRow(int y, StringBuilder row){
 		if(y > getHeight() || row.length() != getWidth())
 			throw new IllegalArgumentException("setRow out of bounds or string wrong size");
-		rows.set(y, row);
+		row.getChars(0, width, buffer, rowStart(y));
 	}
 	
 	public int getWidth(){
-		if(rows.size() == 0) return 0; //empty buffer
-		return rows.get(0).length();
+		return width;
 	}
 
 	public int getHeight(){
-		return rows.size();
+		return height;
 	}
 
 	public void printDebug(){
-		Iterator<StringBuilder> it = rows.iterator();
+		Iterator<StringBuilder> it = getRows().iterator();
 		int i = 0;
 		System.out.println(
 			"    "
@@ -239,7 +246,7 @@ public class TextGrid {
 
 	public String getDebugString(){
 		StringBuilder buffer = new StringBuilder();
-		Iterator<StringBuilder> it = rows.iterator();
+		Iterator<StringBuilder> it = getRows().iterator();
 		int i = 0;
 		buffer.append(
 			"    "
@@ -368,7 +375,7 @@ public class TextGrid {
 	public void replaceHumanColorCodes(){
 		int height = getHeight();
 		for(int y = 0; y < height; y++){
-			String row = rows.get(y).toString();
+			String row = getRowAsString(y);
 			Iterator it = humanColorCodes.keySet().iterator();
 			while(it.hasNext()){
 				String humanCode = (String) it.next();
@@ -377,8 +384,8 @@ public class TextGrid {
 					humanCode = "c" + humanCode;
 					hexCode = "c" + hexCode;
 					row = row.replaceAll(humanCode, hexCode);
-					rows.set(y, new StringBuilder(row)); //TODO: this is not the most efficient way to do this
-					row = rows.get(y).toString();
+					setRow(y, row); //TODO: this is not the most efficient way to do this
+					row = getRowAsString(y);
 				}
 			}
 		}		
@@ -417,7 +424,7 @@ public class TextGrid {
 
 
 	public CellSet getAllNonBlank(){
-		CellSet set = new CellSet();
+		CellSet set = new CellSet(0, 0, width, height);
 		int width = getWidth();
 		int height = getHeight();
 		for(int y = 0; y < height; y++){
@@ -430,7 +437,7 @@ public class TextGrid {
 	}
 
 	public CellSet getAllBoundaries(){
-		CellSet set = new CellSet();
+		CellSet set = new CellSet(0, 0, width, height);
 		int width = getWidth();
 		int height = getHeight();
 		for(int y = 0; y < height; y++){
@@ -654,7 +661,7 @@ public class TextGrid {
 				Cell cell = new Cell(x, y);
 				char c = get(cell);
 				if(c == '{'){
-					String rowPart = rows.get(y).substring(x);
+					String rowPart = getRowAsString(y).substring(x);
 					Matcher matcher = tagPattern.matcher(rowPart);
 					if(matcher.find()){
 						String tagName = matcher.group(1);
@@ -1260,13 +1267,7 @@ public class TextGrid {
 			){
 			return false;
 		}
-		int height = grid.getHeight();
-		for(int i = 0; i < height; i++){
-			String row1 = this.getRow(i).toString();
-			String row2 = grid.getRow(i).toString();
-			if(!row1.equals(row2)) return false;
-		}
-		return true;
+		return Arrays.equals(buffer, grid.buffer);
 	}
 	
 	/**
@@ -1342,34 +1343,50 @@ public class TextGrid {
 	}
 
 	private CellSet seedFillOld(Cell seed, char newChar){
-		CellSet cellsFilled = new CellSet();
+		CellSet cellsFilled = new CellSet(0, 0, width, height);
 		char oldChar = get(seed);
 		
 		if(oldChar == newChar) return cellsFilled;
 		if(isOutOfBounds(seed)) return cellsFilled;
 
-		Stack<Cell> stack = new Stack<Cell>();
+		flood(seed, oldChar, newChar, cellsFilled, null);
+		return cellsFilled;
+	}
 
-		stack.push(seed);
+	/**
+	 * Replaces <code>oldChar</code> with <code>newChar</code> in the area
+	 * around <code>seed</code>, adding the cells filled to <code>filled</code>
+	 * and the '*' cells around the area to <code>boundaries</code>
+	 * (each one can be null).
+	 * 
+	 * Cells are changed as soon as they are found, so each one is visited once
+	 * and the stack holds indexes in the buffer instead of cells.
+	 */
+	private void flood(Cell seed, char oldChar, char newChar, CellSet filled, CellSet boundaries){
+		int[] stack = new int[64];
+		int top = 0;
+		buffer[seed.y * width + seed.x] = newChar;
+		stack[top++] = seed.y * width + seed.x;
 		
-		while(!stack.isEmpty()){
-			Cell cell = (Cell) stack.pop();
-			
-			set(cell, newChar);
-			cellsFilled.add(cell);
-
-			Cell nCell = cell.getNorth();
-			Cell sCell = cell.getSouth();
-			Cell eCell = cell.getEast();
-			Cell wCell = cell.getWest();
-			
-			if(get(nCell) == oldChar) stack.push(nCell);
-			if(get(sCell) == oldChar) stack.push(sCell);
-			if(get(eCell) == oldChar) stack.push(eCell);
-			if(get(wCell) == oldChar) stack.push(wCell);
+		while(top > 0){
+			final int index = stack[--top];
+			final int x = index % width;
+			final int y = index / width;
+			if(filled != null) filled.add(x, y);
+
+			for(int i = 0; i < 4; i++){
+				final int nx = i == 2 ? x + 1 : i == 3 ? x - 1 : x;
+				final int ny = i == 0 ? y - 1 : i == 1 ? y + 1 : y;
+				final char c = get(nx, ny);
+				if(c == oldChar && nx >= 0 && ny >= 0 && nx < width && ny < height){
+					buffer[ny * width + nx] = newChar;
+					if(top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+					stack[top++] = ny * width + nx;
+				} else if(c == '*' && boundaries != null){
+					boundaries.add(nx, ny);
+				}
+			}
 		}
-		
-		return cellsFilled;
 	}
 
 
@@ -1382,40 +1399,14 @@ public class TextGrid {
 	 * @return
 	 */
 	public CellSet findBoundariesExpandingFrom(Cell seed){
-		CellSet boundaries = new CellSet();
+		CellSet boundaries = new CellSet(0, 0, width, height);
 		char oldChar = get(seed);
 
 		if(isOutOfBounds(seed)) return boundaries;
 
 		char newChar = 1; //TODO: kludge
 
-		Stack<Cell> stack = new Stack<Cell>();
-
-		stack.push(seed);
-		
-		while(!stack.isEmpty()){
-			Cell cell = (Cell) stack.pop();
-			
-			set(cell, newChar);
-
-			Cell nCell = cell.getNorth();
-			Cell sCell = cell.getSouth();
-			Cell eCell = cell.getEast();
-			Cell wCell = cell.getWest();
-			
-			if(get(nCell) == oldChar) stack.push(nCell);
-			else if(get(nCell) == '*') boundaries.add(nCell);
-			
-			if(get(sCell) == oldChar) stack.push(sCell);
-			else if(get(sCell) == '*') boundaries.add(sCell);
-			
-			if(get(eCell) == oldChar) stack.push(eCell);
-			else if(get(eCell) == '*') boundaries.add(eCell);
-			
-			if(get(wCell) == oldChar) stack.push(wCell);
-			else if(get(wCell) == '*') boundaries.add(wCell);
-		}
-		
+		flood(seed, oldChar, newChar, null, boundaries);
 		return boundaries;
 	}
 	
@@ -1527,10 +1518,10 @@ public class TextGrid {
 			StringBuilder row = lines.get(i);
 			if(!StringUtils.isBlank(row.toString())) done = true;
 		}
-		rows = new ArrayList<StringBuilder>(lines.subList(0, i + 2));
+		ArrayList<StringBuilder> rows = new ArrayList<StringBuilder>(lines.subList(0, i + 2));
 
-		if(options != null) fixTabs(options.getTabSize());
-		else fixTabs(options.DEFAULT_TAB_SIZE);
+		if(options != null) fixTabs(rows, options.getTabSize());
+		else fixTabs(rows, options.DEFAULT_TAB_SIZE);
 
 
 		// make all lines of equal length
@@ -1586,7 +1577,7 @@ public class TextGrid {
 		//TODO: make the following depend on blankBorderSize
 		newRows.add(topBottomRow);
 		newRows.add(topBottomRow);
-		rows = newRows;
+		setRows(newRows);
 		
 		replaceBullets();
 		replaceHumanColorCodes();
@@ -1594,7 +1585,15 @@ public class TextGrid {
 		return true;
 	}
 	
-	private void fixTabs(int tabSize){
+	private void setRows(ArrayList<StringBuilder> rows){
+		height = rows.size();
+		width = height == 0 ? 0 : rows.get(0).length();
+		buffer = new char[width * height];
+		for(int y = 0; y < height; y++)
+			setRow(y, rows.get(y));
+	}
+
+	private static void fixTabs(ArrayList<StringBuilder> rows, int tabSize){
 
 		int rowIndex = 0;
 		Iterator<StringBuilder> it = rows.iterator();
@@ -1626,6 +1625,9 @@ public class TextGrid {
 	 * @return
 	 */
 	protected ArrayList<StringBuilder> getRows() {
+		ArrayList<StringBuilder> rows = new ArrayList<StringBuilder>(height);
+		for(int y = 0; y < height; y++)
+			rows.add(getRow(y));
 		return rows;
 	}
 	
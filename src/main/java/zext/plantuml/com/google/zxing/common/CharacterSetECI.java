@@ -26,12 +26,12 @@ import java.util.Hashtable;
  */
 public final class CharacterSetECI extends ECI {
 
-  private static Hashtable VALUE_TO_ECI;
-  private static Hashtable NAME_TO_ECI;
+  private static final Hashtable VALUE_TO_ECI = new Hashtable(29);
+  private static final Hashtable NAME_TO_ECI = new Hashtable(29);
 
-  private static void initialize() {
-    VALUE_TO_ECI = new Hashtable(29);
-    NAME_TO_ECI = new Hashtable(29);
+  // Filled by the class initializer, so that concurrent encoders never see a
+  // half built table
+  static {
     // TODO figure out if these values are even right!
     addCharacterSet(0, "Cp437");
     addCharacterSet(1, new String[] {"ISO8859_1", "ISO-8859-1"});
@@ -86,9 +86,6 @@ public final class CharacterSetECI extends ECI {
    * @throws IllegalArgumentException if ECI value is invalid
    */
   public static CharacterSetECI getCharacterSetECIByValue(int value) {
-    if (VALUE_TO_ECI == null) {
-      initialize();
-    }
     if (value < 0 || value >= 900) {
       throw new IllegalArgumentException("Bad ECI value: " + value);
     }
@@ -101,9 +98,6 @@ public final class CharacterSetECI extends ECI {
    *   but unsupported
    */
   public static CharacterSetECI getCharacterSetECIByName(String name) {
-    if (NAME_TO_ECI == null) {
-      initialize();
-    }
     return (CharacterSetECI) NAME_TO_ECI.get(name);
   }
 
@@ -0,0 +1,44 @@
+package net.sourceforge.plantuml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class DaemonServerTest {
+
+	@Test
+	void batch_command_lines_run_in_the_daemon() {
+		assertThat(DaemonServer.isLocalOnly(new String[] { "-tsvg", "-nbthread", "4", "src" })).isEqualTo(false);
+		assertThat(DaemonServer.isLocalOnly(new String[] { "-pipe", "-tpng" })).isEqualTo(false);
+	}
+
+	@Test
+	void process_wide_command_lines_run_locally() {
+		assertThat(DaemonServer.isLocalOnly(new String[0])).isEqualTo(true);
+		assertThat(DaemonServer.isLocalOnly(new String[] { "-GUI" })).isEqualTo(true);
+		assertThat(DaemonServer.isLocalOnly(new String[] { "-tsvg", "-version" })).isEqualTo(true);
+		assertThat(DaemonServer.isLocalOnly(new String[] { "-picoweb:8080" })).isEqualTo(true);
+		assertThat(DaemonServer.isLocalOnly(new String[] { "-daemon:0:5" })).isEqualTo(true);
+		assertThat(DaemonServer.isLocalOnly(new String[] { "-DPLANTUML_LIMIT_SIZE=8192", "a.puml" })).isEqualTo(true);
+		assertThat(DaemonServer.isLocalOnly(new String[] { "-license" })).isEqualTo(true);
+	}
+
+	@Test
+	void relative_paths_are_resolved_against_the_client_working_dir() throws Exception {
+		final File base = new File("client").getAbsoluteFile();
+		final File other = new File("other").getAbsoluteFile();
+		final Option option = new Option(base, "-x", "./sub/skip*", "-o", "out", "-ofile", "img", "./sub", "a.puml",
+				other.getPath());
+
+		assertThat(option.getResult()).isEqualTo(Arrays.asList(new File(base, "sub").getPath(),
+				new File(base, "a.puml").getPath(), other.getPath()));
+		assertThat(option.getExcludes()).isEqualTo(Arrays.asList(new File(base, "sub/skip*").getPath()));
+		// Like a local run, the output directory stays relative to each source file
+		assertThat(option.getOutputDir()).isEqualTo(new File("out"));
+		assertThat(option.getOutputFile()).isEqualTo(new File(base, "img"));
+	}
+
+}
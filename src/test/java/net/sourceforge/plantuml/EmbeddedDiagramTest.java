@@ -0,0 +1,119 @@
+package net.sourceforge.plantuml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.core.Diagram;
+import net.sourceforge.plantuml.core.ImageData;
+import net.sourceforge.plantuml.klimt.geom.XDimension2D;
+
+class EmbeddedDiagramTest {
+
+	private static final String CHILD = "" //
+			+ "{{\n" //
+			+ "Alice -> Bob : hello\n" //
+			+ "}}\n";
+
+	@Test
+	void test_embedded_in_svg_is_drawn_natively() throws IOException {
+		final String svg = renderSvg(inNote(CHILD));
+
+		assertThat(svg).doesNotContain("<image").contains(">hello<");
+	}
+
+	@Test
+	void test_embedded_in_png() throws IOException {
+		final ImageData data = export(inNote(CHILD), FileFormat.PNG);
+
+		assertEquals(0, data.getStatus());
+	}
+
+	@Test
+	void test_embedded_in_usecase_ellipse() throws IOException {
+		final String source = "" //
+				+ "@startuml\n" //
+				+ "!pragma layout smetana\n" //
+				+ "usecase U as \"\n" //
+				+ CHILD //
+				+ "\"\n" //
+				+ "@enduml\n";
+
+		assertEquals(0, export(source, FileFormat.PNG).getStatus());
+		assertEquals(0, export(source, FileFormat.SVG).getStatus());
+		assertThat(renderSvg(source)).doesNotContain("<image").contains(">hello<");
+	}
+
+	@Test
+	void test_scaled_child_falls_back_to_image() throws IOException {
+		final String child = "" //
+				+ "{{\n" //
+				+ "scale 2\n" //
+				+ "Alice -> Bob : hello\n" //
+				+ "}}\n";
+
+		assertThat(renderSvg(inNote(child))).contains("<image");
+		assertEquals(0, export(inNote(child), FileFormat.PNG).getStatus());
+	}
+
+	@Test
+	void test_recolored_child_falls_back_to_image() throws IOException {
+		final String child = "" //
+				+ "{{\n" //
+				+ "skinparam monochrome true\n" //
+				+ "Alice -> Bob : hello\n" //
+				+ "}}\n";
+
+		assertThat(renderSvg(inNote(child))).contains("<image");
+		assertEquals(0, export(inNote(child), FileFormat.PNG).getStatus());
+	}
+
+	@Test
+	void test_dimension_matches_standalone_export() throws IOException {
+		final List<String> child = Arrays.asList("@startuml", "Alice -> Bob : hello", "note over Alice : note",
+				"@enduml");
+		for (FileFormat format : Arrays.asList(FileFormat.PNG, FileFormat.SVG)) {
+			final ImageData standalone = export(String.join("\n", child), format);
+			final XDimension2D embedded = EmbeddedDiagram.from(null, child)
+					.calculateDimension(format.getDefaultStringBounder());
+
+			assertEquals(standalone.getWidth(), embedded.getWidth(), 1);
+			assertEquals(standalone.getHeight(), embedded.getHeight(), 1);
+		}
+	}
+
+	//
+	// Test helpers
+	//
+
+	private static String inNote(String embedded) {
+		return "" //
+				+ "@startuml\n" //
+				+ "Alice -> Bob : ok\n" //
+				+ "note over Alice\n" //
+				+ embedded //
+				+ "end note\n" //
+				+ "@enduml\n";
+	}
+
+	private static ImageData export(String source, FileFormat format) throws IOException {
+		final SourceStringReader ssr = new SourceStringReader(source, UTF_8);
+		final Diagram diagram = ssr.getBlocks().get(0).getDiagram();
+		return diagram.exportDiagram(new ByteArrayOutputStream(), 0, new FileFormatOption(format));
+	}
+
+	private static String renderSvg(String source) throws IOException {
+		final SourceStringReader ssr = new SourceStringReader(source, UTF_8);
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ssr.outputImage(baos, 0, new FileFormatOption(FileFormat.SVG));
+		return new String(baos.toByteArray(), UTF_8);
+	}
+
+}
@@ -180,6 +180,28 @@ class PipeTest {
 		}
 	}
 
+	@Test
+	void should_managePipe_keep_input_order_when_using_several_threads() throws IOException, InterruptedException {
+		final StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 20; i++)
+			input.append("@startuml\nAlice" + i + " -> Bob" + i + "\n@enduml\n");
+		input.append("@startuml\nfoo\n@enduml\n");
+
+		final ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+		final ErrorStatus sequentialStatus = ErrorStatus.init();
+		new Pipe(new Option("-tutxt", "-pipedelimitor", "PIPE-DELIMITOR"), new PrintStream(sequential),
+				new ByteArrayInputStream(input.toString().getBytes(UTF_8)), UTF_8.name()).managePipe(sequentialStatus);
+
+		new Pipe(new Option("-tutxt", "-pipedelimitor", "PIPE-DELIMITOR", "-nbthread", "4"), ps,
+				new ByteArrayInputStream(input.toString().getBytes(UTF_8)), UTF_8.name()).managePipe(errorStatus);
+
+		try (AutoCloseableSoftAssertions softly = new AutoCloseableSoftAssertions()) {
+			softly.assertThat(errorStatus.hasError()).isEqualTo(sequentialStatus.hasError()).isTrue();
+			softly.assertThat(errorStatus.isNoData()).isFalse();
+			softly.assertThat(baos.toString()).isEqualTo(sequential.toString());
+		}
+	}
+
 	@Test
 	void should_readFirstDiagram_return_null_for_empty_input() throws IOException {
 		pipe = new Pipe(option, null, new ByteArrayInputStream(new byte[0]), UTF_8.name());
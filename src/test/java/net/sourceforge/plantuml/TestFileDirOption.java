@@ -63,6 +63,13 @@ public class TestFileDirOption {
 		assertThat(output).contains("included-ok");
 	}
 
+	@Test
+	public void test_pipe_from_daemon_working_dir_succeeds() throws Exception {
+
+		final Option option = new Option(tempDir.toFile(), optionArray());
+		assertThat(renderViaPipe(option)).contains("included-ok");
+	}
+
 	//
 	// Test DSL
 	//
@@ -102,7 +109,10 @@ public class TestFileDirOption {
 
 	private String renderViaPipe(String... extraOptions) throws Exception {
 
-		final Option option = new Option(optionArray(extraOptions));
+		return renderViaPipe(new Option(optionArray(extraOptions)));
+	}
+
+	private String renderViaPipe(Option option) throws Exception {
 
 		final ByteArrayInputStream bais = new ByteArrayInputStream(DIAGRAM.getBytes(UTF_8));
 
@@ -0,0 +1,48 @@
+package net.sourceforge.plantuml.elk.proxy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ReflectTest {
+
+	@Test
+	void testNewInstance() {
+		assertEquals(new ArrayList<>(), Reflect.newInstance("java.util.ArrayList"));
+		assertEquals(new StringBuilder("ab").toString(), Reflect.newInstance("java.lang.StringBuilder", "ab").toString());
+		assertEquals(new Rectangle2D.Double(1, 2, 3, 4), Reflect.newInstance("java.awt.geom.Rectangle2D$Double", 1, 2, 3, 4));
+	}
+
+	@Test
+	void testCall() {
+		// Twice, the second call goes through the cached handle
+		for (int i = 0; i < 2; i++) {
+			assertEquals(3, Reflect.call("abc", "length"));
+			assertEquals("abcd", Reflect.call("abc", "concat", "d"));
+			final List<String> list = new ArrayList<>(Arrays.asList("a", "b"));
+			Reflect.call2(list, "set", 1, "c");
+			assertEquals(Arrays.asList("a", "c"), list);
+		}
+	}
+
+	@Test
+	void testStatic() {
+		assertEquals(42, Reflect.callStatic("java.lang.Integer", "valueOf", "42"));
+		assertEquals(true, Reflect.callStatic2("java.util.Objects", "equals", "a", "a"));
+		assertEquals(Integer.MAX_VALUE, Reflect.field("java.lang.Integer", "MAX_VALUE"));
+		assertSame(Thread.State.NEW, Reflect.getEnum("java.lang.Thread$State", "NEW"));
+	}
+
+	@Test
+	void testUnknownMethod() {
+		assertThrows(IllegalArgumentException.class, () -> Reflect.call("abc", "noSuchMethod"));
+	}
+
+}
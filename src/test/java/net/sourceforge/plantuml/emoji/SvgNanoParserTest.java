@@ -0,0 +1,126 @@
+package net.sourceforge.plantuml.emoji;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.emoji.data.Dummy;
+import net.sourceforge.plantuml.klimt.color.HColor;
+import net.sourceforge.plantuml.klimt.color.HColors;
+import net.sourceforge.plantuml.klimt.drawing.debug.UGraphicDebug;
+import net.sourceforge.plantuml.klimt.geom.XDimension2D;
+import net.sourceforge.plantuml.openiconic.data.DummyIcon;
+
+class SvgNanoParserTest {
+
+	private static final List<String> SPRITES = Arrays.asList( //
+			"<svg viewBox=\"0 0 20 20\"><g fill=\"#336699\" transform=\"translate(2 3)\">"
+					+ "<circle cx=\"5\" cy=\"5\" r=\"4\"/><ellipse cx=\"10\" cy=\"8\" rx=\"6\" ry=\"3\" stroke=\"red\"/>"
+					+ "</g></svg>", //
+			"<svg viewBox=\"0 0 20 20\"><g transform=\"scale(2)\"><g transform=\"rotate(30 5 5)\">"
+					+ "<path d=\"M1 1L9 1L9 9Z\" stroke=\"#000\" stroke-width=\"0.5\" fill=\"none\"/></g></g></svg>", //
+			"<svg viewBox=\"0 0 20 20\"><g transform=\"matrix(1,0,0,1,3,4)\" style=\"fill:#ff0000\">"
+					+ "<text x=\"1\" y=\"12\" font-size=\"10px\" font-family=\"Serif\">Hi</text>"
+					+ "<path d=\"M0 0h5v5h-5z\"/></g>"
+					+ "<text x=\"2\" y=\"18\" style=\"font-size:8pt;fill:blue\">Ok</text></svg>");
+
+	@Test
+	void test_emoji_are_drawn_like_the_reference_parser() throws IOException {
+		final List<String> unicodes = new ArrayList<>();
+		for (String line : readLines(Dummy.class.getResourceAsStream("emoji.txt")))
+			unicodes.add(line.split(";")[0]);
+
+		assertEquals(true, unicodes.size() > 1000);
+		for (String unicode : unicodes) {
+			final List<String> svg = readLines(Dummy.class.getResourceAsStream(unicode + ".svg"));
+			assertSameDrawing(unicode, svg);
+		}
+	}
+
+	@Test
+	void test_openiconic_are_drawn_like_the_reference_parser() throws IOException {
+		final List<String> names = readLines(DummyIcon.class.getResourceAsStream("all.txt"));
+
+		assertEquals(true, names.size() > 200);
+		for (String name : names) {
+			final List<String> svg = readLines(DummyIcon.class.getResourceAsStream(name + ".svg"));
+			assertSameDrawing(name, svg);
+		}
+	}
+
+	@Test
+	void test_groups_transforms_and_text_are_drawn_like_the_reference_parser() {
+		for (String svg : SPRITES)
+			assertSameDrawing(svg, Arrays.asList(svg));
+	}
+
+	@Test
+	void test_cached_shapes_are_drawn_like_the_first_parse() {
+		for (String svg : SPRITES) {
+			final String first = draw(new SvgNanoParser(svg), HColors.BLACK, null);
+			assertEquals(first, draw(new SvgNanoParser(svg), HColors.BLACK, null), svg);
+
+			final SvgNanoParser parser = new SvgNanoParser(svg);
+			assertEquals(first, draw(parser, HColors.BLACK, null), svg);
+			assertEquals(first, draw(parser, HColors.BLACK, null), svg);
+		}
+	}
+
+	//
+	// Test helpers
+	//
+
+	private static void assertSameDrawing(String name, List<String> svg) {
+		assertEquals(draw(new SvgNanoParserReference(svg), HColors.BLACK, null),
+				draw(new SvgNanoParser(svg), HColors.BLACK, null), name);
+		assertEquals(draw(new SvgNanoParserReference(svg), HColors.BLUE, HColors.BLUE),
+				draw(new SvgNanoParser(svg), HColors.BLUE, HColors.BLUE), name + " monochrome");
+	}
+
+	private static String draw(SvgNanoParserReference parser, HColor fontColor, HColor forcedColor) {
+		final UGraphicDebug ug = newUGraphic();
+		parser.drawU(ug, 1.5, fontColor, forcedColor);
+		return output(ug);
+	}
+
+	private static String draw(SvgNanoParser parser, HColor fontColor, HColor forcedColor) {
+		final UGraphicDebug ug = newUGraphic();
+		parser.drawU(ug, 1.5, fontColor, forcedColor);
+		return output(ug);
+	}
+
+	private static UGraphicDebug newUGraphic() {
+		return new UGraphicDebug(1.0, new XDimension2D(100, 100), null, null, 0, null);
+	}
+
+	private static String output(UGraphicDebug ug) {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try {
+			ug.writeToStream(baos, null, 96);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return new String(baos.toByteArray(), UTF_8);
+	}
+
+	private static List<String> readLines(InputStream is) throws IOException {
+		final List<String> result = new ArrayList<>();
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(is, UTF_8))) {
+			String s;
+			while ((s = br.readLine()) != null)
+				result.add(s);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,109 @@
+package net.sourceforge.plantuml.file;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.plantuml.Option;
+
+class FileWatchLoopTest {
+
+	private static final long TIMEOUT_MS = 20_000;
+
+	@Test
+	void changes_made_during_a_render_are_rendered_again(@TempDir Path dir) throws Exception {
+		final Path diagram = dir.resolve("main.puml");
+		final Path include = dir.resolve("inc.iuml");
+		final Path output = dir.resolve("main.svg");
+		write(include, "Bob -> Carol : include1");
+		write(diagram, "@startuml\n!include inc.iuml\nAlice -> Bob : diagram1\n@enduml\n");
+
+		final AtomicBoolean hold = new AtomicBoolean();
+		final CountDownLatch inFlight = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final FileWatchLoop loop = new FileWatchLoop(new Option("-tsvg", dir.toString())) {
+			@Override
+			void render(Path path) {
+				super.render(path);
+				// Keep the diagram marked as running after its output has been written
+				if (hold.compareAndSet(true, false)) {
+					inFlight.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		};
+		final Thread thread = new Thread(() -> {
+			try {
+				loop.run();
+			} catch (InterruptedException | IOException e) {
+				// Stopped by the test
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+		try {
+			waitForOutput(output, "diagram1", "include1");
+
+			hold.set(true);
+			write(diagram, "@startuml\n!include inc.iuml\nAlice -> Bob : diagram2\n@enduml\n");
+			assertTrue(inFlight.await(TIMEOUT_MS, TimeUnit.MILLISECONDS), "the edit was not rendered");
+			waitForOutput(output, "diagram2", "include1");
+
+			// The include changes while main.puml is still being rendered
+			write(include, "Bob -> Carol : include2");
+			Thread.sleep(1000);
+			release.countDown();
+
+			waitForOutput(output, "diagram2", "include2");
+		} finally {
+			release.countDown();
+			thread.interrupt();
+			thread.join(TIMEOUT_MS);
+		}
+	}
+
+	//
+	// Test helpers
+	//
+
+	private static void write(Path path, String content) throws IOException {
+		Files.write(path, content.getBytes(UTF_8));
+	}
+
+	private static void waitForOutput(Path output, String... expected) throws Exception {
+		final long limit = System.currentTimeMillis() + TIMEOUT_MS;
+		String svg = "";
+		while (System.currentTimeMillis() < limit) {
+			if (Files.exists(output)) {
+				svg = new String(Files.readAllBytes(output), UTF_8);
+				if (containsAll(svg, expected))
+					return;
+			}
+			Thread.sleep(50);
+		}
+		fail("main.svg never contained " + String.join(", ", expected) + ": " + svg);
+	}
+
+	private static boolean containsAll(String svg, String... expected) {
+		for (String s : expected)
+			if (svg.contains(s) == false)
+				return false;
+
+		return true;
+	}
+
+}
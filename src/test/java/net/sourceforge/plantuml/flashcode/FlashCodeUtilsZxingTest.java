@@ -0,0 +1,61 @@
+package net.sourceforge.plantuml.flashcode;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class FlashCodeUtilsZxingTest {
+
+	private final FlashCodeUtils utils = new FlashCodeUtilsZxing();
+
+	@Test
+	void test_cached_matrix_still_gives_a_fresh_image_in_the_requested_colors() {
+		final BufferedImage first = utils.exportFlashcode("https://plantuml.com", Color.BLACK, Color.WHITE);
+		final BufferedImage second = utils.exportFlashcode("https://plantuml.com", Color.BLACK, Color.YELLOW);
+
+		assertNotNull(first);
+		assertNotNull(second);
+		assertNotSame(first, second);
+		assertEquals(first.getWidth(), second.getWidth());
+		assertEquals(Color.WHITE.getRGB(), first.getRGB(0, 0));
+		assertEquals(Color.YELLOW.getRGB(), second.getRGB(0, 0));
+	}
+
+	@Test
+	void test_concurrent_calls_all_get_the_same_code() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<BufferedImage>> futures = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				final String text = "https://plantuml.com/" + (i % 4);
+				futures.add(executor.submit((Callable<BufferedImage>) () -> utils.exportFlashcode(text,
+						Color.BLACK, Color.WHITE)));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				final BufferedImage image = futures.get(i).get();
+				assertNotNull(image);
+				final BufferedImage reference = futures.get(i % 4).get();
+				assertArrayEquals(pixels(reference), pixels(image));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static int[] pixels(BufferedImage image) {
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+
+}
@@ -0,0 +1,69 @@
+package net.sourceforge.plantuml.klimt.compress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SlotSetTest {
+
+	@Test
+	void testMergeOverlappingAndTouchingSlots() {
+		final SlotSet set = new SlotSet();
+		set.addSlot(50, 60);
+		set.addSlot(0, 10);
+		set.addSlot(5, 20);
+		set.addSlot(20, 30);
+		set.addSlot(40, 45);
+		set.addSlot(41, 42);
+		assertEquals("[(0.0,30.0), (40.0,45.0), (50.0,60.0)]", set.toString());
+		assertEquals("[(30.0,40.0), (45.0,50.0)]", set.reverse().toString());
+		assertEquals("[(2.0,28.0), (42.0,43.0), (52.0,58.0)]", set.smaller(2).toString());
+		assertEquals("[(8.0,30.0), (40.0,42.0)]", set.filter(8, 42).toString());
+	}
+
+	@Test
+	void testEmptySlot() {
+		assertThrows(IllegalArgumentException.class, () -> new SlotSet().addSlot(3, 3));
+	}
+
+	@Test
+	void testSameUnionAsPairwiseMerge() {
+		final Random rnd = new Random(42);
+		final SlotSet set = new SlotSet();
+		final boolean[] covered = new boolean[1000];
+		for (int i = 0; i < 200; i++) {
+			final int start = rnd.nextInt(990);
+			final int end = start + 1 + rnd.nextInt(8);
+			set.addSlot(start, end);
+			for (int j = start; j < end; j++)
+				covered[j] = true;
+		}
+		final StringBuilder expected = new StringBuilder();
+		for (int j = 0; j < covered.length; j++)
+			if (covered[j] && (j == 0 || covered[j - 1] == false)) {
+				int end = j;
+				while (end < covered.length && covered[end])
+					end++;
+				expected.append(expected.length() == 0 ? "[" : ", ").append("(" + j + ".0," + end + ".0)");
+			}
+		expected.append("]");
+		assertEquals(expected.toString(), set.toString());
+	}
+
+	@Test
+	void testCompressionTransform() {
+		final SlotSet set = new SlotSet();
+		set.addSlot(10, 20);
+		set.addSlot(30, 35);
+		final CompressionTransform transform = new CompressionTransform(set);
+		assertEquals(5.0, transform.transform(5), 0);
+		assertEquals(10.0, transform.transform(15), 0);
+		assertEquals(15.0, transform.transform(25), 0);
+		assertEquals(20.0, transform.transform(32), 0);
+		assertEquals(25.0, transform.transform(40), 0);
+	}
+
+}
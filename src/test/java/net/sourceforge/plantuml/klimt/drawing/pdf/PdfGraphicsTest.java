@@ -0,0 +1,57 @@
+package net.sourceforge.plantuml.klimt.drawing.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class PdfGraphicsTest {
+
+	@Test
+	void numbers_have_at_most_three_decimals() {
+		assertEquals("0", PdfGraphics.format(0));
+		assertEquals("12", PdfGraphics.format(12.0001));
+		assertEquals("-3.5", PdfGraphics.format(-3.5));
+		assertEquals("0.05", PdfGraphics.format(0.05));
+		assertEquals("1.007", PdfGraphics.format(1.0069));
+		assertEquals("100000", PdfGraphics.format(1e5));
+	}
+
+	@Test
+	void cross_reference_table_points_to_every_object() throws Exception {
+		final PdfGraphics pdf = new PdfGraphics(100, 50, 2);
+		pdf.openLink("http://example.com/(a)");
+		pdf.fill(new Rectangle2D.Double(10, 10, 20, 20), new Color(255, 0, 0, 128));
+		pdf.closeLink();
+		final BufferedImage image = new BufferedImage(3, 2, BufferedImage.TYPE_INT_ARGB);
+		pdf.drawImage(image, 0, 0, 3, 2);
+
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		pdf.writeTo(baos, "@startuml\nA->B\n@enduml");
+		final String s = new String(baos.toByteArray(), StandardCharsets.ISO_8859_1);
+
+		assertTrue(s.startsWith("%PDF-1.4\n"));
+		assertTrue(s.endsWith("%%EOF\n"));
+		assertTrue(s.contains("/MediaBox [0 0 200 100]"));
+		assertTrue(s.contains("/Rect [20 40 60 80] /A << /S /URI /URI (http://example.com/\\(a\\)) >>"));
+		assertTrue(s.contains("/SMask "));
+
+		final int xref = Integer.parseInt(s.substring(s.lastIndexOf("startxref") + 10).trim().split("\n")[0]);
+		final String[] lines = s.substring(xref).split("\n");
+		assertEquals("xref", lines[0]);
+		final int size = Integer.parseInt(lines[1].split(" ")[1]);
+		// Catalog, pages, page, contents, info, image and its mask, link
+		assertEquals(9, size);
+		for (int i = 1; i < size; i++) {
+			final int offset = Integer.parseInt(lines[2 + i].substring(0, 10));
+			assertTrue(s.startsWith(i + " 0 obj\n", offset), "object " + i);
+		}
+	}
+
+}
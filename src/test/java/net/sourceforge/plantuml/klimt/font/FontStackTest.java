@@ -52,6 +52,40 @@ class FontStackTest {
 		String nonDisplayable = "ab\uD844\uDFC1";
 		assertThat(stack.canDisplayUpTo(0, nonDisplayable)).isEqualTo(2); // Third char is not displayable
 	}
+
+	@Test
+	void shouldAgreeWithFontOnCoverage() {
+		FontStack stack = new FontStack("foo");
+		Font font = Font.decode("foo");
+		for (String text : new String[] { "", "abc", "a\uD840\uDC00", "\uD840", "x\uD840", "\u5177\uD83D\uDC1B", "\uFFFF" }) {
+			assertThat(stack.canDisplayUpTo(0, text)).isEqualTo(font.canDisplayUpTo(text));
+			// Second call is answered from the coverage table
+			assertThat(stack.canDisplayUpTo(0, text)).isEqualTo(font.canDisplayUpTo(text));
+		}
+	}
+
+	@Test
+	void shouldShareStacksAndDerivedFonts() {
+		FontStack stack = FontStack.of("foo, bar");
+		assertThat(FontStack.of("foo, bar")).isSameAs(stack);
+		assertThat(stack.getFont("hello", Font.BOLD, 14)).isSameAs(stack.getFont("world", Font.BOLD, 14));
+		assertThat(stack.getFont("hello", Font.BOLD, 14)).isNotSameAs(stack.getFont("hello", Font.PLAIN, 14));
+		assertThat(stack.getFont("hello", Font.BOLD, 14).getSize()).isEqualTo(14);
+	}
+
+	@Test
+	void shouldClearStacksAndDerivedFontsWhenFull() {
+		FontStack stack = FontStack.of("foo, baz");
+		Font font = stack.getFont("hello", Font.PLAIN, 10);
+		for (int i = 0; i < FontStack.MAX_STACKS; i++) {
+			FontStack.of("foo" + i);
+			stack.getFont("hello", Font.PLAIN, 11 + i);
+		}
+		// Both caches are bounded: they were cleared and the entries are rebuilt
+		assertThat(FontStack.of("foo, baz")).isNotSameAs(stack);
+		assertThat(stack.getFont("hello", Font.PLAIN, 10)).isNotSameAs(font);
+		assertThat(stack.getFont("hello", Font.PLAIN, 10)).isEqualTo(font);
+	}
 	
 //	soedwjw5b1il3af6udlfyzhw908v8fr
 //	5wim76d0ju0wd2yd4yhowjfqc613u7s
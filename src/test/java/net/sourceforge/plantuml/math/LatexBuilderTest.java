@@ -0,0 +1,39 @@
+package net.sourceforge.plantuml.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.Color;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.klimt.MutableImage;
+
+class LatexBuilderTest {
+
+	@Test
+	void test_same_formula_reuses_the_rendered_image() throws Exception {
+		final MutableImage first = new LatexBuilder("e^{i\\pi}+1=0").getImage(Color.BLACK, Color.WHITE);
+		final MutableImage second = new LatexBuilder("e^{i\\pi}+1=0").getImage(Color.BLACK, Color.WHITE);
+		final MutableImage other = new LatexBuilder("e^{i\\pi}+1=0").getImage(Color.RED, Color.WHITE);
+
+		assertSame(first, second);
+		assertNotSame(first, other);
+		assertSame(first.getImage(), second.getImage());
+	}
+
+	@Test
+	void test_cached_svg_still_gives_the_dimension() throws Exception {
+		final LatexBuilder first = new LatexBuilder("\\frac{a}{b}");
+		final String svg = first.getSvg(1, Color.BLACK, null).getSvg(true);
+
+		final LatexBuilder second = new LatexBuilder("\\frac{a}{b}");
+		assertEquals(svg, second.getSvg(1, Color.BLACK, null).getSvg(true));
+		assertNotNull(second.getDimension());
+		assertEquals(first.getDimension().getWidth(), second.getDimension().getWidth());
+		assertEquals(first.getDimension().getHeight(), second.getDimension().getHeight());
+	}
+
+}
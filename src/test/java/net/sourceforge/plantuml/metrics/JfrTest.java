@@ -0,0 +1,35 @@
+package net.sourceforge.plantuml.metrics;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.core.Diagram;
+import net.sourceforge.plantuml.core.DiagramType;
+
+class JfrTest {
+
+	@Test
+	void test_diagram_type_of_a_known_diagram() {
+		final Diagram diagram = parse("@startuml\nAlice -> Bob : hello\n@enduml\n");
+
+		assertEquals("SEQUENCE", Jfr.diagramType(diagram, DiagramType.UML));
+	}
+
+	@Test
+	void test_diagram_type_falls_back_to_the_source_type() {
+		final Diagram diagram = parse("@startuml\nthis is not a diagram\n@enduml\n");
+
+		assertEquals("UML", Jfr.diagramType(diagram, DiagramType.UML));
+		assertEquals("JSON", Jfr.diagramType(null, DiagramType.JSON));
+		assertNull(Jfr.diagramType(null, null));
+	}
+
+	private static Diagram parse(String source) {
+		return new SourceStringReader(source, UTF_8).getBlocks().get(0).getDiagram();
+	}
+
+}
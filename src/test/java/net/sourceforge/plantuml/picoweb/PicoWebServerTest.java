@@ -11,6 +11,7 @@ import java.net.HttpURLConnection;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.URI;
+import java.util.Base64;
 
 import javax.imageio.ImageIO;
 import javax.imageio.stream.MemoryCacheImageInputStream;
@@ -33,8 +34,10 @@ public class PicoWebServerTest {
 		test_GET_png();
 		test_GET_svg();
 		test_POST_render();
+		test_POST_render_batch();
 		test_unknown_path();
 		test_language();
+		test_metrics();
 	}
 
 	//
@@ -222,6 +225,47 @@ public class PicoWebServerTest {
 		assert readStreamAsString(response.getErrorStream()).contains("Error parsing request json: Unexpected character at 1:4\n");
 	}
 
+	private static void test_POST_render_batch() throws Exception {
+		HttpURLConnection response;
+
+		final String array = "[" + renderRequestJson("A -> B", "-tsvg") + "," + renderRequestJson("foo") + ","
+				+ renderRequestJson("C -> D", "-ttxt") + "]";
+		response = httpPostJson("/render/batch", array);
+		assert response.getResponseCode() == 200;
+		assert response.getContentType().equals("application/x-ndjson");
+		assert response.getHeaderField("X-PlantUML-Batch-Size").equals("3");
+
+		final String[] lines = readStreamAsString(response.getInputStream()).split("\n");
+		assert lines.length == 3;
+		final JsonObject[] items = new JsonObject[3];
+		for (String line : lines) {
+			final JsonObject item = Json.parse(line).asObject();
+			items[item.get("index").asInt()] = item;
+		}
+		assert items[0].get("status").asString().equals("ok");
+		assert items[0].get("contentType").asString().equals("image/svg+xml");
+		assert new String(Base64.getDecoder().decode(items[0].get("data").asString()), UTF_8).startsWith("<svg");
+		assert items[1].get("status").asString().equals("error");
+		assert items[1].get("errors").asArray().get(0).asObject().get("line").asInt() == 2;
+		assert items[2].get("status").asString().equals("ok");
+		assert items[2].get("format").asString().equals("atxt");
+
+		// Newline delimited json is accepted as well
+		response = httpPostJson("/render/batch", renderRequestJson("A -> B") + "\n" + renderRequestJson("B -> C"));
+		assert response.getResponseCode() == 200;
+		assert readStreamAsString(response.getInputStream()).split("\n").length == 2;
+
+		response = httpPostJson("/render/batch", "[{}]");
+		assert response.getResponseCode() == 400;
+
+		final StringBuilder tooMany = new StringBuilder();
+		for (int i = 0; i <= PicoWebServer.getBatchLimit(); i++)
+			tooMany.append(renderRequestJson("A -> B")).append("\n");
+		response = httpPostJson("/render/batch", tooMany.toString());
+		assert response.getResponseCode() == 400;
+		assert readStreamAsString(response.getErrorStream()).contains("the limit is " + PicoWebServer.getBatchLimit());
+	}
+
 	private static void test_unknown_path() throws Exception {
 		HttpURLConnection response = httpGet("/foo");
 		assert response.getResponseCode() == 302;
@@ -235,6 +279,28 @@ public class PicoWebServerTest {
 		);
 	}
 
+	private static void test_metrics() throws Exception {
+		HttpURLConnection response;
+
+		response = httpGet("/svg/" + getDefaultTranscoder().encode("A -> B"));
+		assert response.getResponseCode() == 200;
+		assert response.getHeaderField("Server-Timing").contains("parse;dur=");
+		assert response.getHeaderField("Server-Timing").contains("total;dur=");
+		assert response.getHeaderField("Server-Timing").contains("dimension;dur=");
+
+		response = httpGet("/svg/" + getDefaultTranscoder().encode("!pragma layout smetana\nclass A\nA -> B"));
+		assert response.getResponseCode() == 200;
+		assert response.getHeaderField("Server-Timing").contains("layout;dur=");
+
+		response = httpGet("/metrics");
+		assert response.getResponseCode() == 200;
+		assert response.getContentType().startsWith("text/plain");
+		final String metrics = readStreamAsString(response.getInputStream());
+		assert metrics.contains("# TYPE plantuml_phase_duration_seconds histogram\n");
+		assert metrics.contains("plantuml_phase_duration_seconds_bucket{phase=\"parse\",le=\"+Inf\"} ");
+		assert metrics.contains("plantuml_diagrams_total{type=\"SequenceDiagram\",format=\"SVG\"} ");
+	}
+
 	//
 	// Test DSL
 	//
@@ -0,0 +1,86 @@
+package net.sourceforge.plantuml.png;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+class BandedImageTest {
+
+	private static final int WIDTH = 300;
+	private static final int HEIGHT = 200;
+
+	private static void paint(Graphics2D g2d) {
+		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g2d.scale(1.5, 1.5);
+		g2d.setStroke(new BasicStroke(1.5f));
+		for (int i = 0; i < 20; i++) {
+			g2d.setColor(new Color((i * 37) % 256, (i * 91) % 256, (i * 53) % 256, 200));
+			g2d.draw(new Ellipse2D.Double(i * 7.3, i * 5.1, 60.5, 33.3));
+			g2d.draw(new Line2D.Double(0, i * 9.7, 200, 130 - i * 3.3));
+		}
+	}
+
+	private static BandedImage createBandedImage(int bandHeight) {
+		return new BandedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB, bandHeight, (band, top) -> {
+			final Graphics2D g2d = band.createGraphics();
+			g2d.translate(0, -top);
+			paint(g2d);
+			g2d.dispose();
+		});
+	}
+
+	private static BufferedImage createReference() {
+		final BufferedImage reference = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D g2d = reference.createGraphics();
+		paint(g2d);
+		g2d.dispose();
+		return reference;
+	}
+
+	@Test
+	void testRowsMatchFullImage() {
+		final BufferedImage reference = createReference();
+		final BandedImage banded = createBandedImage(7);
+		assertEquals(29, banded.getNumYTiles());
+
+		for (int y = 0; y < HEIGHT; y++) {
+			final Raster row = banded.getData(new Rectangle(0, y, WIDTH, 1));
+			final int[] expected = reference.getRaster().getPixels(0, y, WIDTH, 1, (int[]) null);
+			final int[] actual = row.getPixels(0, y, WIDTH, 1, (int[]) null);
+			for (int i = 0; i < expected.length; i++)
+				assertEquals(expected[i], actual[i], "row " + y);
+		}
+		banded.release();
+	}
+
+	@Test
+	void testPngEncodingMatchesFullImage() throws Exception {
+		final BufferedImage reference = createReference();
+		final BandedImage banded = createBandedImage(16);
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		PngIOMetadata.writeWithMetadata(banded, os, null, 96, null, 7);
+		banded.release();
+
+		final BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
+		assertEquals(WIDTH, decoded.getWidth());
+		assertEquals(HEIGHT, decoded.getHeight());
+		for (int y = 0; y < HEIGHT; y++)
+			for (int x = 0; x < WIDTH; x++)
+				assertEquals(reference.getRGB(x, y), decoded.getRGB(x, y));
+	}
+
+}
@@ -0,0 +1,53 @@
+package net.sourceforge.plantuml.png;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.png.quant.QuantUtils;
+
+class RasterPoolTest {
+
+	@Test
+	void testSizeClassesWasteAtMostAQuarter() {
+		for (int size = 1; size < 5_000_000; size += 997) {
+			final int length = RasterPool.sizeClass(size);
+			assertTrue(length >= size);
+			assertEquals(length, RasterPool.sizeClass(length), "size classes must be stable");
+			if (size > 1 << 14)
+				assertTrue(length <= size + size / 4 + 1, "size=" + size + " length=" + length);
+		}
+	}
+
+	@Test
+	void testImagesHaveStandardTypes() {
+		final BufferedImage argb = RasterPool.createImage(300, 200, BufferedImage.TYPE_INT_ARGB);
+		assertEquals(BufferedImage.TYPE_INT_ARGB, argb.getType());
+		assertNotNull(QuantUtils.getPackedPixels(argb));
+
+		final BufferedImage rgb = RasterPool.createImage(300, 200, BufferedImage.TYPE_INT_RGB);
+		assertEquals(BufferedImage.TYPE_INT_RGB, rgb.getType());
+		assertNotNull(QuantUtils.getPackedPixels(rgb));
+	}
+
+	@Test
+	void testReleasedRasterIsReusedBlank() {
+		final BufferedImage first = RasterPool.createImage(640, 480, BufferedImage.TYPE_INT_ARGB);
+		final int[] data = ((DataBufferInt) first.getRaster().getDataBuffer()).getData();
+		first.setRGB(10, 10, 0xFF123456);
+		RasterPool.release(first);
+
+		final BufferedImage second = RasterPool.createImage(630, 490, BufferedImage.TYPE_INT_ARGB);
+		assertSame(data, ((DataBufferInt) second.getRaster().getDataBuffer()).getData());
+		for (int y = 0; y < second.getHeight(); y++)
+			for (int x = 0; x < second.getWidth(); x++)
+				assertEquals(0, second.getRGB(x, y));
+	}
+
+}
@@ -0,0 +1,116 @@
+package net.sourceforge.plantuml.style;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.style.parser.StyleParser;
+import net.sourceforge.plantuml.utils.BlocLines;
+import net.sourceforge.plantuml.utils.LineLocationImpl;
+
+public class StyleStorageTest {
+
+	private static final List<StyleSignatureBasic> SIGNATURES = Arrays.asList(
+			StyleSignatureBasic.of(SName.root, SName.document),
+			StyleSignatureBasic.activity(),
+			StyleSignatureBasic.activityArrow(),
+			StyleSignatureBasic.of(SName.root, SName.element, SName.classDiagram, SName.class_),
+			StyleSignatureBasic.of(SName.root, SName.element, SName.sequenceDiagram, SName.participant)
+					.addStereotype("foo"),
+			StyleSignatureBasic.of(SName.root, SName.element, SName.mindmapDiagram, SName.node).addLevel(2),
+			StyleSignatureBasic.of(SName.root, SName.element, SName.wbsDiagram, SName.node).addLevel(3));
+
+	private static Style naive(StyleStorage storage, StyleSignatureBasic signature, boolean special, int delta) {
+		Style result = null;
+		for (Style style : storage.getStyles()) {
+			if (style.getSignature().matchAll(signature) == false)
+				continue;
+			Style tmp = style;
+			if (special && style.getSignature().isStarred())
+				tmp = tmp.deltaPriority(delta);
+			result = result == null ? tmp : result.mergeWith(tmp, MergeStrategy.OVERWRITE_EXISTING_VALUE);
+		}
+		return result;
+	}
+
+	private static void assertSameValues(Style expected, Style actual) {
+		assertNotNull(expected);
+		assertNotNull(actual);
+		assertEquals(expected.getSignature(), actual.getSignature());
+		for (PName name : PName.values()) {
+			assertEquals(expected.hasValue(name), actual.hasValue(name), name.name());
+			if (expected.hasValue(name)) {
+				assertEquals(expected.value(name).asString(), actual.value(name).asString(), name.name());
+				assertEquals(expected.value(name).getPriority(), actual.value(name).getPriority(), name.name());
+			}
+		}
+	}
+
+	private static StyleStorage loadDefaultSkin() throws Exception {
+		final StyleStorage storage = new StyleStorage();
+		final BlocLines lines = BlocLines.load(StyleLoader.getInputStreamForStyle("plantuml.skin"),
+				new LineLocationImpl("plantuml.skin", null));
+		for (Style style : StyleParser.parse(lines, new StyleBuilder())) {
+			final Style orig = storage.get(style.getSignature());
+			storage.put(orig == null ? style : orig.mergeWith(style, MergeStrategy.OVERWRITE_EXISTING_VALUE));
+		}
+		return storage;
+	}
+
+	@Test
+	void testIndexedLookupMatchesFullScan() throws Exception {
+		final StyleStorage storage = loadDefaultSkin();
+		for (StyleSignatureBasic signature : SIGNATURES) {
+			assertSameValues(naive(storage, signature, false, 0), storage.computeMergedStyle(signature));
+			assertSameValues(naive(storage, signature, true, 10), storage.computeMergedStyleSpecial(signature, 10));
+		}
+	}
+
+	@Test
+	void testIndexIsRebuiltAfterPut() throws Exception {
+		final StyleStorage storage = loadDefaultSkin();
+		final StyleSignatureBasic signature = StyleSignatureBasic.activity().addStereotype("custom");
+		storage.computeMergedStyle(signature);
+
+		final Map<PName, Value> map = new EnumMap<>(PName.class);
+		map.put(PName.FontColor, ValueImpl.regular("#123456", 5000));
+		storage.put(new Style(StyleSignatureBasic.createStereotype("custom"), map));
+
+		assertEquals("#123456", storage.computeMergedStyle(signature).value(PName.FontColor).asString());
+	}
+
+	@Test
+	void testClonedBuilderSharesMergedStyles() throws Exception {
+		final StyleBuilder builder = StyleLoader.loadSkin("plantuml.skin");
+		final Style style = builder.getMergedStyle(StyleSignatureBasic.activity());
+		assertSame(style, builder.cloneMe().getMergedStyle(StyleSignatureBasic.activity()));
+		assertSame(style, StyleLoader.loadSkin("plantuml.skin").getMergedStyle(StyleSignatureBasic.activity()));
+	}
+
+	@Test
+	void testSharedMergedStylesAreBounded() throws Exception {
+		final StyleBuilder builder = StyleLoader.loadSkin("plantuml.skin").cloneMe();
+		final Style style = builder.getMergedStyle(StyleSignatureBasic.activity());
+		final Style special = builder.getMergedStyleSpecial(StyleSignatureBasic.activity(), 10);
+
+		final StyleBuilder other = builder.cloneMe();
+		for (int i = 0; i < StyleBuilder.MAX_MERGED_STYLES; i++) {
+			other.getMergedStyle(StyleSignatureBasic.activity().addStereotype("s" + i));
+			other.getMergedStyleSpecial(StyleSignatureBasic.activity().addStereotype("s" + i), 10);
+		}
+
+		assertNotSame(style, builder.getMergedStyle(StyleSignatureBasic.activity()));
+		assertSameValues(style, builder.getMergedStyle(StyleSignatureBasic.activity()));
+		assertNotSame(special, builder.getMergedStyleSpecial(StyleSignatureBasic.activity(), 10));
+		assertSameValues(special, builder.getMergedStyleSpecial(StyleSignatureBasic.activity(), 10));
+	}
+
+}
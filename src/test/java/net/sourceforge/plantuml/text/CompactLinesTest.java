@@ -0,0 +1,69 @@
+package net.sourceforge.plantuml.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.utils.LineLocation;
+import net.sourceforge.plantuml.utils.LineLocationImpl;
+
+public class CompactLinesTest {
+
+	private static List<StringLocated> lines(String... strings) {
+		final List<StringLocated> result = new ArrayList<>();
+		LineLocationImpl location = new LineLocationImpl("main", null);
+		for (String s : strings) {
+			location = location.oneLineRead();
+			result.add(new StringLocated(s, location));
+		}
+		return result;
+	}
+
+	private static void assertSameLines(List<StringLocated> expected, List<StringLocated> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			final StringLocated e = expected.get(i);
+			final StringLocated a = actual.get(i);
+			assertEquals(e.getString(), a.getString());
+			assertEquals(e.getPreprocessorError(), a.getPreprocessorError());
+			assertEquals(e.getLocation().getDescription(), a.getLocation().getDescription());
+			assertSame(e.getLocation().getParent(), a.getLocation().getParent());
+			assertEquals(e.getLocation().getPosition(), a.getLocation().getPosition());
+		}
+	}
+
+	@Test
+	void test_latin1_lines() {
+		final List<StringLocated> source = lines("@startuml", "Alice -> Bob : café", "", "@enduml");
+		assertSameLines(source, CompactLines.copyOf(source));
+	}
+
+	@Test
+	void test_non_latin1_lines() {
+		final List<StringLocated> source = lines("@startuml", "Alice -> Bob : ✓ 日本", "@enduml");
+		assertSameLines(source, CompactLines.copyOf(source));
+	}
+
+	@Test
+	void test_locations_and_errors() {
+		final LineLocation main = new LineLocationImpl("main", null).oneLineRead();
+		final LineLocationImpl included = new LineLocationImpl("inc.puml", main);
+		final List<StringLocated> source = Arrays.asList(new StringLocated("a", main),
+				new StringLocated("b", included.oneLineRead()),
+				new StringLocated("c", included.oneLineRead().oneLineRead(), "Some error"),
+				new StringLocated("d", null));
+
+		final CompactLines compact = CompactLines.copyOf(source);
+		assertSameLines(source.subList(0, 3), compact.subList(0, 3));
+		assertEquals("d", compact.get(3).getString());
+		assertNull(compact.get(3).getLocation());
+		assertSame(compact, CompactLines.copyOf(compact));
+	}
+
+}
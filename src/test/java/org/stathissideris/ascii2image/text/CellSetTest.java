@@ -0,0 +1,83 @@
+package org.stathissideris.ascii2image.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CellSetTest {
+
+	private final TextGrid grid = new TextGrid();
+
+	@Test
+	void testAddContainsRemove() {
+		final CellSet set = new CellSet();
+		assertEquals(true, set.add(grid.new Cell(3, 4)));
+		assertEquals(false, set.add(grid.new Cell(3, 4)));
+		// Far away and negative cells make the set grow in every direction
+		set.add(grid.new Cell(-5, 200));
+		set.add(grid.new Cell(500, -7));
+		assertEquals(3, set.size());
+		assertTrue(set.contains(grid.new Cell(-5, 200)));
+		assertFalse(set.contains(grid.new Cell(-5, 199)));
+		assertEquals(500, set.getMaxX());
+		assertEquals(-5, set.getMinX());
+		assertEquals(-7, set.getMinY());
+
+		assertEquals(Boolean.TRUE, set.remove(grid.new Cell(3, 4)));
+		assertNull(set.remove(grid.new Cell(3, 4)));
+		assertEquals(2, set.size());
+	}
+
+	@Test
+	void testIterationIsRowMajor() {
+		final CellSet set = new CellSet();
+		set.add(grid.new Cell(2, 1));
+		set.add(grid.new Cell(0, 1));
+		set.add(grid.new Cell(70, 0));
+		final List<String> cells = new ArrayList<>();
+		for (TextGrid.Cell cell : set)
+			cells.add(cell.toString());
+		assertEquals("[(70, 0), (0, 1), (2, 1)]", cells.toString());
+		assertEquals("(70, 0)", set.getFirst().toString());
+	}
+
+	@Test
+	void testTranslateAndCopy() {
+		final CellSet set = new CellSet();
+		set.add(grid.new Cell(1, 1));
+		set.add(grid.new Cell(2, 1));
+		final CellSet copy = CellSet.copyCellSet(set);
+		set.translate(10, 20);
+		assertTrue(set.contains(grid.new Cell(12, 21)));
+		assertFalse(set.contains(grid.new Cell(2, 1)));
+		assertTrue(copy.contains(grid.new Cell(2, 1)));
+
+		final CellSet other = new CellSet();
+		other.add(grid.new Cell(12, 21));
+		other.add(grid.new Cell(11, 21));
+		assertTrue(set.equals(other));
+		set.subtractSet(other);
+		assertEquals(0, set.size());
+	}
+
+	@Test
+	void testFillContinuousArea() {
+		final TextGrid box = new TextGrid(6, 5);
+		box.setRow(1, " +--+ ");
+		box.setRow(2, " |  | ");
+		box.setRow(3, " +--+ ");
+		final CellSet inside = box.fillContinuousArea(2, 2, '*');
+		assertEquals(2, inside.size());
+		assertEquals('*', box.get(3, 2));
+		// The outside wraps around the box
+		final CellSet outside = box.fillContinuousArea(0, 0, '.');
+		assertEquals(6 * 5 - 10 - 2, outside.size());
+	}
+
+}